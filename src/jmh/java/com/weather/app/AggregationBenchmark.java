@@ -0,0 +1,101 @@
+package com.weather.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of WeatherAggregator over millions of snapshots as the number of fork/join worker threads grows.
+ * A parallelism of 0 runs the sequential fallback on the benchmark thread.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.util.logging.config.file=/dev/null"})
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+    private static final String[] DESCRIPTIONS = {
+        "clear sky", "few clouds", "scattered clouds", "broken clouds", "overcast clouds",
+        "light rain", "moderate rain", "thunderstorm", "snow", "mist"
+    };
+
+    @Param({"0", "1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param("4000000")
+    private int snapshots;
+
+    private WeatherDataStore store;
+    private ForkJoinPool pool;
+    private WeatherAggregator aggregator;
+
+    /**
+     * Fills the store with random snapshots of 1,000 cities and creates a pool of the selected size
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new WeatherDataStore(snapshots);
+        Random random = new Random(42);
+        for (int i = 0; i < snapshots; i++) {
+            store.append(new WeatherData("City " + random.nextInt(1000), random.nextGaussian() * 15,
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]), i);
+        }
+        pool = parallelism > 0 ? new ForkJoinPool(parallelism) : null;
+        aggregator = new WeatherAggregator(store, pool);
+    }
+
+    /**
+     * Stops the worker threads
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Highest temperature per city, top ten
+     * @return The hottest cities
+     */
+    @Benchmark
+    public List<WeatherAggregator.CityTemperature> hottestCities() {
+        return aggregator.hottestCities(10);
+    }
+
+    /**
+     * Snapshot count per description
+     * @return The counts
+     */
+    @Benchmark
+    public Map<String, Long> countByDescription() {
+        return aggregator.countByDescription();
+    }
+
+    /**
+     * Temperature histogram in one-degree buckets
+     * @return The bucket counts
+     */
+    @Benchmark
+    public long[] temperatureHistogram() {
+        return aggregator.temperatureHistogram(-50.0, 1.0, 100);
+    }
+}
@@ -0,0 +1,64 @@
+package com.weather.app;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Realistic OpenWeatherMap response bodies shared by the benchmarks
+ */
+final class BenchmarkPayloads {
+
+    /**
+     * A complete current-weather response as returned by /data/2.5/weather for London
+     */
+    static final String CURRENT_WEATHER_JSON = "{"
+            + "\"coord\":{\"lon\":-0.1257,\"lat\":51.5085},"
+            + "\"weather\":[{\"id\":802,\"main\":\"Clouds\",\"description\":\"scattered clouds\",\"icon\":\"03d\"}],"
+            + "\"base\":\"stations\","
+            + "\"main\":{\"temp\":15.52,\"feels_like\":14.83,\"temp_min\":13.91,\"temp_max\":16.74,"
+            + "\"pressure\":1012,\"humidity\":72,\"sea_level\":1012,\"grnd_level\":1008},"
+            + "\"visibility\":10000,"
+            + "\"wind\":{\"speed\":4.12,\"deg\":250,\"gust\":7.2},"
+            + "\"clouds\":{\"all\":40},"
+            + "\"dt\":1700000000,"
+            + "\"sys\":{\"type\":2,\"id\":2075535,\"country\":\"GB\",\"sunrise\":1699946000,\"sunset\":1699978000},"
+            + "\"timezone\":0,\"id\":2643743,\"name\":\"London\",\"cod\":200}";
+
+    static final byte[] CURRENT_WEATHER_BYTES = CURRENT_WEATHER_JSON.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The same response pretty-printed, as some proxies and recorded fixtures deliver it
+     */
+    static final String PRETTY_WEATHER_JSON = CURRENT_WEATHER_JSON
+            .replace("{", "{\n    ")
+            .replace(",\"", ",\n    \"")
+            .replace("}", "\n}")
+            .replace(":", ": ");
+
+    /**
+     * A response for a city whose name and description need non-ASCII and escaped characters
+     */
+    static final String UNICODE_WEATHER_JSON = CURRENT_WEATHER_JSON
+            .replace("\"London\"", "\"S\u00e3o Paulo\"")
+            .replace("\"scattered clouds\"", "\"chuva fraca \\u2614\"");
+
+    /**
+     * Returns the UTF-8 bytes of one of the named payloads
+     * @param name One of "compact", "pretty" or "unicode"
+     * @return The payload bytes
+     */
+    static byte[] payload(String name) {
+        switch (name) {
+            case "compact":
+                return CURRENT_WEATHER_BYTES;
+            case "pretty":
+                return PRETTY_WEATHER_JSON.getBytes(StandardCharsets.UTF_8);
+            case "unicode":
+                return UNICODE_WEATHER_JSON.getBytes(StandardCharsets.UTF_8);
+            default:
+                throw new IllegalArgumentException("Unknown payload: " + name);
+        }
+    }
+
+    private BenchmarkPayloads() {
+    }
+}
@@ -0,0 +1,95 @@
+package com.weather.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to complete 10,000 concurrent bulk lookups in WeatherService when each lookup blocks for a
+ * simulated upstream latency: a fixed pool of platform threads against one virtual thread per lookup.
+ * The virtual mode needs a JDK 21+ runtime, e.g.
+ * {@code mvn -Pbenchmarks,jdk21 test-compile exec:exec -Djmh.args="BulkLookup"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.util.logging.config.file=/dev/null")
+@State(Scope.Benchmark)
+public class BulkLookupBenchmark {
+
+    // A generous pool for blocking I/O; each platform thread reserves its own stack
+    private static final int PLATFORM_POOL_SIZE = 200;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param("10000")
+    private int lookups;
+
+    @Param("20")
+    private int latencyMillis;
+
+    private WeatherService weatherService;
+    private List<String> cities;
+
+    /**
+     * Builds the service for the selected thread mode and the list of distinct cities to look up
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = "virtual".equals(threads);
+        if (virtual && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("The virtual mode needs a JDK 21+ runtime");
+        }
+        WeatherApiClient blockingClient = city -> {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WeatherApiException("Weather data fetch was interrupted", e);
+            }
+            return new WeatherData(city, 15.5, "scattered clouds");
+        };
+        weatherService = virtual
+                ? new WeatherService(blockingClient, lookups, true)
+                : new WeatherService(blockingClient, PLATFORM_POOL_SIZE);
+
+        cities = new ArrayList<>(lookups);
+        for (int i = 0; i < lookups; i++) {
+            cities.add("City " + i);
+        }
+    }
+
+    /**
+     * Shuts down the service's bulk executor
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        weatherService.close();
+    }
+
+    /**
+     * Looks up every city through the bulk API
+     * @return The results, one per city
+     */
+    @Benchmark
+    public Map<String, Result<WeatherData>> bulkLookup() {
+        return weatherService.getWeather(cities);
+    }
+}
@@ -0,0 +1,70 @@
+package com.weather.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU-only steps of a lookup: city validation, URL building and result formatting
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientHotPathBenchmark {
+
+    @Param({"London", "  Rio de Janeiro  ", "Düsseldorf"})
+    private String city;
+
+    private OpenWeatherMapClient client;
+    private WeatherData weatherData;
+
+    /**
+     * Creates a client pointing at an unused local URL; no request is ever sent
+     */
+    @Setup
+    public void setUp() {
+        client = new OpenWeatherMapClient("benchmark-api-key", "http://localhost:1/data/2.5/weather");
+        weatherData = new WeatherData(city.trim(), 15.52, "scattered clouds");
+    }
+
+    /**
+     * Resolves and validates the city name; repeated names are served from the CityResolver cache
+     * @return The resolved city
+     * @throws WeatherApiException if the city name is rejected
+     */
+    @Benchmark
+    public CityResolver.ResolvedCity resolveCity() throws WeatherApiException {
+        return client.resolveCity(city);
+    }
+
+    /**
+     * Builds the request URL for an already validated city name
+     * @return The request URL
+     */
+    @Benchmark
+    public String buildApiUrl() {
+        return client.buildApiUrl("London");
+    }
+
+    /**
+     * Formats a result the way the CLI prints it
+     * @return The formatted weather data
+     */
+    @Benchmark
+    public String weatherDataToString() {
+        return weatherData.toString();
+    }
+}
@@ -0,0 +1,88 @@
+package com.weather.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full getWeatherFromApi round trips over loopback HTTP against an in-process stub server.
+ * Logging is switched off so the numbers reflect the client rather than the console handler.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Djava.util.logging.config.file=/dev/null",
+        // Without TCP_NODELAY the stub's split header/body writes stall on delayed ACKs (~40 ms per call)
+        "-Dsun.net.httpserver.nodelay=true"})
+@State(Scope.Benchmark)
+public class EndToEndBenchmark {
+
+    private StubWeatherServer server;
+    private OpenWeatherMapClient client;
+
+    /**
+     * Starts the stub server and a client pointing at it
+     * @throws IOException if the stub server cannot start
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubWeatherServer.start(BenchmarkPayloads.CURRENT_WEATHER_BYTES, 4);
+        // Effectively unlimited, so the benchmark measures the client rather than the request budget
+        RateLimiter unlimited = new RateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ZERO);
+        client = new OpenWeatherMapClient("benchmark-api-key", server.weatherUrl(), null, unlimited);
+    }
+
+    /**
+     * Stops the stub server
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * One blocking lookup per invocation
+     * @return The parsed weather data
+     * @throws WeatherApiException if the lookup fails
+     */
+    @Benchmark
+    public WeatherData blockingLookup() throws WeatherApiException {
+        return client.getWeatherFromApi("London");
+    }
+
+    /**
+     * Blocking lookups from four threads sharing one client
+     * @return The parsed weather data
+     * @throws WeatherApiException if the lookup fails
+     */
+    @Benchmark
+    @Threads(4)
+    public WeatherData blockingLookupContended() throws WeatherApiException {
+        return client.getWeatherFromApi("London");
+    }
+
+    /**
+     * One non-blocking lookup per invocation, joined immediately
+     * @return The parsed weather data
+     */
+    @Benchmark
+    public WeatherData asyncLookup() {
+        return client.getWeatherFromApiAsync("London").join();
+    }
+}
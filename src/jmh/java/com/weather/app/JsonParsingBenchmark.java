@@ -0,0 +1,68 @@
+package com.weather.app;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the streaming WeatherJsonParser with the previous org.json tree-building parse.
+ * Run with {@code -prof gc} to see the per-operation allocation difference.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonParsingBenchmark {
+
+    @Param({"compact", "pretty", "unicode"})
+    private String payload;
+
+    private byte[] body;
+
+    /**
+     * Selects the response body for the current payload parameter
+     */
+    @Setup
+    public void setUp() {
+        body = BenchmarkPayloads.payload(payload);
+    }
+
+    /**
+     * The current path: parse the raw response bytes and pick out the three fields
+     * @return The parsed weather data
+     * @throws WeatherApiException if the payload cannot be parsed
+     */
+    @Benchmark
+    public WeatherData streamingParser() throws WeatherApiException {
+        return WeatherJsonParser.parse(body);
+    }
+
+    /**
+     * The previous path: decode the body to a String, then build a full JSONObject tree
+     * @return The parsed weather data
+     */
+    @Benchmark
+    public WeatherData orgJsonTree() {
+        JSONObject json = new JSONObject(new String(body, StandardCharsets.UTF_8));
+        String cityName = json.getString("name");
+        double temperature = json.getJSONObject("main").getDouble("temp");
+        String description = json.getJSONArray("weather")
+                .getJSONObject(0)
+                .getString("description");
+        return new WeatherData(cityName, temperature, description);
+    }
+}
@@ -0,0 +1,129 @@
+package com.weather.app;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching a new JVM running a single CLI lookup until the weather report appears on its
+ * standard output, against an in-process stub server. Every invocation is a cold start, so this measures
+ * JVM startup, class loading and initialization rather than steady-state speed.
+ * <p>
+ * By default the child runs on the benchmark's own classpath. To compare with an AppCDS archive built by
+ * the appcds profile, point the child at the packaged jar the archive was created from, e.g.
+ * {@code -p classpath=target/weather-app-1.0-SNAPSHOT-jar-with-dependencies.jar
+ * -p jvmOptions="-XX:SharedArchiveFile=target/weather-app.jsa"}.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Djava.util.logging.config.file=/dev/null",
+        "-Dsun.net.httpserver.nodelay=true"})
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final String REPORT_HEADER = "Current Weather for";
+
+    /**
+     * Classpath of the child JVM; empty for the benchmark's own classpath
+     */
+    @Param({""})
+    public String classpath;
+
+    /**
+     * Space separated options for the child JVM, e.g. -XX:TieredStopAtLevel=1
+     */
+    @Param({"", "-XX:TieredStopAtLevel=1"})
+    public String jvmOptions;
+
+    private StubWeatherServer server;
+    private Process process;
+
+    /**
+     * Starts the stub server the child JVMs look up weather from
+     * @throws IOException if the stub server cannot start
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubWeatherServer.start(BenchmarkPayloads.CURRENT_WEATHER_BYTES, 1);
+    }
+
+    /**
+     * Stops the stub server
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Waits for the child JVM to exit, so its shutdown does not overlap the next launch
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @TearDown(Level.Invocation)
+    public void awaitExit() throws InterruptedException {
+        if (process != null && !process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+        process = null;
+    }
+
+    /**
+     * Launches the CLI for one city and returns once the report header has been printed
+     * @return The header line
+     * @throws IOException if the child JVM cannot be started or exits without printing a report
+     */
+    @Benchmark
+    public String timeToFirstOutput() throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command());
+        builder.environment().put("OPENWEATHERMAP_API_KEY", "benchmark-api-key");
+        builder.environment().put("OPENWEATHERMAP_API_URL", server.weatherUrl());
+        builder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        process = builder.start();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(REPORT_HEADER)) {
+                    return line;
+                }
+            }
+        }
+        throw new IOException("Weather CLI exited without printing a report");
+    }
+
+    private List<String> command() {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (!jvmOptions.isEmpty()) {
+            command.addAll(Arrays.asList(jvmOptions.trim().split("\\s+")));
+        }
+        command.add("-cp");
+        command.add(classpath.isEmpty() ? System.getProperty("java.class.path") : classpath);
+        command.add(WeatherApp.class.getName());
+        command.add("London");
+        return command;
+    }
+}
@@ -0,0 +1,58 @@
+package com.weather.app;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP server that answers every weather request with a fixed OpenWeatherMap response
+ */
+final class StubWeatherServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private StubWeatherServer(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts a server on an ephemeral loopback port
+     * @param body The response body returned for every request
+     * @param threads The number of handler threads
+     * @return The running server
+     * @throws IOException if the server socket cannot be opened
+     */
+    static StubWeatherServer start(byte[] body, int threads) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(body);
+            }
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.start();
+        return new StubWeatherServer(server, executor);
+    }
+
+    /**
+     * @return The URL of the stub's current-weather endpoint
+     */
+    String weatherUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/data/2.5/weather";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
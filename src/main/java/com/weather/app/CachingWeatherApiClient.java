@@ -0,0 +1,294 @@
+package com.weather.app;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator that keeps recent successful lookups in memory.
+ * Entries are keyed on the canonical city name (see CityResolver), expire after a fixed time-to-live
+ * and are evicted in least-recently-used order once the configured entry limit is reached.
+ * Stale last-known observations (see {@link WeatherData#isStale()}) are passed through but not cached.
+ * The time-to-live and entry limit can be changed while the client is in use with {@link #reconfigure}.
+ * Batches are answered from the cache where possible, and only the misses are passed on as one batch.
+ */
+public class CachingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(CachingWeatherApiClient.class.getName());
+    static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private final WeatherApiClient delegate;
+    // Guarded by entries, so a reconfiguration is seen by the next lookup
+    private long ttlNanos;
+    private int maxEntries;
+    private final WeatherMetrics metrics;
+    private final LongSupplier nanoClock;
+    private final Map<String, CacheEntry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public CachingWeatherApiClient(WeatherApiClient delegate) {
+        this(delegate, DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingWeatherApiClient(WeatherApiClient delegate, Duration ttl, int maxEntries) {
+        this(delegate, ttl, maxEntries, WeatherMetrics.noop());
+    }
+
+    /**
+     * Creates a caching client that also reports hits and misses to the given metrics
+     * @param delegate The client that performs lookups on a miss
+     * @param ttl How long an entry is served
+     * @param maxEntries The maximum number of entries held
+     * @param metrics The metrics to record cache lookups in
+     */
+    public CachingWeatherApiClient(WeatherApiClient delegate, Duration ttl, int maxEntries, WeatherMetrics metrics) {
+        this(delegate, ttl, maxEntries, metrics, System::nanoTime);
+    }
+
+    CachingWeatherApiClient(WeatherApiClient delegate, Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this(delegate, ttl, maxEntries, WeatherMetrics.noop(), nanoClock);
+    }
+
+    CachingWeatherApiClient(WeatherApiClient delegate, Duration ttl, int maxEntries, WeatherMetrics metrics,
+            LongSupplier nanoClock) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate client cannot be null");
+        }
+        checkLimits(ttl, maxEntries);
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.metrics = metrics;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > CachingWeatherApiClient.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        LOGGER.log(Level.CONFIG, "CachingWeatherApiClient initialized with TTL {0} and max entries {1}",
+                new Object[]{ttl, maxEntries});
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        String key = CityResolver.shared().key(city);
+        if (key.isEmpty()) {
+            // Let the delegate produce its usual validation error
+            return delegate.getWeatherFromApi(city);
+        }
+
+        WeatherData cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            metrics.recordCacheLookup(true);
+            LOGGER.log(Level.FINE, "Cache hit for city: {0}", key);
+            return cached;
+        }
+
+        misses.increment();
+        metrics.recordCacheLookup(false);
+        LOGGER.log(Level.FINE, "Cache miss for city: {0}", key);
+        WeatherData weatherData = delegate.getWeatherFromApi(city);
+        store(key, weatherData);
+        return weatherData;
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        String key = CityResolver.shared().key(city);
+        if (key.isEmpty()) {
+            return delegate.getWeatherFromApiAsync(city);
+        }
+
+        WeatherData cached = lookup(key);
+        if (cached != null) {
+            hits.increment();
+            metrics.recordCacheLookup(true);
+            LOGGER.log(Level.FINE, "Cache hit for city: {0}", key);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        misses.increment();
+        metrics.recordCacheLookup(false);
+        LOGGER.log(Level.FINE, "Cache miss for city: {0}", key);
+        return delegate.getWeatherFromApiAsync(city).thenApply(weatherData -> {
+            store(key, weatherData);
+            return weatherData;
+        });
+    }
+
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        Map<String, String> missKeys = new LinkedHashMap<>();
+        for (String city : new LinkedHashSet<>(cities)) {
+            String key = CityResolver.shared().key(city);
+            WeatherData cached = key.isEmpty() ? null : lookup(key);
+            if (cached != null) {
+                hits.increment();
+                metrics.recordCacheLookup(true);
+                results.put(city, Result.success(cached));
+            } else {
+                // Reserve the city's place so results keep the order given
+                results.put(city, null);
+                missKeys.put(city, key);
+            }
+        }
+        if (missKeys.isEmpty()) {
+            return results;
+        }
+
+        List<String> missedCities = new ArrayList<>(missKeys.keySet());
+        for (String key : missKeys.values()) {
+            // Blank names are not counted, as in single lookups
+            if (!key.isEmpty()) {
+                misses.increment();
+                metrics.recordCacheLookup(false);
+            }
+        }
+        LOGGER.log(Level.FINE, "Cache miss for {0} of {1} cities in batch",
+                new Object[]{missedCities.size(), results.size()});
+        Map<String, Result<WeatherData>> fetched = delegate.getWeatherForCities(missedCities);
+        for (Map.Entry<String, String> miss : missKeys.entrySet()) {
+            Result<WeatherData> result = fetched.get(miss.getKey());
+            if (result == null) {
+                result = Result.failure(new WeatherApiException("No result for city " + miss.getKey()));
+            } else if (result.isSuccess() && !miss.getValue().isEmpty()) {
+                store(miss.getValue(), result.getValue());
+            }
+            results.put(miss.getKey(), result);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return delegate.supportsBatch();
+    }
+
+    /**
+     * @return The number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to go to the delegate client
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of entries dropped because the cache was full
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The number of entries currently held, including ones that have expired but not yet been purged
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Removes every cached entry. Counters are left untouched.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Changes the time-to-live and entry limit. Entries already held expire under the new time-to-live,
+     * and the least recently used ones are evicted at once if the cache holds more than the new limit.
+     * @param ttl How long an entry is served
+     * @param maxEntries The maximum number of entries held
+     */
+    public void reconfigure(Duration ttl, int maxEntries) {
+        checkLimits(ttl, maxEntries);
+        synchronized (entries) {
+            this.ttlNanos = ttl.toNanos();
+            this.maxEntries = maxEntries;
+            Iterator<String> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+        LOGGER.log(Level.CONFIG, "CachingWeatherApiClient reconfigured with TTL {0} and max entries {1}",
+                new Object[]{ttl, maxEntries});
+    }
+
+    private static void checkLimits(Duration ttl, int maxEntries) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+    }
+
+    private WeatherData lookup(String key) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - entry.storedAtNanos >= ttlNanos) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.weatherData;
+        }
+    }
+
+    private void store(String key, WeatherData weatherData) {
+        // Stale fallbacks are served once; the next lookup should try the API again
+        if (weatherData.isStale()) {
+            return;
+        }
+        CacheEntry entry = new CacheEntry(weatherData, nanoClock.getAsLong());
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final WeatherData weatherData;
+        private final long storedAtNanos;
+
+        private CacheEntry(WeatherData weatherData, long storedAtNanos) {
+            this.weatherData = weatherData;
+            this.storedAtNanos = storedAtNanos;
+        }
+    }
+}
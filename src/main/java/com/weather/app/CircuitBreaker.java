@@ -0,0 +1,227 @@
+package com.weather.app;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker that stops calls to a failing dependency so callers fail fast instead of waiting on timeouts.
+ * <p>
+ * While CLOSED the outcomes of the last {@code windowSize} calls are kept in a ring buffer. Once at least
+ * {@code minimumCalls} have been recorded, the breaker trips to OPEN when the share of failed calls or the
+ * share of calls slower than the slow-call threshold reaches its rate threshold. While OPEN every call is
+ * rejected without reaching the dependency. After the open duration the breaker lets up to
+ * {@code halfOpenCalls} probe calls through (HALF_OPEN): if they all succeed it closes with an empty window,
+ * and the first failed probe opens it again.
+ * <p>
+ * All methods are synchronized; they only update a few counters, so the lock is held briefly.
+ */
+public final class CircuitBreaker {
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    /**
+     * The states of the breaker
+     */
+    public enum State {
+        /** Calls pass and their outcomes are recorded */
+        CLOSED,
+        /** Calls are rejected until the open duration has elapsed */
+        OPEN,
+        /** A limited number of probe calls pass to test whether the dependency has recovered */
+        HALF_OPEN
+    }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Outcome flags of the most recent calls while closed
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    /**
+     * Creates a circuit breaker
+     * @param windowSize The number of most recent calls the rates are computed over
+     * @param minimumCalls The number of calls that must be recorded before the breaker can trip
+     * @param failureRateThreshold The share of failed calls, between 0 and 1, that trips the breaker
+     * @param slowCallThreshold How long a call may take before it counts as slow
+     * @param slowCallRateThreshold The share of slow calls, between 0 and 1, that trips the breaker
+     * @param openDuration How long the breaker rejects calls before letting probes through
+     * @param halfOpenCalls The number of successful probes needed to close the breaker again
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallThreshold,
+            double slowCallRateThreshold, Duration openDuration, int halfOpenCalls) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallThreshold, slowCallRateThreshold, openDuration,
+                halfOpenCalls, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallThreshold,
+            double slowCallRateThreshold, Duration openDuration, int halfOpenCalls, LongSupplier nanoClock) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Window size must be positive and at least the minimum number of calls");
+        }
+        if (!(failureRateThreshold > 0 && failureRateThreshold <= 1)
+                || !(slowCallRateThreshold > 0 && slowCallRateThreshold <= 1)) {
+            throw new IllegalArgumentException("Rate thresholds must be greater than 0 and at most 1");
+        }
+        if (slowCallThreshold == null || slowCallThreshold.isNegative() || slowCallThreshold.isZero()
+                || openDuration == null || openDuration.isNegative() || openDuration.isZero()) {
+            throw new IllegalArgumentException("Slow call threshold and open duration must be positive");
+        }
+        if (halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("Half-open calls must be positive");
+        }
+
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+        this.outcomes = new byte[windowSize];
+    }
+
+    /**
+     * Creates a circuit breaker for OpenWeatherMap lookups: it trips when half of the last 20 calls
+     * (at least 10 recorded) failed or took longer than 2 seconds, stays open for 30 seconds and
+     * closes after 3 successful probes.
+     * @return A new circuit breaker
+     */
+    public static CircuitBreaker defaults() {
+        return new CircuitBreaker(20, 10, 0.5, Duration.ofSeconds(2), 0.5, Duration.ofSeconds(30), 3);
+    }
+
+    /**
+     * Asks to make a call. Every permitted call must be followed by exactly one call to
+     * {@link #onSuccess(long)}, {@link #onFailure(long)} or {@link #onIgnored()}.
+     * @return true if the call may proceed, false if it must be rejected
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Records a call that succeeded
+     * @param durationNanos How long the call took
+     */
+    public synchronized void onSuccess(long durationNanos) {
+        if (state == State.HALF_OPEN) {
+            // A slow probe means the dependency has not recovered yet
+            if (durationNanos >= slowCallNanos) {
+                open();
+            } else if (++probesSucceeded >= halfOpenCalls) {
+                resetWindow();
+                transitionTo(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(durationNanos >= slowCallNanos ? SLOW : 0);
+        }
+    }
+
+    /**
+     * Records a call that failed
+     * @param durationNanos How long the call took
+     */
+    public synchronized void onFailure(long durationNanos) {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record((byte) (FAILED | (durationNanos >= slowCallNanos ? SLOW : 0)));
+        }
+    }
+
+    /**
+     * Records a permitted call whose outcome says nothing about the dependency, such as one the client
+     * rejected before sending it. A half-open breaker lets another probe through in its place.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+
+    /**
+     * @return The current state; an open breaker whose open duration has elapsed is reported as OPEN
+     *     until the next call is attempted
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(byte outcome) {
+        if (recorded == windowSize) {
+            // Evict the oldest outcome, which is the one about to be overwritten
+            byte evicted = outcomes[next];
+            failures -= evicted & FAILED;
+            slowCalls -= (evicted & SLOW) >> 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = outcome;
+        next = (next + 1) % windowSize;
+        failures += outcome & FAILED;
+        slowCalls += (outcome & SLOW) >> 1;
+
+        if (recorded >= minimumCalls && (failures >= failureRateThreshold * recorded
+                || slowCalls >= slowCallRateThreshold * recorded)) {
+            if (LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "Circuit breaker tripped: {0} of {1} calls failed, {2} were slow",
+                        new Object[]{failures, recorded, slowCalls});
+            }
+            open();
+        }
+    }
+
+    private void open() {
+        openedAtNanos = nanoClock.getAsLong();
+        resetWindow();
+        transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            LOGGER.log(Level.INFO, "Circuit breaker {0} -> {1}", new Object[]{state, newState});
+            state = newState;
+        }
+    }
+}
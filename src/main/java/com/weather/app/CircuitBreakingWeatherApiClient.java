@@ -0,0 +1,219 @@
+package com.weather.app;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator that guards its delegate with a CircuitBreaker. While the breaker is open,
+ * lookups fail immediately with status 503 instead of waiting on a provider that is down or overloaded.
+ * <p>
+ * Only transient failures (network errors, 5xx and 429, see {@link WeatherApiException#isTransient()})
+ * count against the breaker; an unknown city or an invalid name says nothing about the provider's health,
+ * and neither does a request the client-side rate limiter rejected (see {@link RateLimitExceededException}).
+ * When stale fallback is enabled, the last successful observation of each city is kept, and a lookup that
+ * is rejected by the breaker or fails transiently returns it flagged with {@link WeatherData#isStale()}.
+ * A batch counts as one call, which failed if any of its cities failed transiently.
+ */
+public class CircuitBreakingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreakingWeatherApiClient.class.getName());
+    static final String OPEN_MESSAGE = "Circuit breaker is open, weather API unavailable";
+    // Bounds the last-known observations; cities beyond the limit are not remembered
+    static final int MAX_LAST_KNOWN = 1000;
+
+    private final WeatherApiClient delegate;
+    private final CircuitBreaker breaker;
+    private final boolean serveStale;
+    private final ConcurrentMap<String, WeatherData> lastKnown = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a circuit breaking client
+     * @param delegate The client to guard
+     * @param breaker The circuit breaker deciding whether calls may reach the delegate
+     * @param serveStale Whether to answer with the last known observation when the delegate is unavailable
+     */
+    public CircuitBreakingWeatherApiClient(WeatherApiClient delegate, CircuitBreaker breaker, boolean serveStale) {
+        if (delegate == null || breaker == null) {
+            throw new IllegalArgumentException("Delegate client and circuit breaker cannot be null");
+        }
+        this.delegate = delegate;
+        this.breaker = breaker;
+        this.serveStale = serveStale;
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        if (!breaker.tryAcquire()) {
+            return fallback(city, new WeatherApiException(OPEN_MESSAGE, 503));
+        }
+        long start = System.nanoTime();
+        WeatherData weatherData;
+        try {
+            weatherData = delegate.getWeatherFromApi(city);
+        } catch (WeatherApiException e) {
+            onFailure(e, System.nanoTime() - start);
+            if (!e.isTransient()) {
+                throw e;
+            }
+            return fallback(city, e);
+        } catch (RuntimeException e) {
+            breaker.onFailure(System.nanoTime() - start);
+            throw e;
+        }
+        onSuccess(city, weatherData, System.nanoTime() - start);
+        return weatherData;
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        if (!breaker.tryAcquire()) {
+            return fallbackAsync(city, new WeatherApiException(OPEN_MESSAGE, 503));
+        }
+        long start = System.nanoTime();
+        CompletableFuture<WeatherData> future;
+        try {
+            future = delegate.getWeatherFromApiAsync(city);
+        } catch (RuntimeException e) {
+            breaker.onFailure(System.nanoTime() - start);
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.handle((weatherData, error) -> {
+            long durationNanos = System.nanoTime() - start;
+            if (error == null) {
+                onSuccess(city, weatherData, durationNanos);
+                return CompletableFuture.completedFuture(weatherData);
+            }
+            Throwable cause = Futures.unwrap(error);
+            if (cause instanceof WeatherApiException) {
+                WeatherApiException exception = (WeatherApiException) cause;
+                onFailure(exception, durationNanos);
+                if (exception.isTransient()) {
+                    return fallbackAsync(city, exception);
+                }
+            } else {
+                breaker.onFailure(durationNanos);
+            }
+            return CompletableFuture.<WeatherData>failedFuture(cause);
+        }).thenCompose(result -> result);
+    }
+
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        if (!breaker.tryAcquire()) {
+            WeatherApiException open = new WeatherApiException(OPEN_MESSAGE, 503);
+            for (String city : new LinkedHashSet<>(cities)) {
+                results.put(city, fallbackResult(city, open));
+            }
+            return results;
+        }
+        long start = System.nanoTime();
+        Map<String, Result<WeatherData>> fetched;
+        try {
+            fetched = delegate.getWeatherForCities(cities);
+        } catch (RuntimeException e) {
+            breaker.onFailure(System.nanoTime() - start);
+            throw e;
+        }
+        onBatchComplete(fetched, System.nanoTime() - start);
+
+        for (Map.Entry<String, Result<WeatherData>> entry : fetched.entrySet()) {
+            String city = entry.getKey();
+            Result<WeatherData> result = entry.getValue();
+            if (result.isSuccess()) {
+                remember(city, result.getValue());
+            } else if (result.getError().isTransient()) {
+                result = fallbackResult(city, result.getError());
+            }
+            results.put(city, result);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return delegate.supportsBatch();
+    }
+
+    private void onSuccess(String city, WeatherData weatherData, long durationNanos) {
+        breaker.onSuccess(durationNanos);
+        remember(city, weatherData);
+    }
+
+    private void remember(String city, WeatherData weatherData) {
+        if (serveStale && weatherData != null) {
+            String key = CityResolver.shared().key(city);
+            if (lastKnown.size() < MAX_LAST_KNOWN || lastKnown.containsKey(key)) {
+                lastKnown.put(key, weatherData);
+            }
+        }
+    }
+
+    // Client errors such as an unknown city show the provider is answering, so they count as successes.
+    // A rejection by our own rate limiter never reached the provider, so it is not counted at all.
+    private void onFailure(WeatherApiException e, long durationNanos) {
+        if (e instanceof RateLimitExceededException) {
+            breaker.onIgnored();
+        } else if (e.isTransient()) {
+            breaker.onFailure(durationNanos);
+        } else {
+            breaker.onSuccess(durationNanos);
+        }
+    }
+
+    // Reports the batch as a failure if any city failed transiently, as a success if the provider answered
+    // for any city, and not at all if every city was rejected by our own rate limiter
+    private void onBatchComplete(Map<String, Result<WeatherData>> results, long durationNanos) {
+        boolean answered = false;
+        for (Result<WeatherData> result : results.values()) {
+            WeatherApiException error = result.isSuccess() ? null : result.getError();
+            if (error instanceof RateLimitExceededException) {
+                continue;
+            }
+            if (error != null && error.isTransient()) {
+                breaker.onFailure(durationNanos);
+                return;
+            }
+            answered = true;
+        }
+        if (answered) {
+            breaker.onSuccess(durationNanos);
+        } else {
+            breaker.onIgnored();
+        }
+    }
+
+    private WeatherData fallback(String city, WeatherApiException error) throws WeatherApiException {
+        WeatherData weatherData = serveStale ? lastKnown.get(CityResolver.shared().key(city)) : null;
+        if (weatherData == null) {
+            throw error;
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Serving last known weather for {0}: {1}",
+                    new Object[]{weatherData.getCity(), error.getMessage()});
+        }
+        return weatherData.asStale();
+    }
+
+    private Result<WeatherData> fallbackResult(String city, WeatherApiException error) {
+        try {
+            return Result.success(fallback(city, error));
+        } catch (WeatherApiException e) {
+            return Result.failure(e);
+        }
+    }
+
+    private CompletableFuture<WeatherData> fallbackAsync(String city, WeatherApiException error) {
+        try {
+            return CompletableFuture.completedFuture(fallback(city, error));
+        } catch (WeatherApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
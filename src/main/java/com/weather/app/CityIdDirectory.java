@@ -0,0 +1,97 @@
+package com.weather.app;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Maps city names to OpenWeatherMap city IDs so lookups can be batched through the group endpoint.
+ * The normalized names are held in one sorted array and the IDs in a parallel primitive array,
+ * so a lookup is a binary search without boxing or hash table overhead.
+ */
+public class CityIdDirectory {
+    private static final Logger LOGGER = Logger.getLogger(CityIdDirectory.class.getName());
+    private static final String CITY_IDS_FILE = "city-ids.properties";
+
+    private final String[] cities;
+    private final long[] ids;
+
+    public CityIdDirectory(Map<String, Long> idsByCity) {
+        Map<String, Long> normalized = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : idsByCity.entrySet()) {
+            normalized.put(CityNames.normalize(entry.getKey()), entry.getValue());
+        }
+        this.cities = normalized.keySet().toArray(new String[0]);
+        this.ids = new long[cities.length];
+        int i = 0;
+        for (long id : normalized.values()) {
+            ids[i++] = id;
+        }
+    }
+
+    /**
+     * Returns the bundled city list, loading it on first use
+     * @return The shared directory of bundled cities
+     */
+    public static CityIdDirectory bundled() {
+        return BundledHolder.INSTANCE;
+    }
+
+    /**
+     * Loads the city list bundled with the application
+     * @return A directory of the bundled cities, or an empty directory if the list cannot be read
+     */
+    public static CityIdDirectory loadBundled() {
+        Map<String, Long> ids = new HashMap<>();
+        try (InputStream inputStream = CityIdDirectory.class.getClassLoader().getResourceAsStream(CITY_IDS_FILE)) {
+            if (inputStream == null) {
+                LOGGER.log(Level.WARNING, "Unable to find {0}, city ID lookups are disabled", CITY_IDS_FILE);
+                return new CityIdDirectory(ids);
+            }
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            for (String city : properties.stringPropertyNames()) {
+                ids.put(city, Long.parseLong(properties.getProperty(city).trim()));
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + CITY_IDS_FILE + ", city ID lookups are disabled", e);
+            ids.clear();
+        }
+        LOGGER.log(Level.CONFIG, "Loaded {0} city IDs", ids.size());
+        return new CityIdDirectory(ids);
+    }
+
+    /**
+     * Looks up the OpenWeatherMap ID of a city
+     * @param city The city name in any case or spacing
+     * @return The city ID, or empty if the city is not in the directory
+     */
+    public Optional<Long> findId(String city) {
+        return findIdByKey(CityNames.normalize(city));
+    }
+
+    /**
+     * Looks up the OpenWeatherMap ID of an already normalized city name
+     * @param cityKey The city name as returned by CityNames.normalize
+     * @return The city ID, or empty if the city is not in the directory
+     */
+    Optional<Long> findIdByKey(String cityKey) {
+        int index = Arrays.binarySearch(cities, cityKey);
+        return index >= 0 ? Optional.of(ids[index]) : Optional.empty();
+    }
+
+    public int size() {
+        return cities.length;
+    }
+
+    private static final class BundledHolder {
+        private static final CityIdDirectory INSTANCE = loadBundled();
+    }
+}
@@ -0,0 +1,78 @@
+package com.weather.app;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers for turning user supplied city names into stable lookup keys
+ */
+final class CityNames {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private CityNames() {
+    }
+
+    /**
+     * Normalizes a city name so that "London", " london ", "LONDON" and "São Paulo" / "Sao Paulo" share one key
+     * @param city The city name as supplied by the caller
+     * @return The trimmed, lower-cased city name with inner whitespace collapsed and diacritics removed,
+     *         or an empty string for null
+     */
+    static String normalize(String city) {
+        if (city == null) {
+            return "";
+        }
+        String collapsed = collapseWhitespace(city);
+        if (!isAscii(collapsed)) {
+            // Decompose accented letters and drop the combining marks, e.g. "ü" becomes "u"
+            collapsed = COMBINING_MARKS.matcher(Normalizer.normalize(collapsed, Normalizer.Form.NFD)).replaceAll("");
+        }
+        return collapsed.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Checks for a missing city name without allocating a trimmed copy
+     * @param city The city name as supplied by the caller
+     * @return true if the name is null or contains only whitespace
+     */
+    static boolean isBlank(String city) {
+        if (city == null) {
+            return true;
+        }
+        for (int i = 0; i < city.length(); i++) {
+            if (!Character.isWhitespace(city.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Trims the name and replaces every run of inner whitespace with a single space
+    private static String collapseWhitespace(String city) {
+        StringBuilder collapsed = new StringBuilder(city.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < city.length(); i++) {
+            char c = city.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = collapsed.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    collapsed.append(' ');
+                    pendingSpace = false;
+                }
+                collapsed.append(c);
+            }
+        }
+        return collapsed.toString();
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
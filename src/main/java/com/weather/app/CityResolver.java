@@ -0,0 +1,196 @@
+package com.weather.app;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Turns a city name as typed by a user into a canonical key, a validated query name and, where known,
+ * an OpenWeatherMap city ID. Names are normalized for case, whitespace and diacritics, and aliases such
+ * as "NYC" map to the canonical city, so every spelling of a city shares one cache entry.
+ * Resolutions are cached by the exact input, so repeated names skip normalization and regex validation.
+ */
+public class CityResolver {
+    private static final Logger LOGGER = Logger.getLogger(CityResolver.class.getName());
+    private static final String ALIASES_FILE = "city-aliases.properties";
+    // Pattern for validating city names: allows letters, numbers, spaces, hyphens, and periods
+    private static final Pattern VALID_CITY_PATTERN = Pattern.compile("^[\\p{L}\\p{N}\\s\\-\\.]+$");
+    static final String INVALID_CITY_MESSAGE = "Invalid city name format. City names should only contain letters, "
+            + "numbers, spaces, hyphens, and periods";
+    // Bounds the cache against unbounded distinct input; it is cleared and refilled when full
+    static final int MAX_CACHED_NAMES = 10_000;
+
+    private final CityIdDirectory directory;
+    private final Map<String, String> aliases;
+    private final ConcurrentMap<String, ResolvedCity> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a resolver
+     * @param directory The city IDs to attach to resolved cities, or null to use the bundled city list
+     * @param aliases Alternative city names mapped to canonical names; both sides are normalized
+     */
+    public CityResolver(CityIdDirectory directory, Map<String, String> aliases) {
+        if (aliases == null) {
+            throw new IllegalArgumentException("Aliases cannot be null");
+        }
+        Map<String, String> normalized = new HashMap<>();
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            normalized.put(CityNames.normalize(alias.getKey()), CityNames.normalize(alias.getValue()));
+        }
+        this.directory = directory;
+        this.aliases = Collections.unmodifiableMap(normalized);
+    }
+
+    /**
+     * Returns the resolver for the bundled city list and aliases, loading them on first use
+     * @return The shared resolver
+     */
+    public static CityResolver shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Resolves and validates a city name
+     * @param city The city name as supplied by the caller
+     * @return The resolved city
+     * @throws WeatherApiException if the name is empty or contains characters other than letters, numbers,
+     *         spaces, hyphens and periods
+     */
+    public ResolvedCity resolve(String city) throws WeatherApiException {
+        if (city == null) {
+            throw new WeatherApiException("City name cannot be empty");
+        }
+        ResolvedCity resolved = lookup(city);
+        if (resolved.key.isEmpty()) {
+            throw new WeatherApiException("City name cannot be empty");
+        }
+        if (!resolved.valid) {
+            throw new WeatherApiException(INVALID_CITY_MESSAGE);
+        }
+        return resolved;
+    }
+
+    /**
+     * Computes the canonical key of a city name without validating it, for use as a cache key
+     * @param city The city name as supplied by the caller
+     * @return The canonical key, or an empty string for a null or blank name
+     */
+    public String key(String city) {
+        return city == null ? "" : lookup(city).key;
+    }
+
+    private ResolvedCity lookup(String city) {
+        ResolvedCity resolved = cache.get(city);
+        if (resolved != null) {
+            return resolved;
+        }
+        resolved = compute(city);
+        if (cache.size() >= MAX_CACHED_NAMES) {
+            cache.clear();
+        }
+        cache.put(city, resolved);
+        return resolved;
+    }
+
+    private ResolvedCity compute(String city) {
+        String normalized = CityNames.normalize(city);
+        String canonical = aliases.get(normalized);
+        String key = canonical != null ? canonical : normalized;
+        String trimmed = city.trim();
+        boolean valid = !key.isEmpty() && VALID_CITY_PATTERN.matcher(trimmed).matches();
+        if (!valid) {
+            return new ResolvedCity(key, trimmed, null, null, false);
+        }
+        // Aliases are sent to the API under their canonical name
+        String queryName = canonical != null ? canonical : trimmed;
+        CityIdDirectory ids = directory != null ? directory : CityIdDirectory.bundled();
+        return new ResolvedCity(key, queryName, URLEncoder.encode(queryName, StandardCharsets.UTF_8),
+                ids.findIdByKey(key).orElse(null), true);
+    }
+
+    /**
+     * Loads the aliases bundled with the application
+     * @return The bundled aliases, or an empty map if the list cannot be read
+     */
+    static Map<String, String> loadBundledAliases() {
+        Map<String, String> aliases = new HashMap<>();
+        try (InputStream inputStream = CityResolver.class.getClassLoader().getResourceAsStream(ALIASES_FILE)) {
+            if (inputStream == null) {
+                LOGGER.log(Level.WARNING, "Unable to find {0}, city aliases are disabled", ALIASES_FILE);
+                return aliases;
+            }
+            Properties properties = new Properties();
+            properties.load(inputStream);
+            for (String alias : properties.stringPropertyNames()) {
+                aliases.put(alias, properties.getProperty(alias));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + ALIASES_FILE + ", city aliases are disabled", e);
+            aliases.clear();
+        }
+        LOGGER.log(Level.CONFIG, "Loaded {0} city aliases", aliases.size());
+        return aliases;
+    }
+
+    /**
+     * A city name resolved to its canonical form
+     */
+    public static final class ResolvedCity {
+        private final String key;
+        private final String queryName;
+        private final String encodedQueryName;
+        private final Long id;
+        private final boolean valid;
+
+        private ResolvedCity(String key, String queryName, String encodedQueryName, Long id, boolean valid) {
+            this.key = key;
+            this.queryName = queryName;
+            this.encodedQueryName = encodedQueryName;
+            this.id = id;
+            this.valid = valid;
+        }
+
+        /**
+         * @return The canonical key shared by every spelling and alias of the city
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return The name to send to the API: the trimmed input, or the canonical name for an alias
+         */
+        public String getQueryName() {
+            return queryName;
+        }
+
+        /**
+         * @return The query name encoded for use in a URL query string
+         */
+        public String getEncodedQueryName() {
+            return encodedQueryName;
+        }
+
+        /**
+         * @return The OpenWeatherMap city ID, or empty if the city is not in the directory
+         */
+        public Optional<Long> getId() {
+            return Optional.ofNullable(id);
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final CityResolver INSTANCE = new CityResolver(null, loadBundledAliases());
+    }
+}
@@ -0,0 +1,105 @@
+package com.weather.app;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator that de-duplicates concurrent lookups of the same city.
+ * The first caller for a canonical city name performs the upstream call; callers that
+ * arrive while it is still in flight wait for and share its result or its exception.
+ * Batches are passed through as they are; their cities are already distinct.
+ */
+public class CoalescingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(CoalescingWeatherApiClient.class.getName());
+
+    private final WeatherApiClient delegate;
+    private final ConcurrentMap<String, CompletableFuture<WeatherData>> inFlight = new ConcurrentHashMap<>();
+
+    public CoalescingWeatherApiClient(WeatherApiClient delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate client cannot be null");
+        }
+        this.delegate = delegate;
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        String key = CityResolver.shared().key(city);
+        if (key.isEmpty()) {
+            return delegate.getWeatherFromApi(city);
+        }
+
+        CompletableFuture<WeatherData> call = new CompletableFuture<>();
+        CompletableFuture<WeatherData> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            LOGGER.log(Level.FINE, "Joining in-flight request for city: {0}", key);
+            return Futures.await(existing);
+        }
+
+        try {
+            WeatherData weatherData = delegate.getWeatherFromApi(city);
+            call.complete(weatherData);
+            return weatherData;
+        } catch (Throwable e) {
+            // Errors too, so callers joining this call are never left waiting on it
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        String key = CityResolver.shared().key(city);
+        if (key.isEmpty()) {
+            return delegate.getWeatherFromApiAsync(city);
+        }
+
+        CompletableFuture<WeatherData> call = new CompletableFuture<>();
+        CompletableFuture<WeatherData> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            LOGGER.log(Level.FINE, "Joining in-flight request for city: {0}", key);
+            // Hand out a copy so one caller cancelling its future cannot fail the others
+            return existing.copy();
+        }
+
+        CompletableFuture<WeatherData> upstream;
+        try {
+            upstream = delegate.getWeatherFromApiAsync(city);
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+        upstream.whenComplete((weatherData, error) -> {
+            inFlight.remove(key, call);
+            if (error != null) {
+                call.completeExceptionally(Futures.unwrap(error));
+            } else {
+                call.complete(weatherData);
+            }
+        });
+        return call.copy();
+    }
+
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        return delegate.getWeatherForCities(cities);
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return delegate.supportsBatch();
+    }
+
+    /**
+     * @return The number of distinct cities with an upstream call currently in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -2,21 +2,132 @@ package com.weather.app;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Utility class to handle application configuration
+ * Utility class to handle application configuration.
+ * Settings are resolved once into an immutable {@link WeatherConfig} snapshot, so the getters below do
+ * no file I/O. Environment variables take precedence over the file named by WEATHER_CONFIG_FILE (system
+ * property {@code weather.config.file}), which takes precedence over {@code config.properties} on the
+ * classpath. {@link #reload(Path)} swaps in a new snapshot atomically; ConfigWatcher calls it when the
+ * configuration file changes. A reload refuses a file that is empty or lacks a key it had when last read,
+ * since that is usually a save caught half-way; to drop a setting, restart or set it to its default.
  */
 public class ConfigUtil {
     private static final Logger LOGGER = Logger.getLogger(ConfigUtil.class.getName());
-    private static final String API_KEY_ENV_VARIABLE = "OPENWEATHERMAP_API_KEY";
-    private static final String API_URL_ENV_VARIABLE = "OPENWEATHERMAP_API_URL";
     private static final String CONFIG_FILE = "config.properties";
-    private static final String API_KEY_PROPERTY = "api.key";
-    private static final String API_URL_PROPERTY = "api.base.url";
-    private static final String DEFAULT_API_URL = "https://api.openweathermap.org/data/2.5/weather";
+    private static final String CONFIG_FILE_ENV_VARIABLE = "WEATHER_CONFIG_FILE";
+    private static final String CONFIG_FILE_SYSTEM_PROPERTY = "weather.config.file";
+
+    private static final AtomicReference<WeatherConfig> CURRENT = new AtomicReference<>();
+    private static final List<Consumer<WeatherConfig>> LISTENERS = new CopyOnWriteArrayList<>();
+    // The configuration file last read and its keys, guarded by the class lock
+    private static Path loadedFile;
+    private static Set<String> loadedKeys = Collections.emptySet();
+
+    /**
+     * Returns the configuration in effect, resolving it on first use
+     * @return the current configuration snapshot
+     */
+    public static WeatherConfig current() {
+        WeatherConfig config = CURRENT.get();
+        if (config == null) {
+            Path configFile = getConfigFile();
+            Properties overrides = null;
+            try {
+                overrides = loadFile(configFile);
+                config = resolve(overrides);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to load configuration file " + configFile + ", ignoring it", e);
+                config = WeatherConfig.resolve(System::getenv, loadClasspathProperties());
+            }
+            // Another thread may have resolved or reloaded in the meantime; keep its snapshot
+            synchronized (ConfigUtil.class) {
+                if (CURRENT.compareAndSet(null, config)) {
+                    rememberFile(configFile, overrides);
+                } else {
+                    config = CURRENT.get();
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Re-reads the configuration and replaces the current snapshot with it in one step, then notifies the
+     * registered listeners. If the file cannot be read, is empty, or lacks a key it had when it was last read,
+     * the current snapshot stays in effect.
+     * @param configFile the configuration file to read on top of the classpath defaults, or null for none
+     * @return the new configuration snapshot
+     * @throws IOException if the configuration file cannot be read or looks incomplete
+     */
+    public static WeatherConfig reload(Path configFile) throws IOException {
+        WeatherConfig config;
+        synchronized (ConfigUtil.class) {
+            Properties overrides = loadFile(configFile);
+            checkComplete(configFile, overrides);
+            config = resolve(overrides);
+            CURRENT.set(config);
+            rememberFile(configFile, overrides);
+        }
+        LOGGER.log(Level.INFO, "Configuration reloaded{0}", configFile != null ? " from " + configFile : "");
+        for (Consumer<WeatherConfig> listener : LISTENERS) {
+            try {
+                listener.accept(config);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Configuration listener failed", e);
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Registers a callback that receives every snapshot installed by {@link #reload(Path)}
+     * @param listener the callback
+     */
+    public static void addListener(Consumer<WeatherConfig> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Removes a callback registered with {@link #addListener(Consumer)}
+     * @param listener the callback
+     */
+    public static void removeListener(Consumer<WeatherConfig> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Gets the external configuration file from the WEATHER_CONFIG_FILE environment variable or the
+     * weather.config.file system property
+     * @return the configuration file, or null if none is configured
+     */
+    public static Path getConfigFile() {
+        String value = System.getenv(CONFIG_FILE_ENV_VARIABLE);
+        if (value == null || value.trim().isEmpty()) {
+            value = System.getProperty(CONFIG_FILE_SYSTEM_PROPERTY);
+        }
+        return value == null || value.trim().isEmpty() ? null : Paths.get(value.trim());
+    }
 
     /**
      * Gets the OpenWeatherMap API key from environment variables or config file
@@ -24,29 +135,14 @@ public class ConfigUtil {
      * @throws ConfigException if the API key cannot be found
      */
     public static String getApiKey() throws ConfigException {
-        // First try environment variable
-        String apiKey = System.getenv(API_KEY_ENV_VARIABLE);
-        if (apiKey != null && !apiKey.trim().isEmpty()) {
-            LOGGER.log(Level.FINE, "API key found in environment variable");
+        String apiKey = current().getApiKey();
+        if (apiKey != null) {
             return apiKey;
         }
 
-        // Then try properties file
-        try {
-            Properties properties = loadProperties();
-            apiKey = properties.getProperty(API_KEY_PROPERTY);
-            if (apiKey != null && !apiKey.trim().isEmpty()) {
-                LOGGER.log(Level.FINE, "API key found in properties file");
-                return apiKey;
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Failed to load configuration file", e);
-            throw new ConfigException("Failed to load configuration file", e);
-        }
-
         LOGGER.log(Level.SEVERE, "API key not found in environment variable or properties file");
-        throw new ConfigException("API key not found. Please set the " + API_KEY_ENV_VARIABLE +
-                " environment variable or add " + API_KEY_PROPERTY + " to " + CONFIG_FILE);
+        throw new ConfigException("API key not found. Please set the " + WeatherConfig.API_KEY_ENV_VARIABLE +
+                " environment variable or add " + WeatherConfig.API_KEY_PROPERTY + " to " + CONFIG_FILE);
     }
     
     /**
@@ -54,37 +150,171 @@ public class ConfigUtil {
      * @return the API base URL
      */
     public static String getApiBaseUrl() {
-        // First try environment variable
-        String apiUrl = System.getenv(API_URL_ENV_VARIABLE);
-        if (apiUrl != null && !apiUrl.trim().isEmpty()) {
-            LOGGER.log(Level.FINE, "API base URL found in environment variable");
-            return apiUrl;
-        }
-
-        // Then try properties file
-        try {
-            Properties properties = loadProperties();
-            apiUrl = properties.getProperty(API_URL_PROPERTY);
-            if (apiUrl != null && !apiUrl.trim().isEmpty()) {
-                LOGGER.log(Level.FINE, "API base URL found in properties file");
-                return apiUrl;
-            }
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Failed to load configuration file, using default API URL", e);
-            return DEFAULT_API_URL;
+        return current().getApiBaseUrl();
+    }
+
+    /**
+     * Gets the OpenWeatherMap API keys to spread requests over from environment variables or config file
+     * @return the comma-separated keys of OPENWEATHERMAP_API_KEYS (property api.keys), or the single
+     *         key from {@link #getApiKey()} if no list is configured
+     * @throws ConfigException if no API key can be found
+     */
+    public static List<String> getApiKeys() throws ConfigException {
+        List<String> apiKeys = current().getApiKeys();
+        if (apiKeys.isEmpty()) {
+            getApiKey();
         }
+        return apiKeys;
+    }
+
+    /**
+     * Gets the OpenWeatherMap API base URLs to spread requests over from environment variables or config file
+     * @return the comma-separated URLs of OPENWEATHERMAP_API_URLS (property api.base.urls), or the single
+     *         URL from {@link #getApiBaseUrl()} if no list is configured
+     */
+    public static List<String> getApiBaseUrls() {
+        return current().getApiBaseUrls();
+    }
+
+    /**
+     * Gets the client-side request budget from environment variables or config file
+     * @return the maximum number of API requests per minute
+     */
+    public static int getRequestsPerMinute() {
+        return current().getRequestsPerMinute();
+    }
 
-        // If not found, return default
-        LOGGER.log(Level.FINE, "Using default API base URL");
-        return DEFAULT_API_URL;
+    /**
+     * Gets how long a request may queue for the rate limiter from environment variables or config file
+     * @return the maximum wait; zero means requests over budget fail immediately
+     */
+    public static Duration getRateLimitMaxWait() {
+        return current().getRateLimitMaxWait();
     }
 
-    private static Properties loadProperties() throws IOException {
+    /**
+     * Gets the timeout for establishing HTTP connections from environment variables or config file
+     * @return the connect timeout
+     */
+    public static Duration getHttpConnectTimeout() {
+        return current().getHttpConnectTimeout();
+    }
+
+    /**
+     * Gets the timeout for a complete HTTP request from environment variables or config file
+     * @return the request timeout
+     */
+    public static Duration getHttpRequestTimeout() {
+        return current().getHttpRequestTimeout();
+    }
+
+    /**
+     * Gets the preferred HTTP protocol version from environment variables or config file
+     * @return HTTP_2 unless HTTP_1_1 is configured
+     */
+    public static HttpClient.Version getHttpVersion() {
+        return current().getHttpVersion();
+    }
+
+    /**
+     * Gets the number of threads the HTTP client uses for asynchronous work from environment variables
+     * or config file
+     * @return the executor thread count, by default the number of available processors
+     */
+    public static int getHttpExecutorThreads() {
+        return current().getHttpExecutorThreads();
+    }
+
+    /**
+     * Gets how long idle connections are kept open for reuse from environment variables or config file
+     * @return the keep-alive timeout
+     */
+    public static Duration getHttpKeepAlive() {
+        return current().getHttpKeepAlive();
+    }
+
+    /**
+     * Gets the maximum number of idle connections kept for reuse from environment variables or config file
+     * @return the connection pool size, where 0 means unbounded
+     */
+    public static int getHttpConnectionPoolSize() {
+        return current().getHttpConnectionPoolSize();
+    }
+
+    /**
+     * Gets the number of request handler threads for server mode from environment variables or config file
+     * @return the server thread count
+     */
+    public static int getServerThreads() {
+        return current().getServerThreads();
+    }
+
+    /**
+     * Gets whether lookups and request handling should run on virtual threads (Java 21+) from
+     * environment variables or config file
+     * @return true if virtual threads are enabled; false by default
+     */
+    public static boolean useVirtualThreads() {
+        return current().useVirtualThreads();
+    }
+
+    /**
+     * Gets the file that fetched observations are recorded in from environment variables or config file
+     * @return the history file, or null if recording is disabled (the default)
+     */
+    public static Path getHistoryFile() {
+        return current().getHistoryFile();
+    }
+
+    // Reads the configuration file, or returns null if there is none
+    private static Properties loadFile(Path configFile) throws IOException {
+        if (configFile == null) {
+            return null;
+        }
+        Properties overrides = new Properties();
+        try (Reader reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
+            overrides.load(reader);
+        }
+        return overrides;
+    }
+
+    private static WeatherConfig resolve(Properties overrides) {
+        Properties properties = loadClasspathProperties();
+        if (overrides != null) {
+            properties.putAll(overrides);
+        }
+        return WeatherConfig.resolve(System::getenv, properties);
+    }
+
+    // A file truncated or caught half-way through a save reads without error, but would reset settings
+    // to their defaults
+    private static void checkComplete(Path configFile, Properties overrides) throws IOException {
+        if (overrides == null) {
+            return;
+        }
+        if (overrides.isEmpty()) {
+            throw new IOException("Configuration file " + configFile + " is empty");
+        }
+        if (configFile.equals(loadedFile) && !overrides.stringPropertyNames().containsAll(loadedKeys)) {
+            Set<String> missing = new HashSet<>(loadedKeys);
+            missing.removeAll(overrides.stringPropertyNames());
+            throw new IOException("Configuration file " + configFile + " is missing " + missing);
+        }
+    }
+
+    private static void rememberFile(Path configFile, Properties overrides) {
+        loadedFile = configFile;
+        loadedKeys = overrides != null ? overrides.stringPropertyNames() : Collections.emptySet();
+    }
+
+    private static Properties loadClasspathProperties() {
         Properties properties = new Properties();
         try (InputStream inputStream = ConfigUtil.class.getClassLoader().getResourceAsStream(CONFIG_FILE)) {
             if (inputStream != null) {
                 properties.load(inputStream);
             }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to load " + CONFIG_FILE + ", using defaults", e);
         }
         return properties;
     }
@@ -0,0 +1,106 @@
+package com.weather.app;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches the configuration file with a NIO WatchService and reloads the configuration through
+ * {@link ConfigUtil#reload(Path)} whenever the file is created or modified, so a running process can be
+ * retuned without a restart. The directory is watched rather than the file, so editors that save by
+ * replacing the file are picked up too. The file is read once its events have stopped for
+ * {@value #DEBOUNCE_MILLIS} ms, so a save that truncates and then writes is read as a whole. A file that
+ * cannot be read, or looks incomplete (see {@link ConfigUtil#reload(Path)}), leaves the previous snapshot
+ * in effect.
+ */
+public class ConfigWatcher implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConfigWatcher.class.getName());
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    static final long DEBOUNCE_MILLIS = 200;
+
+    private final Path file;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    /**
+     * Starts watching a configuration file on a daemon thread
+     * @param file The configuration file; its directory must exist
+     * @throws IOException if the directory cannot be watched
+     */
+    public ConfigWatcher(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Configuration file cannot be null");
+        }
+        this.file = file.toAbsolutePath();
+        this.watchService = this.file.getFileSystem().newWatchService();
+        try {
+            this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | RuntimeException e) {
+            watchService.close();
+            throw e;
+        }
+        this.thread = new Thread(this::watch, "config-watcher-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.log(Level.CONFIG, "Watching {0} for configuration changes", this.file);
+    }
+
+    /**
+     * Stops watching the file
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to close configuration watch service", e);
+        }
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                // Once our file has changed, keep collecting events until the directory is quiet
+                while (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        // An overflow may have hidden an event for our file
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                                || file.getFileName().equals(event.context());
+                    }
+                    if (!key.reset()) {
+                        LOGGER.log(Level.WARNING,
+                                "Configuration directory {0} is no longer accessible, stopped watching",
+                                file.getParent());
+                        return;
+                    }
+                    key = changed ? watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS) : null;
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    private void reload() {
+        try {
+            ConfigUtil.reload(file);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to reload configuration from " + file + ", keeping the current one", e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.weather.app;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Helpers for moving between CompletableFuture results and WeatherApiException
+ */
+final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Strips the CompletionException and ExecutionException wrappers added by CompletableFuture
+     * @param error The failure reported by a future
+     * @return The underlying cause
+     */
+    static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Blocks until the future completes and rethrows its failure as the original exception type
+     * @param future The future to wait for
+     * @param <T> The type of value the future produces
+     * @return The value the future completed with
+     * @throws WeatherApiException if the future failed with one, or if the wait was interrupted
+     */
+    static <T> T await(CompletableFuture<T> future) throws WeatherApiException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherApiException("Weather data fetch was interrupted", e);
+        } catch (ExecutionException e) {
+            throw asWeatherApiException(e);
+        }
+    }
+
+    /**
+     * Converts a future's failure into a WeatherApiException, rethrowing unchecked exceptions as they are
+     * @param error The failure reported by a future
+     * @return The WeatherApiException to surface to callers
+     */
+    static WeatherApiException asWeatherApiException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof WeatherApiException) {
+            return (WeatherApiException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return new WeatherApiException("Unexpected error while fetching weather data", cause);
+    }
+}
@@ -0,0 +1,78 @@
+package com.weather.app;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds the HttpClient used for API requests and shares one instance across all clients in the process.
+ * Sharing the client shares its connection pool, so lookups reuse open (and already TLS-negotiated)
+ * connections instead of paying for a new handshake each time. The client prefers HTTP/2, which
+ * multiplexes concurrent requests over a single connection, and uses a bounded pool of daemon threads.
+ * All settings come from ConfigUtil.
+ */
+public final class HttpTransport {
+    private static final Logger LOGGER = Logger.getLogger(HttpTransport.class.getName());
+    // Read by the JDK once, when the first HttpClient is created
+    static final String KEEPALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+    static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private HttpTransport() {
+    }
+
+    /**
+     * @return The HttpClient shared by every OpenWeatherMapClient, built from configuration on first use
+     */
+    public static HttpClient sharedClient() {
+        return SharedClientHolder.CLIENT;
+    }
+
+    /**
+     * Builds a new HttpClient from the given settings. The connection reuse settings are JDK-wide and only
+     * take effect if applied before the first HttpClient in the process is created; settings given as
+     * system properties on the command line are left alone.
+     * @param connectTimeout The timeout for establishing a connection
+     * @param version The preferred protocol version
+     * @param executorThreads The number of threads for asynchronous work
+     * @param keepAlive How long idle connections are kept open
+     * @param connectionPoolSize The maximum number of idle connections kept, 0 for unbounded
+     * @return A new HttpClient
+     */
+    static HttpClient createClient(Duration connectTimeout, HttpClient.Version version, int executorThreads,
+            Duration keepAlive, int connectionPoolSize) {
+        setIfAbsent(KEEPALIVE_PROPERTY, Long.toString(keepAlive.getSeconds()));
+        setIfAbsent(POOL_SIZE_PROPERTY, Integer.toString(connectionPoolSize));
+        LOGGER.log(Level.CONFIG, "Creating HttpClient with connect timeout {0}, version {1}, {2} executor threads",
+                new Object[]{connectTimeout, version, executorThreads});
+        return HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .version(version)
+                .executor(newExecutor(executorThreads))
+                .build();
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "weather-http-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static final class SharedClientHolder {
+        private static final HttpClient CLIENT = createClient(ConfigUtil.getHttpConnectTimeout(),
+                ConfigUtil.getHttpVersion(), ConfigUtil.getHttpExecutorThreads(), ConfigUtil.getHttpKeepAlive(),
+                ConfigUtil.getHttpConnectionPoolSize());
+    }
+}
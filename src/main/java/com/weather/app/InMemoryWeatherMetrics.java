@@ -0,0 +1,191 @@
+package com.weather.app;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Default WeatherMetrics implementation that aggregates measurements in memory without locks:
+ * LongAdder counters and log-linear latency histograms. The aggregates can be read through JMX
+ * (see {@link #registerMBean()}) or rendered in the Prometheus text format with {@link #toText()}.
+ */
+public class InMemoryWeatherMetrics implements WeatherMetrics, WeatherMetricsMXBean {
+    private static final Logger LOGGER = Logger.getLogger(InMemoryWeatherMetrics.class.getName());
+    static final String OBJECT_NAME = "com.weather.app:type=WeatherMetrics";
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+
+    private final LatencyHistogram apiLatency = new LatencyHistogram();
+    private final LatencyHistogram parseTime = new LatencyHistogram();
+    private final LatencyHistogram lookupLatency = new LatencyHistogram();
+    private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    @Override
+    public void recordApiRequest(long latencyNanos, int statusCode) {
+        apiLatency.record(latencyNanos);
+        statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordParse(long nanos) {
+        parseTime.record(nanos);
+    }
+
+    @Override
+    public void recordCacheLookup(boolean hit) {
+        (hit ? cacheHits : cacheMisses).increment();
+    }
+
+    @Override
+    public void recordLookup(long latencyNanos) {
+        lookupLatency.record(latencyNanos);
+    }
+
+    @Override
+    public void recordError(Throwable error) {
+        Throwable rootCause = Futures.unwrap(error);
+        while (rootCause.getCause() != null && rootCause.getCause() != rootCause) {
+            rootCause = rootCause.getCause();
+        }
+        errors.computeIfAbsent(rootCause.getClass().getSimpleName(), type -> new LongAdder()).increment();
+    }
+
+    @Override
+    public long getApiRequestCount() {
+        return apiLatency.getCount();
+    }
+
+    @Override
+    public double getApiLatencyP50Millis() {
+        return toMillis(apiLatency.getPercentileNanos(0.5));
+    }
+
+    @Override
+    public double getApiLatencyP95Millis() {
+        return toMillis(apiLatency.getPercentileNanos(0.95));
+    }
+
+    @Override
+    public double getApiLatencyP99Millis() {
+        return toMillis(apiLatency.getPercentileNanos(0.99));
+    }
+
+    @Override
+    public Map<Integer, Long> getStatusCodeCounts() {
+        return snapshot(statusCodes);
+    }
+
+    @Override
+    public double getParseTimeP95Micros() {
+        return parseTime.getPercentileNanos(0.95) / (double) TimeUnit.MICROSECONDS.toNanos(1);
+    }
+
+    @Override
+    public double getCacheHitRate() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public long getLookupCount() {
+        return lookupLatency.getCount();
+    }
+
+    @Override
+    public double getLookupLatencyP95Millis() {
+        return toMillis(lookupLatency.getPercentileNanos(0.95));
+    }
+
+    @Override
+    public Map<String, Long> getErrorCounts() {
+        return snapshot(errors);
+    }
+
+    /**
+     * Registers this instance with the platform MBean server, replacing any earlier registration
+     * @return true if the MBean was registered
+     */
+    public boolean registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            LOGGER.log(Level.CONFIG, "Registered weather metrics MBean as {0}", OBJECT_NAME);
+            return true;
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Could not register weather metrics MBean", e);
+            return false;
+        }
+    }
+
+    /**
+     * Renders every metric in the Prometheus text exposition format, with latencies in seconds
+     * @return The metrics text
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder(1024);
+        appendSummary(text, "weather_api_request_seconds", "Latency of HTTP requests to the weather API",
+                apiLatency);
+        text.append("# HELP weather_api_responses_total API responses by HTTP status code\n")
+                .append("# TYPE weather_api_responses_total counter\n");
+        for (Map.Entry<Integer, Long> entry : getStatusCodeCounts().entrySet()) {
+            text.append("weather_api_responses_total{status=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+        appendSummary(text, "weather_parse_seconds", "Time spent parsing API responses", parseTime);
+        appendSummary(text, "weather_lookup_seconds", "End-to-end latency of service lookups", lookupLatency);
+        text.append("# HELP weather_cache_lookups_total In-memory cache lookups by outcome\n")
+                .append("# TYPE weather_cache_lookups_total counter\n")
+                .append("weather_cache_lookups_total{result=\"hit\"} ").append(cacheHits.sum()).append('\n')
+                .append("weather_cache_lookups_total{result=\"miss\"} ").append(cacheMisses.sum()).append('\n');
+        text.append("# HELP weather_errors_total Failed lookups by root-cause exception type\n")
+                .append("# TYPE weather_errors_total counter\n");
+        for (Map.Entry<String, Long> entry : getErrorCounts().entrySet()) {
+            text.append("weather_errors_total{type=\"").append(entry.getKey()).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static void appendSummary(StringBuilder text, String name, String help, LatencyHistogram histogram) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" summary\n");
+        for (double quantile : QUANTILES) {
+            text.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                    .append(toSeconds(histogram.getPercentileNanos(quantile))).append('\n');
+        }
+        long count = histogram.getCount();
+        text.append(name).append("_sum ").append(toSeconds((long) (histogram.getMeanNanos() * count))).append('\n')
+                .append(name).append("_count ").append(count).append('\n');
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> snapshot(ConcurrentMap<K, LongAdder> counters) {
+        Map<K, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, counter) -> snapshot.put(key, counter.sum()));
+        return snapshot;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String toSeconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+}
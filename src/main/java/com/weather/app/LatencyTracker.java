@@ -0,0 +1,61 @@
+package com.weather.app;
+
+import java.util.Arrays;
+
+/**
+ * Keeps a sliding window of recent call latencies and reports percentiles over it.
+ * Percentiles are recomputed only every few samples, so reading one is cheap on the request path.
+ */
+final class LatencyTracker {
+    private static final int RECOMPUTE_EVERY = 16;
+
+    private final long[] samples;
+    private final int minSamples;
+    private final double percentile;
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private long cachedPercentile = -1;
+
+    /**
+     * Creates a tracker
+     * @param windowSize The number of most recent samples to keep
+     * @param minSamples The number of samples needed before a percentile is reported
+     * @param percentile The percentile to report, between 0 and 1
+     */
+    LatencyTracker(int windowSize, int minSamples, double percentile) {
+        this.samples = new long[windowSize];
+        this.minSamples = minSamples;
+        this.percentile = percentile;
+    }
+
+    /**
+     * Adds a latency sample
+     * @param nanos The latency in nanoseconds
+     */
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        sinceRecompute++;
+    }
+
+    /**
+     * @return The configured percentile of the samples in the window in nanoseconds,
+     *     or -1 if there are not enough samples yet
+     */
+    synchronized long percentileNanos() {
+        if (count < minSamples) {
+            return -1;
+        }
+        if (cachedPercentile < 0 || sinceRecompute >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedPercentile = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+            sinceRecompute = 0;
+        }
+        return cachedPercentile;
+    }
+}
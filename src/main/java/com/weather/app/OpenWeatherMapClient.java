@@ -1,13 +1,30 @@
 package com.weather.app;
 
-import org.json.JSONObject;
-
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
@@ -17,73 +34,222 @@ import java.util.regex.Pattern;
  */
 public class OpenWeatherMapClient implements WeatherApiClient {
     private static final Logger LOGGER = Logger.getLogger(OpenWeatherMapClient.class.getName());
-    // Pattern for validating city names: allows letters, numbers, spaces, hyphens, and periods
-    private static final Pattern VALID_CITY_PATTERN = Pattern.compile("^[\\p{L}\\p{N}\\s\\-\\.]+$");
+    private static final Pattern API_KEY_PATTERN = Pattern.compile("appid=[^&]+");
+    // The group endpoint accepts at most 20 city IDs per request
+    static final int MAX_GROUP_SIZE = 20;
     
     private final String apiKey;
     private final String apiBaseUrl;
-    private final HttpClient httpClient;
+    private final String groupApiUrl;
+    // Request URLs are built by concatenating these fixed parts around the city name or ID list
+    private final String cityUrlPrefix;
+    private final String groupUrlPrefix;
+    private final String urlSuffix;
+    private final CityResolver cityResolver;
+    private final RateLimiter rateLimiter;
+    private final WeatherMetrics metrics;
+    // Created on the first request, so constructing a client does not pay for starting the HTTP and TLS stack
+    private volatile HttpClient httpClient;
 
     public OpenWeatherMapClient(String apiKey) {
         this(apiKey, ConfigUtil.getApiBaseUrl());
     }
     
     public OpenWeatherMapClient(String apiKey, String apiBaseUrl) {
+        this(apiKey, apiBaseUrl, null);
+    }
+    
+    /**
+     * Creates a client that resolves city IDs for batched lookups from the given directory
+     * @param apiKey The OpenWeatherMap API key
+     * @param apiBaseUrl The URL of the single-city weather endpoint
+     * @param cityIdDirectory The city ID directory, or null to use the bundled city list
+     */
+    public OpenWeatherMapClient(String apiKey, String apiBaseUrl, CityIdDirectory cityIdDirectory) {
+        this(apiKey, apiBaseUrl, cityIdDirectory, RateLimiter.fromConfig());
+    }
+
+    /**
+     * Creates a client whose requests are throttled by the given rate limiter
+     * @param apiKey The OpenWeatherMap API key
+     * @param apiBaseUrl The URL of the single-city weather endpoint
+     * @param cityIdDirectory The city ID directory, or null to use the bundled city list
+     * @param rateLimiter The limiter every request must pass, shared with other clients using the same API key
+     */
+    public OpenWeatherMapClient(String apiKey, String apiBaseUrl, CityIdDirectory cityIdDirectory,
+            RateLimiter rateLimiter) {
+        this(apiKey, apiBaseUrl, cityIdDirectory, rateLimiter, WeatherMetrics.noop());
+    }
+
+    /**
+     * Creates a client that reports request latency, status codes and parse time to the given metrics
+     * @param apiKey The OpenWeatherMap API key
+     * @param apiBaseUrl The URL of the single-city weather endpoint
+     * @param cityIdDirectory The city ID directory, or null to use the bundled city list
+     * @param rateLimiter The limiter every request must pass, shared with other clients using the same API key
+     * @param metrics The metrics to record measurements in
+     */
+    public OpenWeatherMapClient(String apiKey, String apiBaseUrl, CityIdDirectory cityIdDirectory,
+            RateLimiter rateLimiter, WeatherMetrics metrics) {
         if (apiKey == null || apiKey.trim().isEmpty()) {
             LOGGER.log(Level.SEVERE, "API key cannot be null or empty");
             throw new IllegalArgumentException("API key cannot be null or empty");
         }
+        if (rateLimiter == null || metrics == null) {
+            throw new IllegalArgumentException("Rate limiter and metrics cannot be null");
+        }
         
         this.apiKey = apiKey;
         this.apiBaseUrl = apiBaseUrl;
-        this.httpClient = createHttpClient();
+        this.groupApiUrl = deriveGroupApiUrl(apiBaseUrl);
+        this.cityUrlPrefix = apiBaseUrl + "?q=";
+        this.groupUrlPrefix = groupApiUrl + "?id=";
+        this.urlSuffix = "&appid=" + apiKey + "&units=metric";
+        this.cityResolver = cityIdDirectory != null
+                ? new CityResolver(cityIdDirectory, CityResolver.loadBundledAliases())
+                : CityResolver.shared();
+        this.rateLimiter = rateLimiter;
+        this.metrics = metrics;
         LOGGER.log(Level.CONFIG, "OpenWeatherMapClient initialized with API URL: {0}", 
                 this.apiBaseUrl);
     }
     
     /**
-     * Creates an HTTP client. Extracted as a protected method to allow overriding in tests.
-     * @return A new HttpClient instance
+     * Creates an HTTP client, when the first request is sent. Extracted as a protected method to allow
+     * overriding in tests.
+     * @return The HttpClient shared by all clients, so connections are pooled across instances
      */
     protected HttpClient createHttpClient() {
-        return HttpClient.newHttpClient();
+        return HttpTransport.sharedClient();
     }
 
     @Override
     public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
-        if (city == null || city.trim().isEmpty()) {
-            throw new WeatherApiException("City name cannot be empty");
+        HttpRequest request = buildRequest(resolveCity(city));
+        return handleResponse(send(request, HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        HttpRequest request;
+        long delayNanos;
+        try {
+            request = buildRequest(resolveCity(city));
+            delayNanos = rateLimiter.reserve();
+        } catch (WeatherApiException e) {
+            return CompletableFuture.failedFuture(e);
         }
-        
-        // Validate city name format
-        String trimmedCity = city.trim();
-        if (!VALID_CITY_PATTERN.matcher(trimmedCity).matches()) {
-            LOGGER.log(Level.WARNING, "Invalid city name format: {0}", trimmedCity);
-            throw new WeatherApiException(
-                    "Invalid city name format. City names should only contain letters, numbers, " +
-                    "spaces, hyphens, and periods");
+
+        // Wait for the rate limiter on a timer rather than by blocking a thread
+        CompletableFuture<HttpResponse<byte[]>> sent = delayNanos == 0
+                ? sendAsync(request)
+                : CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+                        .thenCompose(ignored -> sendAsync(request));
+        return sent.handle((response, error) -> {
+            try {
+                if (error != null) {
+                    throw translateAsyncFailure(error);
+                }
+                return handleResponse(response);
+            } catch (WeatherApiException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Fetches weather data for several cities with as few HTTP requests as possible.
+     * Cities with a known OpenWeatherMap ID are fetched through the group endpoint, up to
+     * {@value #MAX_GROUP_SIZE} per request; any other city falls back to a single-city lookup.
+     * @param cities The names of the cities; duplicates are looked up once
+     * @return A map from each distinct city name, in the order given, to the outcome of its lookup
+     */
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Set<String> distinctCities = new LinkedHashSet<>(cities);
+        Map<Long, List<String>> citiesById = new LinkedHashMap<>();
+        List<String> unresolvedCities = new ArrayList<>();
+        Map<String, Result<WeatherData>> results = new HashMap<>();
+        for (String city : distinctCities) {
+            Optional<Long> cityId;
+            try {
+                cityId = cityResolver.resolve(city).getId();
+            } catch (WeatherApiException e) {
+                results.put(city, Result.failure(e));
+                continue;
+            }
+            if (cityId.isPresent()) {
+                citiesById.computeIfAbsent(cityId.get(), id -> new ArrayList<>()).add(city);
+            } else {
+                unresolvedCities.add(city);
+            }
         }
-        
-        LOGGER.log(Level.FINE, "Fetching weather for city: {0}", trimmedCity);
+        LOGGER.log(Level.FINE, "Batch lookup: {0} cities resolved to IDs, {1} unresolved",
+                new Object[]{citiesById.size(), unresolvedCities.size()});
+
+        List<Long> ids = new ArrayList<>(citiesById.keySet());
+        for (int start = 0; start < ids.size(); start += MAX_GROUP_SIZE) {
+            List<Long> chunk = ids.subList(start, Math.min(start + MAX_GROUP_SIZE, ids.size()));
+            fetchGroup(chunk, citiesById, results);
+        }
+        for (String city : unresolvedCities) {
+            try {
+                results.put(city, Result.success(getWeatherFromApi(city)));
+            } catch (WeatherApiException e) {
+                results.put(city, Result.failure(e));
+            }
+        }
+
+        Map<String, Result<WeatherData>> orderedResults = new LinkedHashMap<>();
+        for (String city : distinctCities) {
+            orderedResults.put(city, results.get(city));
+        }
+        return orderedResults;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return true;
+    }
+
+    // Package-private so the hot-path benchmarks can measure validation and URL building in isolation
+    CityResolver.ResolvedCity resolveCity(String city) throws WeatherApiException {
+        try {
+            return cityResolver.resolve(city);
+        } catch (WeatherApiException e) {
+            LOGGER.log(Level.WARNING, "Rejected city name {0}: {1}", new Object[]{city, e.getMessage()});
+            throw e;
+        }
+    }
+
+    private HttpRequest buildRequest(CityResolver.ResolvedCity city) throws WeatherApiException {
+        LOGGER.log(Level.FINE, "Fetching weather for city: {0}", city.getQueryName());
         
         try {
-            String url = buildApiUrl(trimmedCity);
-            LOGGER.log(Level.FINE, "API request URL: {0}",
-                    url.replaceAll("appid=[^&]+", "appid=REDACTED"));
-            HttpRequest request = HttpRequest.newBuilder()
+            String url = buildApiUrl(city.getEncodedQueryName());
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "API request URL: {0}", redactApiKey(url));
+            }
+            // The timeout is read per request so that a configuration reload applies to the next lookup
+            return HttpRequest.newBuilder()
                     .uri(new URI(url))
+                    .timeout(ConfigUtil.getHttpRequestTimeout())
                     .GET()
                     .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() != 200) {
-                handleErrorResponse(response);
-            }
-
-            return parseJsonResponse(response.body());
         } catch (URISyntaxException e) {
             throw new WeatherApiException("Invalid URL format", e);
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws WeatherApiException {
+        rateLimiter.acquire();
+        try {
+            long sentAt = System.nanoTime();
+            HttpResponse<T> response = httpClient().send(request, bodyHandler);
+            recordResponse(response, sentAt);
+            return response;
         } catch (IOException e) {
             throw new WeatherApiException("Network error while fetching weather data", e);
         } catch (InterruptedException e) {
@@ -92,50 +258,185 @@ public class OpenWeatherMapClient implements WeatherApiClient {
         }
     }
 
-    private String buildApiUrl(String city) {
-        return String.format("%s?q=%s&appid=%s&units=metric", apiBaseUrl, city, apiKey);
+    private CompletableFuture<HttpResponse<byte[]>> sendAsync(HttpRequest request) {
+        long sentAt = System.nanoTime();
+        return httpClient().sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    recordResponse(response, sentAt);
+                    return response;
+                });
+    }
+
+    private HttpClient httpClient() {
+        HttpClient client = httpClient;
+        if (client == null) {
+            synchronized (this) {
+                client = httpClient;
+                if (client == null) {
+                    client = createHttpClient();
+                    httpClient = client;
+                }
+            }
+        }
+        return client;
+    }
+
+    // Records the request in the metrics and pauses the rate limiter if the API rejected it for exceeding its limit
+    private void recordResponse(HttpResponse<?> response, long sentAtNanos) {
+        metrics.recordApiRequest(System.nanoTime() - sentAtNanos, response.statusCode());
+        if (response.statusCode() != 429) {
+            rateLimiter.recordSuccess();
+            return;
+        }
+        HttpHeaders headers = response.headers();
+        String retryAfter = headers != null ? headers.firstValue("Retry-After").orElse(null) : null;
+        rateLimiter.backOff(parseRetryAfter(retryAfter, Instant.now()));
     }
 
-    private WeatherData parseJsonResponse(String jsonResponse) throws WeatherApiException {
+    /**
+     * Parses a Retry-After header, which holds either a number of seconds or an HTTP date
+     * @param value The header value, or null if the header was absent
+     * @param now The current time, used to turn an HTTP date into a delay
+     * @return The requested delay, or null if the header is absent or malformed
+     */
+    static Duration parseRetryAfter(String value, Instant now) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        String trimmed = value.trim();
         try {
-            JSONObject json = new JSONObject(jsonResponse);
-            
-            // Get city name
-            String cityName = json.getString("name");
-            
-            // Get temperature
-            JSONObject main = json.getJSONObject("main");
-            double temperature = main.getDouble("temp");
-            
-            // Get weather description
-            String description = json.getJSONArray("weather")
-                    .getJSONObject(0)
-                    .getString("description");
-            
-            return new WeatherData(cityName, temperature, description);
-        } catch (Exception e) {
-            throw new WeatherApiException("Error parsing weather data", e);
-        }
-    }
-
-    private void handleErrorResponse(HttpResponse<String> response) throws WeatherApiException {
-        int statusCode = response.statusCode();
-        String body = response.body();
-        
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(trimmed)));
+        } catch (NumberFormatException e) {
+            // Not delta-seconds, try the HTTP-date form
+        }
+        try {
+            Instant retryAt = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return retryAt.isAfter(now) ? Duration.between(now, retryAt) : Duration.ZERO;
+        } catch (DateTimeParseException e) {
+            LOGGER.log(Level.FINE, "Ignoring malformed Retry-After header: {0}", trimmed);
+            return null;
+        }
+    }
+
+    private void fetchGroup(List<Long> ids, Map<Long, List<String>> citiesById,
+            Map<String, Result<WeatherData>> results) {
+        Map<Long, WeatherData> weatherById;
+        try {
+            weatherById = requestGroup(ids);
+        } catch (WeatherApiException e) {
+            for (Long id : ids) {
+                for (String city : citiesById.get(id)) {
+                    results.put(city, Result.failure(e));
+                }
+            }
+            return;
+        }
+
+        for (Long id : ids) {
+            WeatherData weatherData = weatherById.get(id);
+            Result<WeatherData> result = weatherData != null
+                    ? Result.success(weatherData)
+                    : Result.failure(new WeatherApiException("City not found"));
+            for (String city : citiesById.get(id)) {
+                results.put(city, result);
+            }
+        }
+    }
+
+    private Map<Long, WeatherData> requestGroup(List<Long> ids) throws WeatherApiException {
+        try {
+            String url = buildGroupApiUrl(ids);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, "API group request URL: {0}", redactApiKey(url));
+            }
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI(url))
+                    .timeout(ConfigUtil.getHttpRequestTimeout())
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                handleErrorResponse(response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+            }
+            long parseStart = System.nanoTime();
+            Map<Long, WeatherData> weatherById = WeatherJsonParser.parseGroup(response.body());
+            metrics.recordParse(System.nanoTime() - parseStart);
+            return weatherById;
+        } catch (URISyntaxException e) {
+            throw new WeatherApiException("Invalid URL format", e);
+        }
+    }
+
+    private WeatherData handleResponse(HttpResponse<byte[]> response) throws WeatherApiException {
+        if (response.statusCode() != 200) {
+            handleErrorResponse(response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+        }
+
+        long parseStart = System.nanoTime();
+        WeatherData weatherData = WeatherJsonParser.parse(response.body());
+        metrics.recordParse(System.nanoTime() - parseStart);
+        return weatherData;
+    }
+
+    private WeatherApiException translateAsyncFailure(Throwable error) {
+        Throwable cause = Futures.unwrap(error);
+        if (cause instanceof WeatherApiException) {
+            return (WeatherApiException) cause;
+        }
+        if (cause instanceof IOException) {
+            return new WeatherApiException("Network error while fetching weather data", cause);
+        }
+        return new WeatherApiException("Unexpected error while fetching weather data", cause);
+    }
+
+    // Expects a city name that is already URL-encoded
+    String buildApiUrl(String city) {
+        return cityUrlPrefix + city + urlSuffix;
+    }
+
+    private String buildGroupApiUrl(List<Long> ids) {
+        StringBuilder url = new StringBuilder(groupUrlPrefix.length() + ids.size() * 8 + urlSuffix.length())
+                .append(groupUrlPrefix);
+        for (int i = 0; i < ids.size(); i++) {
+            if (i > 0) {
+                url.append(',');
+            }
+            url.append(ids.get(i).longValue());
+        }
+        return url.append(urlSuffix).toString();
+    }
+
+    // Masks the API key so request URLs can be logged
+    static String redactApiKey(String url) {
+        return API_KEY_PATTERN.matcher(url).replaceAll("appid=REDACTED");
+    }
+
+    private static String deriveGroupApiUrl(String apiBaseUrl) {
+        if (apiBaseUrl == null) {
+            return null;
+        }
+        int lastSlash = apiBaseUrl.lastIndexOf('/');
+        String prefix = lastSlash >= 0 ? apiBaseUrl.substring(0, lastSlash) : apiBaseUrl;
+        return prefix + "/group";
+    }
+
+    private void handleErrorResponse(int statusCode, String body) throws WeatherApiException {
         if (statusCode == 401) {
             LOGGER.log(Level.WARNING, "Authentication failed with status code 401. Response: {0}", body);
-            throw new WeatherApiException("Invalid API key");
+            throw new WeatherApiException("Invalid API key", statusCode);
         } else if (statusCode == 404) {
             LOGGER.log(Level.WARNING, "Resource not found with status code 404. Response: {0}", body);
-            throw new WeatherApiException("City not found");
+            throw new WeatherApiException("City not found", statusCode);
         } else if (statusCode == 429) {
             LOGGER.log(Level.WARNING, "Rate limit exceeded with status code 429. Response: {0}", body);
-            throw new WeatherApiException("Rate limit exceeded");
+            throw new WeatherApiException("Rate limit exceeded", statusCode);
         } else {
             // Log the full response body for debugging but don't expose it in the exception message
-            LOGGER.log(Level.SEVERE, "Unexpected API error with status code {0}. Response: {1}", 
-                    new Object[]{statusCode, body});
-            throw new WeatherApiException("API error: Received HTTP status code " + statusCode);
+            if (LOGGER.isLoggable(Level.SEVERE)) {
+                LOGGER.log(Level.SEVERE, "Unexpected API error with status code {0}. Response: {1}",
+                        new Object[]{statusCode, body});
+            }
+            throw new WeatherApiException("API error: Received HTTP status code " + statusCode, statusCode);
         }
     }
 }
@@ -0,0 +1,146 @@
+package com.weather.app;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator backed by a PersistentWeatherCache.
+ * Intended to sit behind the in-memory caches, e.g.
+ * {@code new CachingWeatherApiClient(new PersistentCachingWeatherApiClient(client, cache, maxAge))},
+ * so that after a restart recently seen cities are answered from disk instead of the API.
+ * Disk errors are logged and treated as misses; they never fail a lookup.
+ * Stale last-known observations (see {@link WeatherData#isStale()}) are passed through but not written.
+ * Batches are answered from disk where possible, and only the misses are passed on as one batch.
+ */
+public class PersistentCachingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(PersistentCachingWeatherApiClient.class.getName());
+
+    private final WeatherApiClient delegate;
+    private final PersistentWeatherCache cache;
+    private final long maxAgeMillis;
+    private final Clock clock;
+
+    public PersistentCachingWeatherApiClient(WeatherApiClient delegate, PersistentWeatherCache cache,
+            Duration maxAge) {
+        this(delegate, cache, maxAge, Clock.systemUTC());
+    }
+
+    PersistentCachingWeatherApiClient(WeatherApiClient delegate, PersistentWeatherCache cache, Duration maxAge,
+            Clock clock) {
+        if (delegate == null || cache == null) {
+            throw new IllegalArgumentException("Delegate client and cache cannot be null");
+        }
+        if (maxAge == null || maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("Maximum age must be positive");
+        }
+        this.delegate = delegate;
+        this.cache = cache;
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        if (CityResolver.shared().key(city).isEmpty()) {
+            return delegate.getWeatherFromApi(city);
+        }
+
+        Optional<WeatherData> stored = readFresh(city);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        WeatherData weatherData = delegate.getWeatherFromApi(city);
+        write(city, weatherData);
+        return weatherData;
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        if (CityResolver.shared().key(city).isEmpty()) {
+            return delegate.getWeatherFromApiAsync(city);
+        }
+
+        Optional<WeatherData> stored = readFresh(city);
+        if (stored.isPresent()) {
+            return CompletableFuture.completedFuture(stored.get());
+        }
+
+        return delegate.getWeatherFromApiAsync(city).thenApply(weatherData -> {
+            write(city, weatherData);
+            return weatherData;
+        });
+    }
+
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String city : new LinkedHashSet<>(cities)) {
+            Optional<WeatherData> stored = CityResolver.shared().key(city).isEmpty()
+                    ? Optional.empty()
+                    : readFresh(city);
+            // A miss still takes its place now, so results keep the order given
+            results.put(city, stored.map(Result::success).orElse(null));
+            if (stored.isEmpty()) {
+                misses.add(city);
+            }
+        }
+        if (misses.isEmpty()) {
+            return results;
+        }
+
+        Map<String, Result<WeatherData>> fetched = delegate.getWeatherForCities(misses);
+        for (String city : misses) {
+            Result<WeatherData> result = fetched.get(city);
+            if (result == null) {
+                result = Result.failure(new WeatherApiException("No result for city " + city));
+            } else if (result.isSuccess() && !CityResolver.shared().key(city).isEmpty()) {
+                write(city, result.getValue());
+            }
+            results.put(city, result);
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return delegate.supportsBatch();
+    }
+
+    private Optional<WeatherData> readFresh(String city) {
+        try {
+            Optional<PersistentWeatherCache.Entry> entry = cache.get(city);
+            if (entry.isPresent() && clock.millis() - entry.get().getFetchedAtMillis() < maxAgeMillis) {
+                LOGGER.log(Level.FINE, "Serving city {0} from the persistent cache", city);
+                return Optional.of(entry.get().getWeatherData());
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to read the persistent weather cache", e);
+        }
+        return Optional.empty();
+    }
+
+    private void write(String city, WeatherData weatherData) {
+        // The disk format has no stale flag, so a last-known fallback would come back as fresh after a restart
+        if (weatherData.isStale()) {
+            return;
+        }
+        try {
+            cache.put(city, weatherData, clock.millis());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to write to the persistent weather cache", e);
+        }
+    }
+}
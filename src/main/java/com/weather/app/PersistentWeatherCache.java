@@ -0,0 +1,281 @@
+package com.weather.app;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Disk-backed store of the last WeatherData fetched for each city, so a restarted process starts warm.
+ * Cities are keyed on their canonical name (see CityResolver), like the in-memory caches, so aliases share
+ * one entry.
+ * Entries are appended to a compact binary log; the log is read lazily on first access, a torn or corrupt
+ * tail left by a crash is discarded, and the file is rewritten with only the live entries once it has
+ * grown well past the number of cities it holds.
+ * <p>
+ * File layout: a 4-byte magic and 4-byte version, followed by records of
+ * {@code [int payloadLength][payload][int crc32(payload)]}, where the payload is the city key,
+ * city name and description as modified UTF-8, the temperature as a double and the fetch time in epoch millis.
+ */
+public class PersistentWeatherCache implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(PersistentWeatherCache.class.getName());
+    private static final int MAGIC = 0x57444331;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int MAX_PAYLOAD_SIZE = 1 << 16;
+    private static final int MIN_RECORDS_BEFORE_COMPACTION = 64;
+    private static final int COMPACTION_RATIO = 4;
+
+    private final Path file;
+    private Map<String, Entry> entries;
+    private FileChannel channel;
+    private int recordCount;
+
+    public PersistentWeatherCache(Path file) {
+        if (file == null) {
+            throw new IllegalArgumentException("Cache file cannot be null");
+        }
+        this.file = file;
+    }
+
+    /**
+     * Looks up the last stored observation for a city
+     * @param city The city name in any case or spacing, or an alias of it
+     * @return The stored entry, or empty if the city has never been stored
+     * @throws IOException if the cache file cannot be read
+     */
+    public synchronized Optional<Entry> get(String city) throws IOException {
+        ensureLoaded();
+        return Optional.ofNullable(entries.get(CityResolver.shared().key(city)));
+    }
+
+    /**
+     * Stores an observation for a city, replacing any earlier one
+     * @param city The city name the observation was requested for
+     * @param weatherData The observation
+     * @param fetchedAtMillis When the observation was fetched, in epoch milliseconds
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void put(String city, WeatherData weatherData, long fetchedAtMillis) throws IOException {
+        ensureLoaded();
+        String key = CityResolver.shared().key(city);
+        Entry entry = new Entry(weatherData, fetchedAtMillis);
+        long lengthBefore = channel.size();
+        try {
+            writeRecord(channel, key, entry);
+        } catch (IOException e) {
+            // Drop a partially written record so later appends are not hidden behind it on the next load
+            channel.truncate(lengthBefore);
+            throw e;
+        }
+        entries.put(key, entry);
+        recordCount++;
+
+        if (recordCount >= MIN_RECORDS_BEFORE_COMPACTION && recordCount > COMPACTION_RATIO * entries.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrites the log so it holds exactly one record per city
+     * @throws IOException if the compacted file cannot be written or moved into place
+     */
+    public synchronized void compact() throws IOException {
+        ensureLoaded();
+        Path tempFile = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(out);
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writeRecord(out, entry.getKey(), entry.getValue());
+            }
+            out.force(true);
+        }
+        // The append channel must not point at the replaced file, so it is reopened whether or not the move
+        // succeeds; if it fails, appends continue on the old log, which still holds every entry
+        channel.close();
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            channel = openForAppend();
+        }
+        LOGGER.log(Level.FINE, "Compacted weather cache from {0} to {1} records",
+                new Object[]{recordCount, entries.size()});
+        recordCount = entries.size();
+    }
+
+    /**
+     * @return The number of cities currently stored
+     * @throws IOException if the cache file cannot be read
+     */
+    public synchronized int size() throws IOException {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        entries = null;
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (entries != null) {
+            return;
+        }
+        entries = new HashMap<>();
+        recordCount = 0;
+        try {
+            long validLength = Files.exists(file) ? load() : 0;
+            channel = openForAppend();
+            if (validLength < HEADER_SIZE) {
+                channel.truncate(0);
+                writeHeader(channel);
+            } else if (channel.size() > validLength) {
+                LOGGER.log(Level.WARNING, "Discarding {0} bytes of incomplete data at the end of {1}",
+                        new Object[]{channel.size() - validLength, file});
+                channel.truncate(validLength);
+            }
+        } catch (IOException e) {
+            // Leave the cache unloaded so the next call retries instead of using a half-open file
+            close();
+            throw e;
+        }
+        LOGGER.log(Level.CONFIG, "Loaded {0} cached cities from {1}", new Object[]{entries.size(), file});
+    }
+
+    // Reads every intact record into memory and returns the length of the valid prefix of the file,
+    // or 0 if the header is missing or unrecognised
+    private long load() throws IOException {
+        try (InputStream fileStream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(fileStream))) {
+            if (!readHeader(in)) {
+                LOGGER.log(Level.WARNING, "Ignoring unrecognised cache file {0}", file);
+                return 0;
+            }
+            long validLength = HEADER_SIZE;
+            byte[] payload;
+            while ((payload = readRecord(in)) != null) {
+                readPayload(payload);
+                recordCount++;
+                validLength += 8L + payload.length;
+            }
+            return validLength;
+        }
+    }
+
+    private static boolean readHeader(DataInputStream in) throws IOException {
+        try {
+            return in.readInt() == MAGIC && in.readInt() == VERSION;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    // Returns the next record's payload, or null at the end of the file or at the first incomplete or corrupt record
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_PAYLOAD_SIZE) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return in.readInt() == crc(payload) ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private void readPayload(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String key = in.readUTF();
+        String city = in.readUTF();
+        String description = in.readUTF();
+        double temperature = in.readDouble();
+        long fetchedAtMillis = in.readLong();
+        entries.put(key, new Entry(new WeatherData(city, temperature, description), fetchedAtMillis));
+    }
+
+    private FileChannel openForAppend() throws IOException {
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        fileChannel.position(fileChannel.size());
+        return fileChannel;
+    }
+
+    private static void writeHeader(FileChannel out) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+        header.flip();
+        writeFully(out, header);
+    }
+
+    private static void writeRecord(FileChannel out, String key, Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream payload = new DataOutputStream(bytes)) {
+            payload.writeUTF(key);
+            payload.writeUTF(entry.weatherData.getCity());
+            payload.writeUTF(entry.weatherData.getDescription());
+            payload.writeDouble(entry.weatherData.getTemperatureCelsius());
+            payload.writeLong(entry.fetchedAtMillis);
+        }
+        byte[] payloadBytes = bytes.toByteArray();
+        ByteBuffer record = ByteBuffer.allocate(payloadBytes.length + 8)
+                .putInt(payloadBytes.length)
+                .put(payloadBytes)
+                .putInt(crc(payloadBytes));
+        record.flip();
+        writeFully(out, record);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * A stored observation and the time it was fetched
+     */
+    public static final class Entry {
+        private final WeatherData weatherData;
+        private final long fetchedAtMillis;
+
+        Entry(WeatherData weatherData, long fetchedAtMillis) {
+            this.weatherData = weatherData;
+            this.fetchedAtMillis = fetchedAtMillis;
+        }
+
+        public WeatherData getWeatherData() {
+            return weatherData;
+        }
+
+        public long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+    }
+}
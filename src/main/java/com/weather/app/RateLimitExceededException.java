@@ -0,0 +1,19 @@
+package com.weather.app;
+
+/**
+ * Thrown when the client-side RateLimiter rejects a request before it is sent, because the request budget
+ * of the API key is used up. It carries status 429 like the provider's own rejection, but the provider was
+ * never contacted, so it says nothing about the provider's health: circuit breakers do not count it as a
+ * failure and retry policies do not repeat the request, which would only spend the budget again.
+ */
+public class RateLimitExceededException extends WeatherApiException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Creates an exception for a request rejected by the client-side rate limiter
+     * @param message The error message
+     */
+    public RateLimitExceededException(String message) {
+        super(message, 429);
+    }
+}
@@ -0,0 +1,182 @@
+package com.weather.app;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Token-bucket rate limiter that keeps outgoing API requests within a requests-per-minute budget.
+ * The bucket holds up to {@code burst} tokens and refills at the configured rate; a caller that finds it
+ * empty waits for the next token, or fails fast if that would take longer than the maximum wait.
+ * When the provider still answers 429, {@link #backOff(Duration)} pauses the whole bucket so that
+ * every caller holds off, honouring the server's Retry-After or an exponential delay with jitter.
+ * <p>
+ * The bucket is tracked as a single "theoretical arrival time" rather than a token count, so acquiring
+ * a permit is one comparison and no background refill thread is needed. The budget can be changed while
+ * the limiter is in use with {@link #setBudget}.
+ */
+public class RateLimiter {
+    private static final Logger LOGGER = Logger.getLogger(RateLimiter.class.getName());
+    private static final long INITIAL_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(60);
+    // Extra delay added on top of Retry-After, as a fraction of it, so paused callers do not all resume at once
+    private static final double RETRY_AFTER_JITTER = 0.2;
+
+    private long intervalNanos;
+    private long burstToleranceNanos;
+    private long maxWaitNanos;
+    private final LongSupplier nanoClock;
+    private final DoubleSupplier random;
+    private long theoreticalArrivalNanos;
+    private int consecutiveBackoffs;
+
+    /**
+     * Creates a rate limiter
+     * @param requestsPerMinute The sustained request budget
+     * @param burst How many requests may be sent back to back after a quiet period
+     * @param maxWait How long a caller may queue for a permit before failing; zero fails fast
+     */
+    public RateLimiter(int requestsPerMinute, int burst, Duration maxWait) {
+        this(requestsPerMinute, burst, maxWait, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    RateLimiter(int requestsPerMinute, int burst, Duration maxWait, LongSupplier nanoClock, DoubleSupplier random) {
+        checkBudget(requestsPerMinute, burst, maxWait);
+
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        this.burstToleranceNanos = (burst - 1) * intervalNanos;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.nanoClock = nanoClock;
+        this.random = random;
+        this.theoreticalArrivalNanos = nanoClock.getAsLong();
+        LOGGER.log(Level.CONFIG, "RateLimiter initialized with {0} requests per minute, burst {1}, max wait {2}",
+                new Object[]{requestsPerMinute, burst, maxWait});
+    }
+
+    /**
+     * Creates a rate limiter from the budget in the application configuration.
+     * A burst of ten seconds' worth of requests is allowed.
+     * @return A rate limiter for OpenWeatherMap requests
+     */
+    public static RateLimiter fromConfig() {
+        int requestsPerMinute = ConfigUtil.getRequestsPerMinute();
+        return new RateLimiter(requestsPerMinute, defaultBurst(requestsPerMinute), ConfigUtil.getRateLimitMaxWait());
+    }
+
+    /**
+     * Applies the budget in a configuration snapshot, with the same burst allowance as {@link #fromConfig()}
+     * @param config The configuration to take the budget from
+     */
+    public void applyConfig(WeatherConfig config) {
+        int requestsPerMinute = config.getRequestsPerMinute();
+        setBudget(requestsPerMinute, defaultBurst(requestsPerMinute), config.getRateLimitMaxWait());
+    }
+
+    /**
+     * Changes the budget. Permits already reserved keep their place; later ones follow the new rate.
+     * @param requestsPerMinute The sustained request budget
+     * @param burst How many requests may be sent back to back after a quiet period
+     * @param maxWait How long a caller may queue for a permit before failing; zero fails fast
+     */
+    public synchronized void setBudget(int requestsPerMinute, int burst, Duration maxWait) {
+        checkBudget(requestsPerMinute, burst, maxWait);
+        intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        burstToleranceNanos = (burst - 1) * intervalNanos;
+        maxWaitNanos = maxWait.toNanos();
+        LOGGER.log(Level.CONFIG, "RateLimiter budget changed to {0} requests per minute, burst {1}, max wait {2}",
+                new Object[]{requestsPerMinute, burst, maxWait});
+    }
+
+    /**
+     * Takes a permit, waiting for one if the budget is exhausted
+     * @throws WeatherApiException if no permit becomes available within the maximum wait, or the wait is interrupted
+     */
+    public void acquire() throws WeatherApiException {
+        long waitNanos = reserve();
+        if (waitNanos == 0) {
+            return;
+        }
+        LOGGER.log(Level.FINE, "Rate limit budget exhausted, waiting {0} ms for a permit",
+                TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WeatherApiException("Weather data fetch was interrupted", e);
+        }
+    }
+
+    /**
+     * Reserves a permit without waiting for it; the caller must delay its request by the returned amount.
+     * Used by the asynchronous path, which schedules the request instead of blocking a thread.
+     * @return The number of nanoseconds until the reserved permit may be used, zero if it is usable now
+     * @throws WeatherApiException if the permit would not be available within the maximum wait
+     */
+    synchronized long reserve() throws WeatherApiException {
+        long now = nanoClock.getAsLong();
+        long permittedAt = Math.max(now, theoreticalArrivalNanos - burstToleranceNanos);
+        long waitNanos = permittedAt - now;
+        if (waitNanos > maxWaitNanos) {
+            LOGGER.log(Level.WARNING, "Rate limit budget exhausted, next permit in {0} ms",
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            // Reported with the provider's 429, but as a distinct type since the provider was not asked
+            throw new RateLimitExceededException("Rate limit exceeded");
+        }
+        theoreticalArrivalNanos = Math.max(theoreticalArrivalNanos, now) + intervalNanos;
+        return waitNanos;
+    }
+
+    /**
+     * Pauses all permits after the provider rejected a request with HTTP 429.
+     * With a Retry-After the pause lasts at least that long; without one it grows exponentially with
+     * each consecutive rejection. Either way a random jitter is added so callers do not resume in lockstep.
+     * @param retryAfter The delay requested by the server, or null if it gave none
+     * @return The length of the pause
+     */
+    public synchronized Duration backOff(Duration retryAfter) {
+        long pauseNanos;
+        if (retryAfter != null && !retryAfter.isNegative()) {
+            long requested = retryAfter.toNanos();
+            pauseNanos = requested + (long) (random.getAsDouble() * RETRY_AFTER_JITTER * requested);
+        } else {
+            long ceiling = Math.min(MAX_BACKOFF_NANOS, INITIAL_BACKOFF_NANOS << Math.min(consecutiveBackoffs, 16));
+            pauseNanos = ceiling / 2 + (long) (random.getAsDouble() * (ceiling / 2));
+        }
+        consecutiveBackoffs++;
+
+        long resumeAt = nanoClock.getAsLong() + pauseNanos;
+        // Resume at the steady rate rather than with a full burst
+        theoreticalArrivalNanos = Math.max(theoreticalArrivalNanos, resumeAt + burstToleranceNanos);
+        Duration pause = Duration.ofNanos(pauseNanos);
+        LOGGER.log(Level.WARNING, "Rate limited by the API, pausing requests for {0} ms", pause.toMillis());
+        return pause;
+    }
+
+    /**
+     * Records a request that was not rate limited, resetting the exponential backoff
+     */
+    public synchronized void recordSuccess() {
+        consecutiveBackoffs = 0;
+    }
+
+    // Ten seconds' worth of requests
+    private static int defaultBurst(int requestsPerMinute) {
+        return Math.max(1, requestsPerMinute / 6);
+    }
+
+    private static void checkBudget(int requestsPerMinute, int burst, Duration maxWait) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("Requests per minute must be positive");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("Burst must be positive");
+        }
+        if (maxWait == null || maxWait.isNegative()) {
+            throw new IllegalArgumentException("Maximum wait cannot be null or negative");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.weather.app;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator that appends every observation returned by its delegate to a WeatherRecorder.
+ * Place it directly around the API client so cached answers are not recorded twice.
+ * Recording errors are logged; they never fail a lookup.
+ */
+public class RecordingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(RecordingWeatherApiClient.class.getName());
+
+    private final WeatherApiClient delegate;
+    private final WeatherRecorder recorder;
+    private final Clock clock;
+
+    public RecordingWeatherApiClient(WeatherApiClient delegate, WeatherRecorder recorder) {
+        this(delegate, recorder, Clock.systemUTC());
+    }
+
+    RecordingWeatherApiClient(WeatherApiClient delegate, WeatherRecorder recorder, Clock clock) {
+        if (delegate == null || recorder == null) {
+            throw new IllegalArgumentException("Delegate client and recorder cannot be null");
+        }
+        this.delegate = delegate;
+        this.recorder = recorder;
+        this.clock = clock;
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        WeatherData weatherData = delegate.getWeatherFromApi(city);
+        record(weatherData);
+        return weatherData;
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        return delegate.getWeatherFromApiAsync(city).thenApply(weatherData -> {
+            record(weatherData);
+            return weatherData;
+        });
+    }
+
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Map<String, Result<WeatherData>> results = delegate.getWeatherForCities(cities);
+        for (Result<WeatherData> result : results.values()) {
+            if (result.isSuccess()) {
+                record(result.getValue());
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        return delegate.supportsBatch();
+    }
+
+    private void record(WeatherData weatherData) {
+        try {
+            recorder.record(weatherData, clock.millis());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to record weather observation", e);
+        }
+    }
+}
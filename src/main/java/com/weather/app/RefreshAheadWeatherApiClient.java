@@ -0,0 +1,282 @@
+package com.weather.app;
+
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator that serves slightly stale data while refreshing it in the background.
+ * An entry older than the soft TTL is returned immediately and refreshed asynchronously; only an entry
+ * older than the hard TTL (or a missing one) makes the caller wait for the delegate. A scheduler also
+ * refreshes the most requested cities before they go stale, so popular lookups rarely see upstream latency.
+ * Refreshes run on a small bounded pool of their own; the scheduler's single thread only decides when they
+ * are due, so a slow provider cannot hold up the timing. A refresh that finds the pool's queue full is dropped
+ * and tried again on a later request or run.
+ * Stale last-known observations (see {@link WeatherData#isStale()}) are passed through but not cached.
+ */
+public class RefreshAheadWeatherApiClient implements WeatherApiClient, AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(RefreshAheadWeatherApiClient.class.getName());
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    static final int REFRESH_THREADS = 4;
+    static final int REFRESH_QUEUE_CAPACITY = 256;
+    private static final long REFRESH_THREAD_KEEP_ALIVE_SECONDS = 60;
+
+    private final WeatherApiClient delegate;
+    private final long softTtlNanos;
+    private final long hardTtlNanos;
+    private final int topK;
+    private final long refreshIntervalNanos;
+    private final LongSupplier nanoClock;
+    private final Executor refreshExecutor;
+    private final ScheduledExecutorService ownedScheduler;
+    private final ExecutorService ownedRefreshPool;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> requestCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a refresh-ahead client with its own background scheduler
+     * @param delegate The client that performs upstream lookups
+     * @param softTtl Age after which an entry is refreshed in the background but still served
+     * @param hardTtl Age after which an entry is no longer served and callers wait for fresh data
+     * @param topK How many of the most requested cities the scheduler keeps warm
+     * @param refreshInterval How often the scheduler runs
+     */
+    public RefreshAheadWeatherApiClient(WeatherApiClient delegate, Duration softTtl, Duration hardTtl,
+            int topK, Duration refreshInterval) {
+        this(delegate, softTtl, hardTtl, topK, refreshInterval, System::nanoTime, newScheduler(), newRefreshPool());
+    }
+
+    private RefreshAheadWeatherApiClient(WeatherApiClient delegate, Duration softTtl, Duration hardTtl,
+            int topK, Duration refreshInterval, LongSupplier nanoClock, ScheduledExecutorService scheduler,
+            ExecutorService refreshPool) {
+        this(delegate, softTtl, hardTtl, topK, refreshInterval, nanoClock, refreshPool, scheduler, refreshPool);
+        scheduler.scheduleWithFixedDelay(this::refreshHotCities, refreshIntervalNanos, refreshIntervalNanos,
+                TimeUnit.NANOSECONDS);
+    }
+
+    RefreshAheadWeatherApiClient(WeatherApiClient delegate, Duration softTtl, Duration hardTtl, int topK,
+            Duration refreshInterval, LongSupplier nanoClock, Executor refreshExecutor,
+            ScheduledExecutorService ownedScheduler, ExecutorService ownedRefreshPool) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate client cannot be null");
+        }
+        if (softTtl == null || hardTtl == null || softTtl.isNegative() || softTtl.isZero()
+                || hardTtl.compareTo(softTtl) < 0) {
+            throw new IllegalArgumentException("Soft TTL must be positive and no longer than the hard TTL");
+        }
+        if (topK < 0) {
+            throw new IllegalArgumentException("Top-K cannot be negative");
+        }
+        if (refreshInterval == null || refreshInterval.isNegative() || refreshInterval.isZero()) {
+            throw new IllegalArgumentException("Refresh interval must be positive");
+        }
+
+        this.delegate = delegate;
+        this.softTtlNanos = softTtl.toNanos();
+        this.hardTtlNanos = hardTtl.toNanos();
+        this.topK = topK;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.nanoClock = nanoClock;
+        this.refreshExecutor = refreshExecutor;
+        this.ownedScheduler = ownedScheduler;
+        this.ownedRefreshPool = ownedRefreshPool;
+        LOGGER.log(Level.CONFIG, "RefreshAheadWeatherApiClient initialized with soft TTL {0}, hard TTL {1}, "
+                + "top-K {2}, refresh interval {3}", new Object[]{softTtl, hardTtl, topK, refreshInterval});
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        String key = CityResolver.shared().key(city);
+        if (key.isEmpty()) {
+            return delegate.getWeatherFromApi(city);
+        }
+
+        WeatherData served = serveFromCache(key);
+        if (served != null) {
+            return served;
+        }
+
+        LOGGER.log(Level.FINE, "No usable entry for city {0}, fetching synchronously", key);
+        WeatherData weatherData = delegate.getWeatherFromApi(city);
+        store(key, city, weatherData);
+        return weatherData;
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        String key = CityResolver.shared().key(city);
+        if (key.isEmpty()) {
+            return delegate.getWeatherFromApiAsync(city);
+        }
+
+        WeatherData served = serveFromCache(key);
+        if (served != null) {
+            return CompletableFuture.completedFuture(served);
+        }
+
+        return delegate.getWeatherFromApiAsync(city).thenApply(weatherData -> {
+            store(key, city, weatherData);
+            return weatherData;
+        });
+    }
+
+    /**
+     * Refreshes the most requested cities whose entries will pass the soft TTL before the next run,
+     * drops entries past the hard TTL and halves request counts so popularity tracks recent traffic.
+     * Runs on the scheduler and only hands the refreshes to the refresh executor; package-private so tests can
+     * drive it directly.
+     */
+    void refreshHotCities() {
+        try {
+            long now = nanoClock.getAsLong();
+            entries.entrySet().removeIf(e -> now - e.getValue().fetchedAtNanos >= hardTtlNanos);
+
+            // Snapshot the counts so concurrent requests cannot reorder the list while it is sorted
+            List<Map.Entry<String, Long>> byPopularity = new ArrayList<>();
+            for (Map.Entry<String, AtomicLong> count : requestCounts.entrySet()) {
+                byPopularity.add(new AbstractMap.SimpleImmutableEntry<>(count.getKey(), count.getValue().get()));
+            }
+            byPopularity.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            int considered = 0;
+            for (Map.Entry<String, Long> candidate : byPopularity) {
+                if (considered >= topK) {
+                    break;
+                }
+                Entry entry = entries.get(candidate.getKey());
+                if (entry != null && now + refreshIntervalNanos - entry.fetchedAtNanos >= softTtlNanos) {
+                    triggerRefresh(candidate.getKey(), entry);
+                }
+                considered++;
+            }
+
+            requestCounts.entrySet().removeIf(e -> e.getValue().updateAndGet(count -> count / 2) == 0
+                    && !entries.containsKey(e.getKey()));
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            LOGGER.log(Level.WARNING, "Scheduled refresh failed", e);
+        }
+    }
+
+    /**
+     * @return The number of cities currently held
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stops the background scheduler and refreshes. Entries already held can still be served until they expire.
+     */
+    @Override
+    public void close() {
+        if (ownedScheduler != null) {
+            ownedScheduler.shutdownNow();
+        }
+        if (ownedRefreshPool != null) {
+            ownedRefreshPool.shutdownNow();
+        }
+    }
+
+    private WeatherData serveFromCache(String key) {
+        requestCounts.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        long age = nanoClock.getAsLong() - entry.fetchedAtNanos;
+        if (age >= hardTtlNanos) {
+            return null;
+        }
+        if (age >= softTtlNanos) {
+            LOGGER.log(Level.FINE, "Serving stale entry for city {0} while refreshing", key);
+            triggerRefresh(key, entry);
+        }
+        return entry.weatherData;
+    }
+
+    private void triggerRefresh(String key, Entry entry) {
+        if (!entry.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> refresh(key, entry));
+        } catch (RejectedExecutionException e) {
+            entry.refreshing.set(false);
+            LOGGER.log(Level.FINE, "Refresh for city {0} rejected, the refresh queue is full or the client is closed",
+                    key);
+        }
+    }
+
+    private void refresh(String key, Entry entry) {
+        try {
+            store(key, entry.city, delegate.getWeatherFromApi(entry.city));
+            LOGGER.log(Level.FINE, "Refreshed entry for city {0}", key);
+        } catch (WeatherApiException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Background refresh failed for city " + key, e);
+        } finally {
+            entry.refreshing.set(false);
+        }
+    }
+
+    private void store(String key, String city, WeatherData weatherData) {
+        // Stale fallbacks are served once; a refresh that only got one keeps the entry it had
+        if (weatherData.isStale()) {
+            return;
+        }
+        entries.put(key, new Entry(city, weatherData, nanoClock.getAsLong()));
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-refresh-scheduler-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Threads are started on demand and retire when idle; a full queue rejects, so callers never block on it
+    private static ExecutorService newRefreshPool() {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS,
+                REFRESH_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "weather-refresh-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static final class Entry {
+        private final String city;
+        private final WeatherData weatherData;
+        private final long fetchedAtNanos;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private Entry(String city, WeatherData weatherData, long fetchedAtNanos) {
+            this.city = city;
+            this.weatherData = weatherData;
+            this.fetchedAtNanos = fetchedAtNanos;
+        }
+    }
+}
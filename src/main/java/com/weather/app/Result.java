@@ -0,0 +1,81 @@
+package com.weather.app;
+
+/**
+ * Outcome of a single lookup within a batch: either a value or the WeatherApiException that prevented it
+ * @param <T> The type of the successful value
+ */
+public final class Result<T> {
+    private final T value;
+    private final WeatherApiException error;
+
+    private Result(T value, WeatherApiException error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful result
+     * @param value The value produced by the lookup
+     * @param <T> The type of the value
+     * @return A result holding the value
+     */
+    public static <T> Result<T> success(T value) {
+        return new Result<>(value, null);
+    }
+
+    /**
+     * Creates a failed result
+     * @param error The exception that caused the lookup to fail
+     * @param <T> The type of value the lookup would have produced
+     * @return A result holding the error
+     */
+    public static <T> Result<T> failure(WeatherApiException error) {
+        if (error == null) {
+            throw new IllegalArgumentException("Failure result requires an error");
+        }
+        return new Result<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return The value of a successful result
+     * @throws IllegalStateException if the result is a failure
+     */
+    public T getValue() {
+        if (error != null) {
+            throw new IllegalStateException("Result is a failure: " + error.getMessage(), error);
+        }
+        return value;
+    }
+
+    /**
+     * @return The error of a failed result
+     * @throws IllegalStateException if the result is a success
+     */
+    public WeatherApiException getError() {
+        if (error == null) {
+            throw new IllegalStateException("Result is a success");
+        }
+        return error;
+    }
+
+    /**
+     * Returns the value, rethrowing the original exception for a failed result
+     * @return The value of a successful result
+     * @throws WeatherApiException if the result is a failure
+     */
+    public T getOrThrow() throws WeatherApiException {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "Success[" + value + "]" : "Failure[" + error.getMessage() + "]";
+    }
+}
@@ -0,0 +1,86 @@
+package com.weather.app;
+
+import java.time.Duration;
+
+/**
+ * Settings for RetryingWeatherApiClient: how many attempts a lookup gets, how long to back off between
+ * them and the overall deadline for the call. Only transient failures are retried: network errors,
+ * HTTP 5xx responses and HTTP 429. Weather lookups are reads, so repeating them is always safe.
+ */
+public final class RetryPolicy {
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration deadline;
+
+    /**
+     * Creates a retry policy
+     * @param maxAttempts The maximum number of attempts per call, including the first
+     * @param initialBackoff The backoff ceiling before the first retry; it doubles with each further retry
+     * @param maxBackoff The largest backoff ceiling
+     * @param deadline The time after which the call fails, however many attempts remain
+     */
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff, Duration deadline) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Maximum attempts must be at least 1");
+        }
+        if (initialBackoff == null || maxBackoff == null || initialBackoff.isNegative()
+                || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("Backoff must be non-negative and no longer than the maximum backoff");
+        }
+        if (deadline == null || deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("Deadline must be positive");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return A policy of three attempts, backing off from 200 ms up to 2 s, within a 10 s deadline
+     */
+    public static RetryPolicy defaults() {
+        return new RetryPolicy(3, Duration.ofMillis(200), Duration.ofSeconds(2), Duration.ofSeconds(10));
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public Duration getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Computes the pause before the next attempt using "full jitter": a random delay up to an exponentially
+     * growing ceiling, which spreads out retries from many callers that failed at the same moment
+     * @param failedAttempts The number of attempts made so far
+     * @param random A random value in [0, 1)
+     * @return The backoff in nanoseconds
+     */
+    long backoffNanos(int failedAttempts, double random) {
+        long ceiling = initialBackoff.toNanos() << Math.min(failedAttempts - 1, 30);
+        if (ceiling < 0 || ceiling > maxBackoff.toNanos()) {
+            ceiling = maxBackoff.toNanos();
+        }
+        return (long) (random * ceiling);
+    }
+
+    /**
+     * Decides whether a failed attempt may succeed if repeated
+     * @param error The failure of the attempt
+     * @return true for network errors, server errors and rate limiting by the API; not for rejections by
+     *     the client-side rate limiter, which a retry would only repeat
+     */
+    boolean isRetryable(Throwable error) {
+        return error instanceof WeatherApiException && ((WeatherApiException) error).isTransient()
+                && !(error instanceof RateLimitExceededException);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxAttempts=" + maxAttempts + ", initialBackoff=" + initialBackoff
+                + ", maxBackoff=" + maxBackoff + ", deadline=" + deadline + "}";
+    }
+}
@@ -0,0 +1,169 @@
+package com.weather.app;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient decorator that retries transient failures and optionally hedges slow requests.
+ * Failed attempts the RetryPolicy considers transient are repeated after a jittered exponential backoff
+ * until an attempt succeeds, the attempts run out or the call's deadline passes. With hedging enabled,
+ * an attempt that has not answered within the 95th percentile of recent latencies gets a second, parallel
+ * request, and whichever succeeds first wins.
+ * <p>
+ * Both the deadline and hedging rely on the delegate's asynchronous method; against a delegate that only
+ * implements the blocking call, attempts cannot be abandoned early and only the retries take effect.
+ */
+public class RetryingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(RetryingWeatherApiClient.class.getName());
+    private static final int LATENCY_WINDOW = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final WeatherApiClient delegate;
+    private final RetryPolicy policy;
+    private final boolean hedging;
+    private final LongSupplier nanoClock;
+    private final DoubleSupplier random;
+    private final LatencyTracker latencies = new LatencyTracker(LATENCY_WINDOW, MIN_LATENCY_SAMPLES,
+            HEDGE_PERCENTILE);
+
+    /**
+     * Creates a retrying client
+     * @param delegate The client that performs upstream lookups
+     * @param policy When and how often to retry
+     * @param hedging Whether to send a second request when the first is slower than the recent p95 latency
+     */
+    public RetryingWeatherApiClient(WeatherApiClient delegate, RetryPolicy policy, boolean hedging) {
+        this(delegate, policy, hedging, System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    RetryingWeatherApiClient(WeatherApiClient delegate, RetryPolicy policy, boolean hedging, LongSupplier nanoClock,
+            DoubleSupplier random) {
+        if (delegate == null || policy == null) {
+            throw new IllegalArgumentException("Delegate client and retry policy cannot be null");
+        }
+        this.delegate = delegate;
+        this.policy = policy;
+        this.hedging = hedging;
+        this.nanoClock = nanoClock;
+        this.random = random;
+        LOGGER.log(Level.CONFIG, "RetryingWeatherApiClient initialized with {0}, hedging {1}",
+                new Object[]{policy, hedging ? "enabled" : "disabled"});
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        return Futures.await(getWeatherFromApiAsync(city));
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        CompletableFuture<WeatherData> result = new CompletableFuture<>();
+        long deadlineNanos = nanoClock.getAsLong() + policy.getDeadline().toNanos();
+        // orTimeout cancels its timer once the call completes, so fast calls leave nothing scheduled
+        CompletableFuture<WeatherData> bounded = result.orTimeout(policy.getDeadline().toNanos(), TimeUnit.NANOSECONDS)
+                .handle((weatherData, error) -> {
+                    if (error == null) {
+                        return weatherData;
+                    }
+                    Throwable cause = Futures.unwrap(error);
+                    if (cause instanceof TimeoutException) {
+                        LOGGER.log(Level.WARNING, "Deadline passed for city {0}", city);
+                        cause = new WeatherApiException(
+                                "Weather data fetch timed out after " + policy.getDeadline().toMillis() + " ms", cause);
+                    }
+                    throw new CompletionException(cause);
+                });
+        attempt(city, 1, deadlineNanos, result);
+        return bounded;
+    }
+
+    /**
+     * @return The current hedging threshold, or null while too few calls have been observed to set one
+     */
+    public Duration getHedgeDelay() {
+        long nanos = latencies.percentileNanos();
+        return nanos < 0 ? null : Duration.ofNanos(nanos);
+    }
+
+    private void attempt(String city, int attemptNumber, long deadlineNanos, CompletableFuture<WeatherData> result) {
+        if (result.isDone()) {
+            return;
+        }
+        hedgedCall(city).whenComplete((weatherData, error) -> {
+            if (error == null) {
+                result.complete(weatherData);
+                return;
+            }
+
+            Throwable cause = Futures.unwrap(error);
+            long backoffNanos = policy.backoffNanos(attemptNumber, random.getAsDouble());
+            long remainingNanos = deadlineNanos - nanoClock.getAsLong();
+            if (attemptNumber >= policy.getMaxAttempts() || !policy.isRetryable(cause)
+                    || backoffNanos >= remainingNanos) {
+                result.completeExceptionally(cause);
+                return;
+            }
+
+            LOGGER.log(Level.INFO, "Attempt {0} for city {1} failed ({2}), retrying in {3} ms",
+                    new Object[]{attemptNumber, city, cause.getMessage(), TimeUnit.NANOSECONDS.toMillis(backoffNanos)});
+            CompletableFuture.delayedExecutor(backoffNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> attempt(city, attemptNumber + 1, deadlineNanos, result));
+        });
+    }
+
+    // Runs one attempt, adding a hedge request if it outlasts the p95 latency
+    private CompletableFuture<WeatherData> hedgedCall(String city) {
+        CompletableFuture<WeatherData> primary = timedCall(city);
+        long hedgeDelayNanos = hedging ? latencies.percentileNanos() : -1;
+        if (hedgeDelayNanos < 0 || primary.isDone()) {
+            return primary;
+        }
+
+        CompletableFuture<WeatherData> winner = new CompletableFuture<>();
+        // Requests still running; the attempt fails only once every request has failed
+        AtomicInteger outstanding = new AtomicInteger(1);
+        BiConsumer<WeatherData, Throwable> onComplete = (weatherData, error) -> {
+            if (error == null) {
+                winner.complete(weatherData);
+            } else if (outstanding.decrementAndGet() == 0) {
+                winner.completeExceptionally(error);
+            }
+        };
+        primary.whenComplete(onComplete);
+        CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (winner.isDone() || outstanding.getAndUpdate(n -> n == 0 ? 0 : n + 1) == 0) {
+                return;
+            }
+            LOGGER.log(Level.FINE, "No response for city {0} after {1} ms, sending hedge request",
+                    new Object[]{city, TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos)});
+            timedCall(city).whenComplete(onComplete);
+        });
+        return winner;
+    }
+
+    private CompletableFuture<WeatherData> timedCall(String city) {
+        long start = nanoClock.getAsLong();
+        CompletableFuture<WeatherData> call;
+        try {
+            call = delegate.getWeatherFromApiAsync(city);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return call.whenComplete((weatherData, error) -> {
+            if (error == null) {
+                latencies.record(nanoClock.getAsLong() - start);
+            }
+        });
+    }
+}
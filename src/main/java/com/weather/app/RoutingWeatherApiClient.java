@@ -0,0 +1,327 @@
+package com.weather.app;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * WeatherApiClient that spreads lookups over several backends, such as OpenWeatherMap clients for
+ * different API keys or base URLs, and sends each request to the backend expected to answer fastest.
+ * <p>
+ * For every backend an exponentially weighted moving average (EWMA) of the latency of successful calls
+ * and of the transient error rate is kept. A request picks two backends at random and goes to the one
+ * with the lower cost ("power of two choices"): the average latency plus a penalty of up to
+ * {@link #FAILURE_PENALTY_NANOS} proportional to its error rate, scaled by the number of requests already
+ * in flight on it. This favours the fastest backend while still spreading load: a backend whose rate limiter
+ * starts to queue, or that answers 429, sheds traffic to the others, so the rate limits of all API keys add up.
+ * A backend's error rate fades while it is idle, so a backend that failed is tried again later.
+ * <p>
+ * A lookup that fails with a transient error (see {@link WeatherApiException#isTransient()}) is retried
+ * once on another backend. A batch goes to one backend, and only its cities that failed transiently are
+ * retried on another.
+ */
+public class RoutingWeatherApiClient implements WeatherApiClient {
+    private static final Logger LOGGER = Logger.getLogger(RoutingWeatherApiClient.class.getName());
+    // Weight of the newest sample in the moving averages
+    static final double SMOOTHING = 0.2;
+    // An idle backend's error rate falls by a factor of e over this time
+    static final long ERROR_DECAY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // Latency added to a backend's cost at a 100% error rate, so failing backends are avoided
+    // even before their latency is known
+    static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Backend> backends;
+    private final LongSupplier nanoClock;
+    private final IntUnaryOperator random;
+
+    /**
+     * Creates a routing client
+     * @param backends The clients to route between, at least one
+     */
+    public RoutingWeatherApiClient(List<? extends WeatherApiClient> backends) {
+        this(backends, System::nanoTime, bound -> ThreadLocalRandom.current().nextInt(bound));
+    }
+
+    RoutingWeatherApiClient(List<? extends WeatherApiClient> backends, LongSupplier nanoClock,
+            IntUnaryOperator random) {
+        if (backends == null || backends.isEmpty() || backends.contains(null)) {
+            throw new IllegalArgumentException("Backends cannot be null or empty");
+        }
+        List<Backend> wrapped = new ArrayList<>(backends.size());
+        for (int i = 0; i < backends.size(); i++) {
+            wrapped.add(new Backend("backend-" + i, backends.get(i), nanoClock.getAsLong()));
+        }
+        this.backends = Collections.unmodifiableList(wrapped);
+        this.nanoClock = nanoClock;
+        this.random = random;
+        LOGGER.log(Level.CONFIG, "RoutingWeatherApiClient initialized with {0} backends", wrapped.size());
+    }
+
+    /**
+     * Creates a routing client over OpenWeatherMap clients for the given API keys and base URLs.
+     * One backend is created per key or per URL, whichever there are more of, pairing them round-robin.
+     * Backends that share an API key share its rate limiter, since the provider enforces the limit per key.
+     * @param apiKeys The API keys to spread requests over
+     * @param apiBaseUrls The API base URLs to spread requests over
+     * @param metrics Receives the request metrics of every backend
+     * @return The routing client
+     */
+    public static RoutingWeatherApiClient forOpenWeatherMap(List<String> apiKeys, List<String> apiBaseUrls,
+            WeatherMetrics metrics) {
+        return forOpenWeatherMap(apiKeys, apiBaseUrls, metrics, RateLimiter::fromConfig);
+    }
+
+    /**
+     * Creates a routing client over OpenWeatherMap clients, taking each API key's rate limiter from a factory
+     * @param apiKeys The API keys to spread requests over
+     * @param apiBaseUrls The API base URLs to spread requests over
+     * @param metrics Receives the request metrics of every backend
+     * @param rateLimiterFactory Creates the rate limiter for each distinct API key
+     * @return The routing client
+     */
+    public static RoutingWeatherApiClient forOpenWeatherMap(List<String> apiKeys, List<String> apiBaseUrls,
+            WeatherMetrics metrics, Supplier<RateLimiter> rateLimiterFactory) {
+        if (apiKeys == null || apiKeys.isEmpty() || apiBaseUrls == null || apiBaseUrls.isEmpty()) {
+            throw new IllegalArgumentException("API keys and base URLs cannot be null or empty");
+        }
+        int count = Math.max(apiKeys.size(), apiBaseUrls.size());
+        Map<String, RateLimiter> rateLimiters = new HashMap<>();
+        List<WeatherApiClient> clients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String apiKey = apiKeys.get(i % apiKeys.size());
+            RateLimiter rateLimiter = rateLimiters.computeIfAbsent(apiKey, key -> rateLimiterFactory.get());
+            clients.add(new OpenWeatherMapClient(apiKey, apiBaseUrls.get(i % apiBaseUrls.size()), null,
+                    rateLimiter, metrics));
+        }
+        return new RoutingWeatherApiClient(clients);
+    }
+
+    @Override
+    public WeatherData getWeatherFromApi(String city) throws WeatherApiException {
+        Backend backend = choose(null);
+        try {
+            return call(backend, city);
+        } catch (WeatherApiException e) {
+            if (!e.isTransient() || backends.size() == 1) {
+                throw e;
+            }
+            Backend retry = choose(backend);
+            logFailover(backend, retry, e);
+            return call(retry, city);
+        }
+    }
+
+    @Override
+    public CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        Backend backend = choose(null);
+        return callAsync(backend, city).handle((weatherData, error) -> {
+            if (error == null) {
+                return CompletableFuture.completedFuture(weatherData);
+            }
+            Throwable cause = Futures.unwrap(error);
+            if (backends.size() > 1 && cause instanceof WeatherApiException
+                    && ((WeatherApiException) cause).isTransient()) {
+                Backend retry = choose(backend);
+                logFailover(backend, retry, cause);
+                return callAsync(retry, city);
+            }
+            return CompletableFuture.<WeatherData>failedFuture(cause);
+        }).thenCompose(result -> result);
+    }
+
+    @Override
+    public Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Backend backend = choose(null);
+        Map<String, Result<WeatherData>> results = callBatch(backend, cities);
+        if (backends.size() == 1) {
+            return results;
+        }
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, Result<WeatherData>> entry : results.entrySet()) {
+            if (!entry.getValue().isSuccess() && entry.getValue().getError().isTransient()) {
+                failed.add(entry.getKey());
+            }
+        }
+        if (!failed.isEmpty()) {
+            Backend retry = choose(backend);
+            logFailover(backend, retry, results.get(failed.get(0)).getError());
+            results.putAll(callBatch(retry, failed));
+        }
+        return results;
+    }
+
+    @Override
+    public boolean supportsBatch() {
+        for (Backend backend : backends) {
+            if (!backend.client.supportsBatch()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The backends with their current statistics, in the order they were given
+     */
+    List<Backend> getBackends() {
+        return backends;
+    }
+
+    // Picks the cheaper of two random backends, leaving out the excluded one if given
+    private Backend choose(Backend excluded) {
+        List<Backend> candidates = backends;
+        if (excluded != null) {
+            candidates = new ArrayList<>(backends);
+            candidates.remove(excluded);
+        }
+        int count = candidates.size();
+        if (count == 1) {
+            return candidates.get(0);
+        }
+        int first = random.applyAsInt(count);
+        int second = random.applyAsInt(count - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = nanoClock.getAsLong();
+        Backend a = candidates.get(first);
+        Backend b = candidates.get(second);
+        return a.cost(now) <= b.cost(now) ? a : b;
+    }
+
+    private WeatherData call(Backend backend, String city) throws WeatherApiException {
+        long start = nanoClock.getAsLong();
+        backend.inFlight.incrementAndGet();
+        try {
+            WeatherData weatherData = backend.client.getWeatherFromApi(city);
+            backend.record(start, nanoClock.getAsLong(), false);
+            return weatherData;
+        } catch (WeatherApiException | RuntimeException e) {
+            backend.record(start, nanoClock.getAsLong(), isBackendFailure(e));
+            throw e;
+        } finally {
+            backend.inFlight.decrementAndGet();
+        }
+    }
+
+    private CompletableFuture<WeatherData> callAsync(Backend backend, String city) {
+        long start = nanoClock.getAsLong();
+        backend.inFlight.incrementAndGet();
+        CompletableFuture<WeatherData> future;
+        try {
+            future = backend.client.getWeatherFromApiAsync(city);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((weatherData, error) -> {
+            backend.inFlight.decrementAndGet();
+            backend.record(start, nanoClock.getAsLong(), error != null && isBackendFailure(Futures.unwrap(error)));
+        });
+    }
+
+    // The batch is one sample for the backend, a failure if any of its cities failed transiently
+    private Map<String, Result<WeatherData>> callBatch(Backend backend, Collection<String> cities) {
+        long start = nanoClock.getAsLong();
+        backend.inFlight.incrementAndGet();
+        try {
+            Map<String, Result<WeatherData>> results = backend.client.getWeatherForCities(cities);
+            boolean failed = false;
+            for (Result<WeatherData> result : results.values()) {
+                failed |= !result.isSuccess() && isBackendFailure(result.getError());
+            }
+            backend.record(start, nanoClock.getAsLong(), failed);
+            return results;
+        } catch (RuntimeException e) {
+            backend.record(start, nanoClock.getAsLong(), true);
+            throw e;
+        } finally {
+            backend.inFlight.decrementAndGet();
+        }
+    }
+
+    // An unknown or invalid city is a correct answer from the backend, not a sign of trouble
+    private static boolean isBackendFailure(Throwable error) {
+        return !(error instanceof WeatherApiException) || ((WeatherApiException) error).isTransient();
+    }
+
+    private static void logFailover(Backend failed, Backend retry, Throwable error) {
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Lookup on {0} failed ({1}), retrying on {2}",
+                    new Object[]{failed.name, error.getMessage(), retry.name});
+        }
+    }
+
+    /**
+     * A backend client with its moving averages
+     */
+    static final class Backend {
+        private final String name;
+        private final WeatherApiClient client;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // Zero until the first successful call, so new backends are tried early
+        private double latencyNanos;
+        private double errorRate;
+        private long lastUpdateNanos;
+
+        private Backend(String name, WeatherApiClient client, long nowNanos) {
+            this.name = name;
+            this.client = client;
+            this.lastUpdateNanos = nowNanos;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        synchronized double getLatencyMillis() {
+            return latencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        synchronized double getErrorRate(long nowNanos) {
+            return decayedErrorRate(nowNanos);
+        }
+
+        int getInFlight() {
+            return inFlight.get();
+        }
+
+        synchronized double cost(long nowNanos) {
+            double errorPenaltyNanos = decayedErrorRate(nowNanos) * FAILURE_PENALTY_NANOS;
+            // The +1 keeps in-flight requests relevant while latency is still unknown
+            return (latencyNanos + errorPenaltyNanos + 1) * (inFlight.get() + 1);
+        }
+
+        synchronized void record(long startNanos, long endNanos, boolean failed) {
+            errorRate = decayedErrorRate(endNanos);
+            errorRate += SMOOTHING * ((failed ? 1 : 0) - errorRate);
+            if (!failed) {
+                long latency = endNanos - startNanos;
+                latencyNanos = latencyNanos == 0 ? latency : latencyNanos + SMOOTHING * (latency - latencyNanos);
+            }
+            lastUpdateNanos = Math.max(lastUpdateNanos, endNanos);
+        }
+
+        private double decayedErrorRate(long nowNanos) {
+            long idleNanos = Math.max(0, nowNanos - lastUpdateNanos);
+            return errorRate * Math.exp(-(double) idleNanos / ERROR_DECAY_NANOS);
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%s: %.1f ms, %.0f%% errors, %d in flight", name, getLatencyMillis(),
+                    errorRate * 100, inFlight.get());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.weather.app;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads (Java 21+) from code compiled for Java 11.
+ * The factory method is looked up reflectively once, so the same build runs on older JDKs and
+ * callers can fall back to platform threads when {@link #isAvailable()} is false.
+ */
+final class VirtualThreads {
+    private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR = findFactory();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return true if the running JDK supports virtual threads
+     */
+    static boolean isAvailable() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task
+     * @return The result of {@code Executors.newVirtualThreadPerTaskExecutor()}
+     * @throws UnsupportedOperationException if the running JDK does not support virtual threads
+     */
+    static ExecutorService newThreadPerTaskExecutor() {
+        if (NEW_THREAD_PER_TASK_EXECUTOR == null) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+
+    private static MethodHandle findFactory() {
+        if (Runtime.version().feature() < 21) {
+            // Earlier releases only have virtual threads as a preview feature
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
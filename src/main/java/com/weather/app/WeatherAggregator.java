@@ -0,0 +1,237 @@
+package com.weather.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Computes aggregates over the snapshots in a WeatherDataStore.
+ * The rows are cut into fixed chunks of {@value #CHUNK_SIZE}; each chunk is reduced into a small
+ * primitive array indexed by city or description code, and the partial results are merged pairwise
+ * along a binary tree over the chunks. In parallel mode the two halves of the tree run as fork/join
+ * tasks; in sequential mode the same tree is walked on the calling thread, so both modes produce
+ * identical results.
+ */
+public class WeatherAggregator {
+    static final int CHUNK_SIZE = 1 << 14;
+
+    private final WeatherDataStore store;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an aggregator that runs on the common fork/join pool
+     * @param store The snapshots to aggregate
+     */
+    public WeatherAggregator(WeatherDataStore store) {
+        this(store, true);
+    }
+
+    /**
+     * Creates an aggregator
+     * @param store The snapshots to aggregate
+     * @param parallel Whether to spread work over the common fork/join pool or run on the calling thread
+     */
+    public WeatherAggregator(WeatherDataStore store, boolean parallel) {
+        this(store, parallel ? ForkJoinPool.commonPool() : null);
+    }
+
+    /**
+     * Creates an aggregator that runs on the given pool, or on the calling thread if the pool is null
+     * @param store The snapshots to aggregate
+     * @param pool The pool to run on, or null for sequential aggregation
+     */
+    WeatherAggregator(WeatherDataStore store, ForkJoinPool pool) {
+        if (store == null) {
+            throw new IllegalArgumentException("Store cannot be null");
+        }
+        this.store = store;
+        this.pool = pool;
+    }
+
+    /**
+     * Finds the cities with the highest recorded temperature
+     * @param n The maximum number of cities to return
+     * @return Up to n cities with their highest temperature, hottest first; ties are ordered by city name
+     */
+    public List<CityTemperature> hottestCities(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of cities cannot be negative");
+        }
+        WeatherDataStore.Columns columns = store.columns();
+        int cityCount = columns.cityNames.size();
+        double[] maxByCity = aggregate(columns.size, (from, to) -> {
+            double[] max = new double[cityCount];
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            for (int row = from; row < to; row++) {
+                int city = columns.cityCodes[row];
+                max[city] = Math.max(max[city], columns.temperatures[row]);
+            }
+            return max;
+        }, (left, right) -> {
+            for (int i = 0; i < left.length; i++) {
+                left[i] = Math.max(left[i], right[i]);
+            }
+            return left;
+        });
+
+        List<CityTemperature> cities = new ArrayList<>();
+        for (int city = 0; city < cityCount; city++) {
+            if (maxByCity != null && maxByCity[city] != Double.NEGATIVE_INFINITY) {
+                cities.add(new CityTemperature(columns.cityNames.get(city), maxByCity[city]));
+            }
+        }
+        cities.sort(Comparator.comparingDouble(CityTemperature::getTemperatureCelsius).reversed()
+                .thenComparing(CityTemperature::getCity));
+        return Collections.unmodifiableList(new ArrayList<>(cities.subList(0, Math.min(n, cities.size()))));
+    }
+
+    /**
+     * Counts the snapshots of each weather description
+     * @return The number of snapshots per description, most frequent first; ties are ordered by description
+     */
+    public Map<String, Long> countByDescription() {
+        WeatherDataStore.Columns columns = store.columns();
+        int descriptionCount = columns.descriptions.size();
+        long[] counts = aggregate(columns.size, (from, to) -> {
+            long[] partial = new long[descriptionCount];
+            for (int row = from; row < to; row++) {
+                partial[columns.descriptionCodes[row]]++;
+            }
+            return partial;
+        }, WeatherAggregator::sum);
+
+        List<Integer> order = new ArrayList<>();
+        for (int description = 0; description < descriptionCount; description++) {
+            if (counts != null && counts[description] > 0) {
+                order.add(description);
+            }
+        }
+        order.sort(Comparator.<Integer>comparingLong(description -> counts[description]).reversed()
+                .thenComparing(description -> String.valueOf(columns.descriptions.get(description))));
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int description : order) {
+            result.put(columns.descriptions.get(description), counts[description]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts snapshots per temperature bucket. Bucket i covers
+     * {@code [lowerBound + i * bucketWidth, lowerBound + (i + 1) * bucketWidth)}; temperatures below the
+     * first bucket are counted in it and temperatures above the last bucket are counted in the last one.
+     * @param lowerBound The lower edge of the first bucket in degrees Celsius
+     * @param bucketWidth The width of each bucket in degrees Celsius
+     * @param bucketCount The number of buckets
+     * @return The number of snapshots in each bucket
+     */
+    public long[] temperatureHistogram(double lowerBound, double bucketWidth, int bucketCount) {
+        if (!(bucketWidth > 0) || bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket width and count must be positive");
+        }
+        WeatherDataStore.Columns columns = store.columns();
+        long[] counts = aggregate(columns.size, (from, to) -> {
+            long[] partial = new long[bucketCount];
+            for (int row = from; row < to; row++) {
+                double bucket = Math.floor((columns.temperatures[row] - lowerBound) / bucketWidth);
+                partial[(int) Math.max(0, Math.min(bucketCount - 1, bucket))]++;
+            }
+            return partial;
+        }, WeatherAggregator::sum);
+        return counts != null ? counts : new long[bucketCount];
+    }
+
+    // Returns null when there are no rows
+    private <R> R aggregate(int size, RangeReducer<R> reducer, BinaryOperator<R> merger) {
+        if (size == 0) {
+            return null;
+        }
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        ChunkTask<R> task = new ChunkTask<>(0, chunks, size, reducer, merger, pool != null);
+        return pool != null ? pool.invoke(task) : task.compute();
+    }
+
+    private static long[] sum(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    // Reduces the rows [from, to) to a partial result
+    @FunctionalInterface
+    private interface RangeReducer<R> {
+        R reduce(int from, int to);
+    }
+
+    // Reduces the chunks [firstChunk, endChunk) by splitting at the middle chunk, so the shape of the
+    // merge tree depends only on the number of rows and not on the mode or the number of threads
+    private static final class ChunkTask<R> extends RecursiveTask<R> {
+        private static final long serialVersionUID = 1L;
+
+        private final int firstChunk;
+        private final int endChunk;
+        private final int size;
+        private final RangeReducer<R> reducer;
+        private final BinaryOperator<R> merger;
+        private final boolean fork;
+
+        private ChunkTask(int firstChunk, int endChunk, int size, RangeReducer<R> reducer,
+                BinaryOperator<R> merger, boolean fork) {
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+            this.size = size;
+            this.reducer = reducer;
+            this.merger = merger;
+            this.fork = fork;
+        }
+
+        @Override
+        protected R compute() {
+            if (endChunk - firstChunk == 1) {
+                return reducer.reduce(firstChunk * CHUNK_SIZE, Math.min(size, (firstChunk + 1) * CHUNK_SIZE));
+            }
+            int middle = (firstChunk + endChunk) >>> 1;
+            ChunkTask<R> left = new ChunkTask<>(firstChunk, middle, size, reducer, merger, fork);
+            ChunkTask<R> right = new ChunkTask<>(middle, endChunk, size, reducer, merger, fork);
+            if (!fork) {
+                return merger.apply(left.compute(), right.compute());
+            }
+            right.fork();
+            R leftResult = left.compute();
+            return merger.apply(leftResult, right.join());
+        }
+    }
+
+    /**
+     * A city and a temperature
+     */
+    public static final class CityTemperature {
+        private final String city;
+        private final double temperatureCelsius;
+
+        CityTemperature(String city, double temperatureCelsius) {
+            this.city = city;
+            this.temperatureCelsius = temperatureCelsius;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public double getTemperatureCelsius() {
+            return temperatureCelsius;
+        }
+
+        @Override
+        public String toString() {
+            return city + ": " + temperatureCelsius + "°C";
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.weather.app;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interface defining the contract for fetching weather data from an API
  */
@@ -11,4 +17,48 @@ public interface WeatherApiClient {
      * @throws WeatherApiException if there's an error fetching or parsing the weather data
      */
     WeatherData getWeatherFromApi(String city) throws WeatherApiException;
+
+    /**
+     * Fetches weather data for the specified city without blocking the caller on network I/O.
+     * The default implementation runs the blocking lookup on the calling thread; implementations
+     * backed by a non-blocking transport should override it.
+     * @param city The name of the city
+     * @return A future completed with the weather information, or completed exceptionally with a
+     *         WeatherApiException if there's an error fetching or parsing the weather data
+     */
+    default CompletableFuture<WeatherData> getWeatherFromApiAsync(String city) {
+        try {
+            return CompletableFuture.completedFuture(getWeatherFromApi(city));
+        } catch (WeatherApiException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Fetches weather data for several cities.
+     * The default implementation looks the cities up one at a time on the calling thread; clients that
+     * can fetch several cities in one upstream request override it along with {@link #supportsBatch()}.
+     * @param cities The names of the cities; duplicates are looked up once
+     * @return A map from each distinct city name, in the order given, to the outcome of its lookup
+     */
+    default Map<String, Result<WeatherData>> getWeatherForCities(Collection<String> cities) {
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        for (String city : new LinkedHashSet<>(cities)) {
+            try {
+                results.put(city, Result.success(getWeatherFromApi(city)));
+            } catch (WeatherApiException e) {
+                results.put(city, Result.failure(e));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Tells whether {@link #getWeatherForCities(Collection)} fetches several cities per upstream request.
+     * Decorators report their delegate's answer if they pass batches through, and false otherwise.
+     * @return true if batches are cheaper than the same number of single lookups; false by default
+     */
+    default boolean supportsBatch() {
+        return false;
+    }
 }
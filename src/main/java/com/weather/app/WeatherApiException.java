@@ -1,14 +1,46 @@
 package com.weather.app;
 
+import java.io.IOException;
+
 /**
  * Custom exception for handling weather API related errors
  */
 public class WeatherApiException extends Exception {
+    private final int statusCode;
+
     public WeatherApiException(String message) {
-        super(message);
+        this(message, 0);
     }
 
     public WeatherApiException(String message, Throwable cause) {
         super(message, cause);
+        this.statusCode = 0;
+    }
+
+    /**
+     * Creates an exception for an error response from the API
+     * @param message The error message
+     * @param statusCode The HTTP status code of the response
+     */
+    public WeatherApiException(String message, int statusCode) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * @return The HTTP status code of the error response (429 also when the client-side rate limiter
+     *     rejected the request, 503 when an open circuit breaker did), or 0 if the error did not come
+     *     from an API response
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return true for failures caused by the API or the network rather than the request itself:
+     *     network errors, HTTP 5xx responses and HTTP 429
+     */
+    public boolean isTransient() {
+        return getCause() instanceof IOException || statusCode == 429 || statusCode >= 500;
     }
 }
@@ -2,6 +2,12 @@ package com.weather.app;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
@@ -12,21 +18,10 @@ import java.util.logging.Logger;
 public class WeatherApp {
 
     private static final Logger LOGGER = Logger.getLogger(WeatherApp.class.getName());
+    private static final String SERVE_OPTION = "--serve";
 
-    // Initialize logging configuration
-    static {
-        try (InputStream is = WeatherApp.class.getClassLoader().getResourceAsStream("logging.properties")) {
-            if (is != null) {
-                LogManager.getLogManager().readConfiguration(is);
-                LOGGER.log(Level.CONFIG, "Logging configured from properties file");
-            } else {
-                LOGGER.log(Level.WARNING, "Unable to find logging.properties file, using default configuration");
-            }
-        } catch (IOException e) {
-            System.err.println("Could not load logging.properties file");
-            e.printStackTrace();
-        }
-    }
+    // Set once the bundled logging configuration has been applied
+    private static boolean loggingConfigured;
 
     // Flag to control System.exit behavior (for testing)
     private static boolean exitOnError = true;
@@ -55,24 +50,45 @@ public class WeatherApp {
     }
 
     public static void main(String[] args) {
+        configureLogging();
+
         // Validate command line arguments
         if (args.length < 1) {
             LOGGER.log(Level.INFO, "Usage: java -jar WeatherApp.jar <city-name>");
+            LOGGER.log(Level.INFO, "       java -jar WeatherApp.jar --serve <port>");
             LOGGER.log(Level.INFO, "Example: java -jar WeatherApp.jar London");
             exit(1);
             return;
         }
 
+        if (SERVE_OPTION.equals(args[0])) {
+            serve(args);
+            return;
+        }
+
         // Get the city name from command line arguments
         String city = args[0];
         LOGGER.log(Level.INFO, "Weather request for city: {0}", city);
 
+        WeatherRecorder recorder = null;
+        PersistentWeatherCache persistentCache = null;
         try {
             // Get API key from environment or config file
             String apiKey = ConfigUtil.getApiKey();
 
             // Initialize services
             WeatherApiClient weatherApiClient = new OpenWeatherMapClient(apiKey);
+            recorder = openRecorder();
+            if (recorder != null) {
+                weatherApiClient = new RecordingWeatherApiClient(weatherApiClient, recorder);
+            }
+            WeatherConfig config = ConfigUtil.current();
+            persistentCache = openPersistentCache(config);
+            if (persistentCache != null) {
+                // Repeated lookups within the cache TTL are answered from disk, without an API call
+                weatherApiClient = new PersistentCachingWeatherApiClient(weatherApiClient, persistentCache,
+                        config.getCacheTtl());
+            }
             WeatherService weatherService = new WeatherService(weatherApiClient);
 
             // Get and display weather data
@@ -92,6 +108,190 @@ public class WeatherApp {
         } catch (WeatherApiException e) {
             LOGGER.log(Level.SEVERE, "Error fetching weather data: " + e.getMessage(), e);
             exit(1);
+        } finally {
+            closeRecorder(recorder);
+            closePersistentCache(persistentCache);
+        }
+    }
+
+    /**
+     * Applies the bundled logging.properties, once, unless a logging configuration was given on the command line.
+     * Done at the start of main rather than when the class loads, so loading WeatherApp stays cheap.
+     */
+    private static synchronized void configureLogging() {
+        if (loggingConfigured) {
+            return;
+        }
+        loggingConfigured = true;
+        if (System.getProperty("java.util.logging.config.file") != null
+                || System.getProperty("java.util.logging.config.class") != null) {
+            return;
+        }
+        try (InputStream is = WeatherApp.class.getClassLoader().getResourceAsStream("logging.properties")) {
+            if (is != null) {
+                LogManager.getLogManager().readConfiguration(is);
+                LOGGER.log(Level.CONFIG, "Logging configured from properties file");
+            } else {
+                LOGGER.log(Level.WARNING, "Unable to find logging.properties file, using default configuration");
+            }
+        } catch (IOException e) {
+            System.err.println("Could not load logging.properties file");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Opens the history file configured with WEATHER_HISTORY_FILE, if any.
+     * A file that cannot be opened is logged and the application continues without recording.
+     *
+     * @return the recorder, or null if recording is disabled or unavailable
+     */
+    private static WeatherRecorder openRecorder() {
+        Path historyFile = ConfigUtil.getHistoryFile();
+        if (historyFile == null) {
+            return null;
+        }
+        try {
+            return new WeatherRecorder(historyFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not open weather history " + historyFile + ", not recording", e);
+            return null;
+        }
+    }
+
+    private static void closeRecorder(WeatherRecorder recorder) {
+        if (recorder == null) {
+            return;
+        }
+        try {
+            recorder.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not close weather history", e);
+        }
+    }
+
+    // Opens the persistent cache configured with WEATHER_CACHE_FILE, if any; the file is read on first use
+    private static PersistentWeatherCache openPersistentCache(WeatherConfig config) {
+        Path cacheFile = config.getCacheFile();
+        if (cacheFile == null) {
+            return null;
+        }
+        LOGGER.log(Level.CONFIG, "Persisting lookups in {0}", cacheFile);
+        return new PersistentWeatherCache(cacheFile);
+    }
+
+    private static void closePersistentCache(PersistentWeatherCache persistentCache) {
+        if (persistentCache == null) {
+            return;
+        }
+        try {
+            persistentCache.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not close persistent weather cache", e);
+        }
+    }
+
+    // A rate limiter that takes the new budget whenever the configuration is reloaded
+    private static RateLimiter reloadableRateLimiter() {
+        RateLimiter rateLimiter = RateLimiter.fromConfig();
+        ConfigUtil.addListener(rateLimiter::applyConfig);
+        return rateLimiter;
+    }
+
+    // Watches the configuration file, if one is configured, so settings can be retuned without a restart
+    private static ConfigWatcher startConfigWatcher() {
+        Path configFile = ConfigUtil.getConfigFile();
+        if (configFile == null) {
+            return null;
+        }
+        try {
+            return new ConfigWatcher(configFile);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not watch configuration file " + configFile + ", not reloading", e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs the HTTP server mode until the JVM is stopped.
+     * Lookups go through one shared service whose client coalesces concurrent requests and caches results.
+     * With virtual threads enabled on Java 21+, every request is handled on its own virtual thread.
+     *
+     * @param args the command line arguments, {@code --serve <port>}
+     */
+    private static void serve(String[] args) {
+        int port;
+        try {
+            port = Integer.parseInt(args.length > 1 ? args[1] : "");
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        // Checked here, before anything is started, since InetSocketAddress rejects it with an unchecked exception
+        if (port < 0 || port > 65535) {
+            LOGGER.log(Level.SEVERE, "Usage: java -jar WeatherApp.jar --serve <port>");
+            exit(1);
+            return;
+        }
+
+        try {
+            WeatherConfig config = ConfigUtil.current();
+            List<String> apiKeys = ConfigUtil.getApiKeys();
+            List<String> apiBaseUrls = config.getApiBaseUrls();
+            InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+            metrics.registerMBean();
+            // Several keys or URLs are routed between, so their rate limits add up
+            WeatherApiClient providerClient = apiKeys.size() == 1 && apiBaseUrls.size() == 1
+                    ? new OpenWeatherMapClient(apiKeys.get(0), apiBaseUrls.get(0), null, reloadableRateLimiter(),
+                            metrics)
+                    : RoutingWeatherApiClient.forOpenWeatherMap(apiKeys, apiBaseUrls, metrics,
+                            WeatherApp::reloadableRateLimiter);
+            WeatherRecorder recorder = openRecorder();
+            WeatherApiClient apiClient = recorder != null
+                    ? new RecordingWeatherApiClient(providerClient, recorder)
+                    : providerClient;
+            // Fail fast while the provider is down, answering with the last known weather where possible
+            apiClient = new CircuitBreakingWeatherApiClient(apiClient, CircuitBreaker.defaults(), true);
+            // Behind the in-memory cache, so a restarted server answers recently seen cities from disk
+            PersistentWeatherCache persistentCache = openPersistentCache(config);
+            if (persistentCache != null) {
+                apiClient = new PersistentCachingWeatherApiClient(apiClient, persistentCache, config.getCacheTtl());
+            }
+            CachingWeatherApiClient weatherApiClient = new CachingWeatherApiClient(
+                    new CoalescingWeatherApiClient(apiClient), config.getCacheTtl(), config.getCacheMaxEntries(),
+                    metrics);
+            // WeatherService logs a warning if virtual threads are requested but not supported
+            WeatherService weatherService = new WeatherService(weatherApiClient, config.getMaxConcurrency(),
+                    config.useVirtualThreads(), metrics);
+            ConfigUtil.addListener(reloaded -> {
+                weatherApiClient.reconfigure(reloaded.getCacheTtl(), reloaded.getCacheMaxEntries());
+                weatherService.setMaxConcurrency(reloaded.getMaxConcurrency());
+            });
+            boolean virtualThreads = config.useVirtualThreads() && VirtualThreads.isAvailable();
+
+            AtomicInteger threadCounter = new AtomicInteger();
+            ExecutorService executor = virtualThreads
+                    ? VirtualThreads.newThreadPerTaskExecutor()
+                    : Executors.newFixedThreadPool(config.getServerThreads(),
+                            runnable -> new Thread(runnable, "weather-server-" + threadCounter.incrementAndGet()));
+            WeatherServer server = new WeatherServer(weatherService, new InetSocketAddress(port), executor, metrics);
+            ConfigWatcher configWatcher = startConfigWatcher();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                executor.shutdown();
+                weatherService.close();
+                closeRecorder(recorder);
+                closePersistentCache(persistentCache);
+                if (configWatcher != null) {
+                    configWatcher.close();
+                }
+            }, "weather-server-shutdown"));
+            server.start();
+        } catch (ConfigUtil.ConfigException e) {
+            LOGGER.log(Level.SEVERE, "Configuration error: " + e.getMessage(), e);
+            exit(1);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Could not start server on port " + port, e);
+            exit(1);
         }
     }
 }
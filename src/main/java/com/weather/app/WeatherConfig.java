@@ -0,0 +1,347 @@
+package com.weather.app;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Immutable snapshot of the application configuration. Every setting is resolved once, when the
+ * snapshot is created, from an environment variable or else a property, so reading a setting is a
+ * field access. Invalid values are logged and replaced by their defaults.
+ * Use {@link ConfigUtil#current()} for the snapshot in effect.
+ */
+public final class WeatherConfig {
+    private static final Logger LOGGER = Logger.getLogger(WeatherConfig.class.getName());
+    static final String API_KEY_ENV_VARIABLE = "OPENWEATHERMAP_API_KEY";
+    static final String API_KEY_PROPERTY = "api.key";
+    private static final String API_URL_ENV_VARIABLE = "OPENWEATHERMAP_API_URL";
+    private static final String API_URL_PROPERTY = "api.base.url";
+    private static final String API_KEYS_ENV_VARIABLE = "OPENWEATHERMAP_API_KEYS";
+    private static final String API_KEYS_PROPERTY = "api.keys";
+    private static final String API_URLS_ENV_VARIABLE = "OPENWEATHERMAP_API_URLS";
+    private static final String API_URLS_PROPERTY = "api.base.urls";
+    static final String DEFAULT_API_URL = "https://api.openweathermap.org/data/2.5/weather";
+    private static final String REQUESTS_PER_MINUTE_ENV_VARIABLE = "OPENWEATHERMAP_REQUESTS_PER_MINUTE";
+    private static final String REQUESTS_PER_MINUTE_PROPERTY = "api.requests.per.minute";
+    // The OpenWeatherMap free plan allows 60 calls per minute
+    private static final int DEFAULT_REQUESTS_PER_MINUTE = 60;
+    private static final String RATE_LIMIT_MAX_WAIT_ENV_VARIABLE = "OPENWEATHERMAP_RATE_LIMIT_MAX_WAIT_MS";
+    private static final String RATE_LIMIT_MAX_WAIT_PROPERTY = "api.rate.limit.max.wait.ms";
+    private static final long DEFAULT_RATE_LIMIT_MAX_WAIT_MS = 10_000;
+    private static final String HTTP_CONNECT_TIMEOUT_ENV_VARIABLE = "OPENWEATHERMAP_HTTP_CONNECT_TIMEOUT_MS";
+    private static final String HTTP_CONNECT_TIMEOUT_PROPERTY = "http.connect.timeout.ms";
+    private static final long DEFAULT_HTTP_CONNECT_TIMEOUT_MS = 5_000;
+    private static final String HTTP_REQUEST_TIMEOUT_ENV_VARIABLE = "OPENWEATHERMAP_HTTP_REQUEST_TIMEOUT_MS";
+    private static final String HTTP_REQUEST_TIMEOUT_PROPERTY = "http.request.timeout.ms";
+    private static final long DEFAULT_HTTP_REQUEST_TIMEOUT_MS = 10_000;
+    private static final String HTTP_VERSION_ENV_VARIABLE = "OPENWEATHERMAP_HTTP_VERSION";
+    private static final String HTTP_VERSION_PROPERTY = "http.version";
+    private static final String HTTP_EXECUTOR_THREADS_ENV_VARIABLE = "OPENWEATHERMAP_HTTP_EXECUTOR_THREADS";
+    private static final String HTTP_EXECUTOR_THREADS_PROPERTY = "http.executor.threads";
+    private static final String HTTP_KEEPALIVE_ENV_VARIABLE = "OPENWEATHERMAP_HTTP_KEEPALIVE_SECONDS";
+    private static final String HTTP_KEEPALIVE_PROPERTY = "http.keepalive.seconds";
+    private static final long DEFAULT_HTTP_KEEPALIVE_SECONDS = 60;
+    private static final String HTTP_POOL_SIZE_ENV_VARIABLE = "OPENWEATHERMAP_HTTP_CONNECTION_POOL_SIZE";
+    private static final String HTTP_POOL_SIZE_PROPERTY = "http.connection.pool.size";
+    private static final String SERVER_THREADS_ENV_VARIABLE = "WEATHER_SERVER_THREADS";
+    private static final String SERVER_THREADS_PROPERTY = "server.threads";
+    private static final int DEFAULT_SERVER_THREADS = 16;
+    private static final String VIRTUAL_THREADS_ENV_VARIABLE = "WEATHER_VIRTUAL_THREADS";
+    private static final String VIRTUAL_THREADS_PROPERTY = "threads.virtual";
+    private static final String HISTORY_FILE_ENV_VARIABLE = "WEATHER_HISTORY_FILE";
+    private static final String HISTORY_FILE_PROPERTY = "history.file";
+    private static final String CACHE_TTL_ENV_VARIABLE = "WEATHER_CACHE_TTL_SECONDS";
+    private static final String CACHE_TTL_PROPERTY = "cache.ttl.seconds";
+    private static final String CACHE_FILE_ENV_VARIABLE = "WEATHER_CACHE_FILE";
+    private static final String CACHE_FILE_PROPERTY = "cache.file";
+    private static final String CACHE_MAX_ENTRIES_ENV_VARIABLE = "WEATHER_CACHE_MAX_ENTRIES";
+    private static final String CACHE_MAX_ENTRIES_PROPERTY = "cache.max.entries";
+    private static final String MAX_CONCURRENCY_ENV_VARIABLE = "WEATHER_MAX_CONCURRENCY";
+    private static final String MAX_CONCURRENCY_PROPERTY = "lookup.max.concurrency";
+
+    private final String apiKey;
+    private final List<String> apiKeys;
+    private final String apiBaseUrl;
+    private final List<String> apiBaseUrls;
+    private final int requestsPerMinute;
+    private final Duration rateLimitMaxWait;
+    private final Duration httpConnectTimeout;
+    private final Duration httpRequestTimeout;
+    private final HttpClient.Version httpVersion;
+    private final int httpExecutorThreads;
+    private final Duration httpKeepAlive;
+    private final int httpConnectionPoolSize;
+    private final int serverThreads;
+    private final boolean virtualThreads;
+    private final Path historyFile;
+    private final Duration cacheTtl;
+    private final int cacheMaxEntries;
+    private final Path cacheFile;
+    private final int maxConcurrency;
+
+    private WeatherConfig(Function<String, String> environment, Properties properties) {
+        Settings settings = new Settings(environment, properties);
+        this.apiKey = settings.get(API_KEY_ENV_VARIABLE, API_KEY_PROPERTY);
+        List<String> keys = splitList(settings.get(API_KEYS_ENV_VARIABLE, API_KEYS_PROPERTY));
+        this.apiKeys = !keys.isEmpty() ? Collections.unmodifiableList(keys)
+                : apiKey != null ? Collections.singletonList(apiKey) : Collections.emptyList();
+        String url = settings.get(API_URL_ENV_VARIABLE, API_URL_PROPERTY);
+        this.apiBaseUrl = url != null ? url : DEFAULT_API_URL;
+        List<String> urls = splitList(settings.get(API_URLS_ENV_VARIABLE, API_URLS_PROPERTY));
+        this.apiBaseUrls = !urls.isEmpty() ? Collections.unmodifiableList(urls)
+                : Collections.singletonList(apiBaseUrl);
+        this.requestsPerMinute = (int) settings.getLong(REQUESTS_PER_MINUTE_ENV_VARIABLE, REQUESTS_PER_MINUTE_PROPERTY,
+                DEFAULT_REQUESTS_PER_MINUTE, 1);
+        this.rateLimitMaxWait = Duration.ofMillis(settings.getLong(RATE_LIMIT_MAX_WAIT_ENV_VARIABLE,
+                RATE_LIMIT_MAX_WAIT_PROPERTY, DEFAULT_RATE_LIMIT_MAX_WAIT_MS, 0));
+        this.httpConnectTimeout = Duration.ofMillis(settings.getLong(HTTP_CONNECT_TIMEOUT_ENV_VARIABLE,
+                HTTP_CONNECT_TIMEOUT_PROPERTY, DEFAULT_HTTP_CONNECT_TIMEOUT_MS, 1));
+        this.httpRequestTimeout = Duration.ofMillis(settings.getLong(HTTP_REQUEST_TIMEOUT_ENV_VARIABLE,
+                HTTP_REQUEST_TIMEOUT_PROPERTY, DEFAULT_HTTP_REQUEST_TIMEOUT_MS, 1));
+        this.httpVersion = parseHttpVersion(settings.get(HTTP_VERSION_ENV_VARIABLE, HTTP_VERSION_PROPERTY));
+        this.httpExecutorThreads = (int) settings.getLong(HTTP_EXECUTOR_THREADS_ENV_VARIABLE,
+                HTTP_EXECUTOR_THREADS_PROPERTY, Math.max(2, Runtime.getRuntime().availableProcessors()), 1);
+        this.httpKeepAlive = Duration.ofSeconds(settings.getLong(HTTP_KEEPALIVE_ENV_VARIABLE, HTTP_KEEPALIVE_PROPERTY,
+                DEFAULT_HTTP_KEEPALIVE_SECONDS, 1));
+        this.httpConnectionPoolSize = (int) settings.getLong(HTTP_POOL_SIZE_ENV_VARIABLE, HTTP_POOL_SIZE_PROPERTY,
+                0, 0);
+        this.serverThreads = (int) settings.getLong(SERVER_THREADS_ENV_VARIABLE, SERVER_THREADS_PROPERTY,
+                DEFAULT_SERVER_THREADS, 1);
+        this.virtualThreads = Boolean.parseBoolean(settings.get(VIRTUAL_THREADS_ENV_VARIABLE,
+                VIRTUAL_THREADS_PROPERTY));
+        String history = settings.get(HISTORY_FILE_ENV_VARIABLE, HISTORY_FILE_PROPERTY);
+        this.historyFile = history == null ? null : Paths.get(history.trim());
+        this.cacheTtl = Duration.ofSeconds(settings.getLong(CACHE_TTL_ENV_VARIABLE, CACHE_TTL_PROPERTY,
+                CachingWeatherApiClient.DEFAULT_TTL.getSeconds(), 1));
+        this.cacheMaxEntries = (int) settings.getLong(CACHE_MAX_ENTRIES_ENV_VARIABLE, CACHE_MAX_ENTRIES_PROPERTY,
+                CachingWeatherApiClient.DEFAULT_MAX_ENTRIES, 1);
+        String persistentCache = settings.get(CACHE_FILE_ENV_VARIABLE, CACHE_FILE_PROPERTY);
+        this.cacheFile = persistentCache == null ? null : Paths.get(persistentCache.trim());
+        this.maxConcurrency = (int) settings.getLong(MAX_CONCURRENCY_ENV_VARIABLE, MAX_CONCURRENCY_PROPERTY,
+                WeatherService.DEFAULT_MAX_CONCURRENCY, 1);
+    }
+
+    /**
+     * Resolves a snapshot, preferring environment variables over properties
+     * @param environment Looks up an environment variable by name, returning null if it is not set
+     * @param properties The properties from the configuration files
+     * @return The resolved configuration
+     */
+    static WeatherConfig resolve(Function<String, String> environment, Properties properties) {
+        return new WeatherConfig(environment, properties);
+    }
+
+    /**
+     * @return the OpenWeatherMap API key, or null if none is configured
+     */
+    public String getApiKey() {
+        return apiKey;
+    }
+
+    /**
+     * @return the API keys to spread requests over: the comma-separated OPENWEATHERMAP_API_KEYS (property
+     *         api.keys), else the single API key; empty if no key is configured
+     */
+    public List<String> getApiKeys() {
+        return apiKeys;
+    }
+
+    /**
+     * @return the OpenWeatherMap API base URL
+     */
+    public String getApiBaseUrl() {
+        return apiBaseUrl;
+    }
+
+    /**
+     * @return the API base URLs to spread requests over: the comma-separated OPENWEATHERMAP_API_URLS
+     *         (property api.base.urls), else the single base URL
+     */
+    public List<String> getApiBaseUrls() {
+        return apiBaseUrls;
+    }
+
+    /**
+     * @return the maximum number of API requests per minute
+     */
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    /**
+     * @return how long a request may queue for the rate limiter; zero means requests over budget fail immediately
+     */
+    public Duration getRateLimitMaxWait() {
+        return rateLimitMaxWait;
+    }
+
+    /**
+     * @return the timeout for establishing HTTP connections
+     */
+    public Duration getHttpConnectTimeout() {
+        return httpConnectTimeout;
+    }
+
+    /**
+     * @return the timeout for a complete HTTP request
+     */
+    public Duration getHttpRequestTimeout() {
+        return httpRequestTimeout;
+    }
+
+    /**
+     * @return the preferred HTTP protocol version, HTTP_2 unless HTTP_1_1 is configured
+     */
+    public HttpClient.Version getHttpVersion() {
+        return httpVersion;
+    }
+
+    /**
+     * @return the number of threads the HTTP client uses for asynchronous work
+     */
+    public int getHttpExecutorThreads() {
+        return httpExecutorThreads;
+    }
+
+    /**
+     * @return how long idle connections are kept open for reuse
+     */
+    public Duration getHttpKeepAlive() {
+        return httpKeepAlive;
+    }
+
+    /**
+     * @return the maximum number of idle connections kept for reuse, where 0 means unbounded
+     */
+    public int getHttpConnectionPoolSize() {
+        return httpConnectionPoolSize;
+    }
+
+    /**
+     * @return the number of request handler threads for server mode
+     */
+    public int getServerThreads() {
+        return serverThreads;
+    }
+
+    /**
+     * @return true if lookups and request handling should run on virtual threads (Java 21+)
+     */
+    public boolean useVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return the file that fetched observations are recorded in, or null if recording is disabled
+     */
+    public Path getHistoryFile() {
+        return historyFile;
+    }
+
+    /**
+     * @return how long lookups are cached in server mode (WEATHER_CACHE_TTL_SECONDS, property cache.ttl.seconds)
+     */
+    public Duration getCacheTtl() {
+        return cacheTtl;
+    }
+
+    /**
+     * @return how many cities are cached in server mode (WEATHER_CACHE_MAX_ENTRIES, property cache.max.entries)
+     */
+    public int getCacheMaxEntries() {
+        return cacheMaxEntries;
+    }
+
+    /**
+     * @return the file lookups are persisted in so a restarted process starts warm (WEATHER_CACHE_FILE,
+     *         property cache.file), or null if persistence is disabled (the default)
+     */
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+
+    /**
+     * @return how many lookups of a bulk request run at a time (WEATHER_MAX_CONCURRENCY,
+     *         property lookup.max.concurrency)
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    private static HttpClient.Version parseHttpVersion(String value) {
+        if (value == null) {
+            return HttpClient.Version.HTTP_2;
+        }
+        try {
+            return HttpClient.Version.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.WARNING, "Ignoring invalid value {0} for {1}, using HTTP_2",
+                    new Object[]{value, HTTP_VERSION_PROPERTY});
+            return HttpClient.Version.HTTP_2;
+        }
+    }
+
+    // Splits a comma-separated setting into its trimmed, non-empty, distinct entries
+    private static List<String> splitList(String value) {
+        List<String> entries = new ArrayList<>();
+        if (value == null) {
+            return entries;
+        }
+        for (String entry : value.split(",")) {
+            String trimmed = entry.trim();
+            if (!trimmed.isEmpty() && !entries.contains(trimmed)) {
+                entries.add(trimmed);
+            }
+        }
+        return entries;
+    }
+
+    // Looks up raw settings while a snapshot is being resolved
+    private static final class Settings {
+        private final Function<String, String> environment;
+        private final Properties properties;
+
+        private Settings(Function<String, String> environment, Properties properties) {
+            this.environment = environment;
+            this.properties = properties;
+        }
+
+        // Reads a setting, preferring the environment variable over the properties; null if neither has it
+        private String get(String envVariable, String property) {
+            String value = environment.apply(envVariable);
+            if (value == null || value.trim().isEmpty()) {
+                value = properties.getProperty(property);
+            }
+            return value == null || value.trim().isEmpty() ? null : value;
+        }
+
+        // Reads a numeric setting of at least minValue
+        private long getLong(String envVariable, String property, long defaultValue, long minValue) {
+            String value = get(envVariable, property);
+            if (value == null) {
+                return defaultValue;
+            }
+
+            try {
+                long parsed = Long.parseLong(value.trim());
+                if (parsed >= minValue && parsed <= Integer.MAX_VALUE) {
+                    return parsed;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through to the warning below
+            }
+            LOGGER.log(Level.WARNING, "Ignoring invalid value {0} for {1}, using default {2}",
+                    new Object[]{value, property, defaultValue});
+            return defaultValue;
+        }
+    }
+}
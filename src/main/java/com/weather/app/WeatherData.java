@@ -7,11 +7,17 @@ public class WeatherData {
     private final String city;
     private final double temperatureCelsius;
     private final String description;
+    private final boolean stale;
 
     public WeatherData(String city, double temperatureCelsius, String description) {
+        this(city, temperatureCelsius, description, false);
+    }
+
+    private WeatherData(String city, double temperatureCelsius, String description, boolean stale) {
         this.city = city;
         this.temperatureCelsius = temperatureCelsius;
         this.description = description;
+        this.stale = stale;
     }
 
     public String getCity() {
@@ -26,13 +32,28 @@ public class WeatherData {
         return description;
     }
 
+    /**
+     * @return true if this is the last known observation, served because fresh data could not be fetched
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @return A copy of this observation flagged as stale
+     */
+    public WeatherData asStale() {
+        return stale ? this : new WeatherData(city, temperatureCelsius, description, true);
+    }
+
     
 
     @Override
     public String toString() {
         return String.format("Weather for %s:%n" +
                 "Temperature: %.1f°C%n" +
-                "Conditions: %s", 
-                city, temperatureCelsius, description);
+                "Conditions: %s%s", 
+                city, temperatureCelsius, description,
+                stale ? String.format("%n(last known data, may be out of date)") : "");
     }
 }
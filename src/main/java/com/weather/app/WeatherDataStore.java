@@ -0,0 +1,292 @@
+package com.weather.app;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only, column-oriented store for large numbers of timestamped WeatherData snapshots.
+ * Each column is a primitive array: timestamps as epoch milliseconds, temperatures as doubles, and city
+ * and description as int codes into dictionaries that hold every distinct string once. A snapshot costs
+ * about 28 bytes of heap instead of a WeatherData object with its own strings, and scans visit rows
+ * without allocating.
+ * <p>
+ * Cities are grouped by their canonical key, so "London" and " london " share one code, as do an alias
+ * such as "NYC" and "New York", and are reported under the spelling first appended. All methods are
+ * synchronized; visitors run while the store is locked and must not call back into it from another thread.
+ */
+public class WeatherDataStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private long[] timestamps;
+    private double[] temperatures;
+    private int[] cityCodes;
+    private int[] descriptionCodes;
+    private int size;
+    // True while timestamps have been appended in non-decreasing order, which lets range scans binary search
+    private boolean sortedByTime = true;
+
+    private final Map<String, Integer> cityCodesByKey = new HashMap<>();
+    private final List<String> cityNames = new ArrayList<>();
+    private final Map<String, Integer> descriptionCodesByText = new HashMap<>();
+    private final List<String> descriptions = new ArrayList<>();
+    // Row numbers of each city's snapshots, indexed by city code, so per-city lookups skip other rows
+    private int[][] rowsByCity = new int[16][];
+    private int[] rowCountsByCity = new int[16];
+
+    public WeatherDataStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a store sized for the given number of snapshots; it grows as needed
+     * @param initialCapacity The number of snapshots to allocate room for up front
+     */
+    public WeatherDataStore(int initialCapacity) {
+        if (initialCapacity < 1) {
+            throw new IllegalArgumentException("Initial capacity must be at least 1");
+        }
+        timestamps = new long[initialCapacity];
+        temperatures = new double[initialCapacity];
+        cityCodes = new int[initialCapacity];
+        descriptionCodes = new int[initialCapacity];
+    }
+
+    /**
+     * Appends a snapshot
+     * @param weatherData The observation
+     * @param timestampMillis When it was observed, in epoch milliseconds
+     * @return The row number of the new snapshot
+     */
+    public synchronized int append(WeatherData weatherData, long timestampMillis) {
+        if (weatherData == null) {
+            throw new IllegalArgumentException("Weather data cannot be null");
+        }
+        String cityKey = CityResolver.shared().key(weatherData.getCity());
+        if (cityKey.isEmpty()) {
+            throw new IllegalArgumentException("City name cannot be empty");
+        }
+        if (size == timestamps.length) {
+            grow();
+        }
+
+        int row = size;
+        int cityCode = cityCode(cityKey, weatherData.getCity());
+        timestamps[row] = timestampMillis;
+        temperatures[row] = weatherData.getTemperatureCelsius();
+        cityCodes[row] = cityCode;
+        descriptionCodes[row] = descriptionCode(weatherData.getDescription());
+        addCityRow(cityCode, row);
+        if (row > 0 && timestampMillis < timestamps[row - 1]) {
+            sortedByTime = false;
+        }
+        size++;
+        return row;
+    }
+
+    /**
+     * @return The number of snapshots stored
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of distinct cities stored
+     */
+    public synchronized int cityCount() {
+        return cityNames.size();
+    }
+
+    /**
+     * @return The number of distinct descriptions stored
+     */
+    public synchronized int descriptionCount() {
+        return descriptions.size();
+    }
+
+    /**
+     * Materializes a snapshot as a WeatherData object
+     * @param row The row number returned by {@link #append}
+     * @return The stored observation
+     */
+    public synchronized WeatherData get(int row) {
+        checkRow(row);
+        return new WeatherData(cityNames.get(cityCodes[row]), temperatures[row],
+                descriptions.get(descriptionCodes[row]));
+    }
+
+    /**
+     * @param row The row number returned by {@link #append}
+     * @return When the snapshot was observed, in epoch milliseconds
+     */
+    public synchronized long getTimestamp(int row) {
+        checkRow(row);
+        return timestamps[row];
+    }
+
+    /**
+     * Visits every snapshot observed in a time range, in row order
+     * @param fromMillis The start of the range in epoch milliseconds, inclusive
+     * @param toMillis The end of the range in epoch milliseconds, exclusive
+     * @param visitor Receives each matching snapshot
+     */
+    public synchronized void scan(long fromMillis, long toMillis, Visitor visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null");
+        }
+        if (sortedByTime) {
+            for (int row = firstRowAtOrAfter(fromMillis); row < size && timestamps[row] < toMillis; row++) {
+                visit(row, visitor);
+            }
+            return;
+        }
+        for (int row = 0; row < size; row++) {
+            if (timestamps[row] >= fromMillis && timestamps[row] < toMillis) {
+                visit(row, visitor);
+            }
+        }
+    }
+
+    /**
+     * Visits every snapshot of one city, in row order
+     * @param city The city name in any case or spacing, or one of its aliases
+     * @param visitor Receives each snapshot of the city
+     * @return The number of snapshots visited, 0 if the city has never been stored
+     */
+    public synchronized int scanCity(String city, Visitor visitor) {
+        if (visitor == null) {
+            throw new IllegalArgumentException("Visitor cannot be null");
+        }
+        Integer cityCode = cityCodesByKey.get(CityResolver.shared().key(city));
+        if (cityCode == null) {
+            return 0;
+        }
+        int[] rows = rowsByCity[cityCode];
+        int count = rowCountsByCity[cityCode];
+        for (int i = 0; i < count; i++) {
+            visit(rows[i], visitor);
+        }
+        return count;
+    }
+
+    /**
+     * Captures the current rows for bulk processing such as WeatherAggregator. Rows are never changed
+     * once appended, so the returned arrays can be read without the lock up to the captured size.
+     * @return The column arrays and dictionaries as of this call
+     */
+    synchronized Columns columns() {
+        return new Columns(size, timestamps, temperatures, cityCodes, descriptionCodes,
+                new ArrayList<>(cityNames), new ArrayList<>(descriptions));
+    }
+
+    private void visit(int row, Visitor visitor) {
+        visitor.visit(timestamps[row], cityNames.get(cityCodes[row]), temperatures[row],
+                descriptions.get(descriptionCodes[row]));
+    }
+
+    private int firstRowAtOrAfter(long timestampMillis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[mid] < timestampMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int cityCode(String cityKey, String city) {
+        Integer code = cityCodesByKey.get(cityKey);
+        if (code != null) {
+            return code;
+        }
+        int newCode = cityNames.size();
+        cityNames.add(city);
+        cityCodesByKey.put(cityKey, newCode);
+        if (newCode == rowsByCity.length) {
+            rowsByCity = Arrays.copyOf(rowsByCity, newCode * 2);
+            rowCountsByCity = Arrays.copyOf(rowCountsByCity, newCode * 2);
+        }
+        rowsByCity[newCode] = new int[8];
+        return newCode;
+    }
+
+    private int descriptionCode(String description) {
+        Integer code = descriptionCodesByText.get(description);
+        if (code != null) {
+            return code;
+        }
+        int newCode = descriptions.size();
+        descriptions.add(description);
+        descriptionCodesByText.put(description, newCode);
+        return newCode;
+    }
+
+    private void addCityRow(int cityCode, int row) {
+        int count = rowCountsByCity[cityCode];
+        if (count == rowsByCity[cityCode].length) {
+            rowsByCity[cityCode] = Arrays.copyOf(rowsByCity[cityCode], count * 2);
+        }
+        rowsByCity[cityCode][count] = row;
+        rowCountsByCity[cityCode] = count + 1;
+    }
+
+    private void grow() {
+        int capacity = timestamps.length * 2;
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        temperatures = Arrays.copyOf(temperatures, capacity);
+        cityCodes = Arrays.copyOf(cityCodes, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside 0.." + (size - 1));
+        }
+    }
+
+    /**
+     * Read-only view of the columns; only the first {@code size} entries of each array are valid
+     */
+    static final class Columns {
+        final int size;
+        final long[] timestamps;
+        final double[] temperatures;
+        final int[] cityCodes;
+        final int[] descriptionCodes;
+        final List<String> cityNames;
+        final List<String> descriptions;
+
+        private Columns(int size, long[] timestamps, double[] temperatures, int[] cityCodes,
+                int[] descriptionCodes, List<String> cityNames, List<String> descriptions) {
+            this.size = size;
+            this.timestamps = timestamps;
+            this.temperatures = temperatures;
+            this.cityCodes = cityCodes;
+            this.descriptionCodes = descriptionCodes;
+            this.cityNames = cityNames;
+            this.descriptions = descriptions;
+        }
+    }
+
+    /**
+     * Receives snapshots from a scan without a WeatherData object being created for each one
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Called once per matching snapshot
+         * @param timestampMillis When the snapshot was observed, in epoch milliseconds
+         * @param city The city name
+         * @param temperatureCelsius The temperature in degrees Celsius
+         * @param description The weather description
+         */
+        void visit(long timestampMillis, String city, double temperatureCelsius, String description);
+    }
+}
@@ -0,0 +1,424 @@
+package com.weather.app;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Pull parser for OpenWeatherMap current-weather responses.
+ * Reads the raw UTF-8 response bytes in a single pass, extracts only {@code name},
+ * {@code main.temp} and {@code weather[0].description} and skips every other value
+ * without building an object tree or decoding strings it does not need.
+ * Group responses, which hold one such object with its {@code id} per city in {@code list}, are read
+ * the same way.
+ */
+final class WeatherJsonParser {
+    private static final byte[] NAME_KEY = ascii("name");
+    private static final byte[] MAIN_KEY = ascii("main");
+    private static final byte[] TEMP_KEY = ascii("temp");
+    private static final byte[] WEATHER_KEY = ascii("weather");
+    private static final byte[] DESCRIPTION_KEY = ascii("description");
+    private static final byte[] ID_KEY = ascii("id");
+    private static final byte[] LIST_KEY = ascii("list");
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] json;
+    private int pos;
+    private String cityName;
+    private double temperature;
+    private boolean hasTemperature;
+    private String description;
+    private long id;
+    private boolean hasId;
+
+    private WeatherJsonParser(byte[] json) {
+        this.json = json;
+    }
+
+    /**
+     * Parses a current-weather response
+     * @param json The UTF-8 encoded response body
+     * @return The weather data described by the response
+     * @throws WeatherApiException if the body is not valid JSON or lacks a required field
+     */
+    static WeatherData parse(byte[] json) throws WeatherApiException {
+        try {
+            return new WeatherJsonParser(json).readWeather();
+        } catch (RuntimeException e) {
+            throw new WeatherApiException("Error parsing weather data", e);
+        }
+    }
+
+    /**
+     * Parses a group response
+     * @param json The UTF-8 encoded response body
+     * @return The weather data of each city in the response, keyed by its OpenWeatherMap ID
+     * @throws WeatherApiException if the body is not valid JSON or an entry lacks a required field
+     */
+    static Map<Long, WeatherData> parseGroup(byte[] json) throws WeatherApiException {
+        try {
+            return new WeatherJsonParser(json).readGroup();
+        } catch (RuntimeException e) {
+            throw new WeatherApiException("Error parsing weather data", e);
+        }
+    }
+
+    private WeatherData readWeather() {
+        WeatherData weatherData = readCity(0);
+        expectEnd();
+        return weatherData;
+    }
+
+    private Map<Long, WeatherData> readGroup() {
+        Map<Long, WeatherData> weatherById = new HashMap<>();
+        boolean hasList = false;
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                int keyStart = readKey();
+                if (keyEquals(keyStart, LIST_KEY)) {
+                    readList(weatherById);
+                    hasList = true;
+                } else {
+                    skipValue(0);
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+        expectEnd();
+
+        if (!hasList) {
+            throw new IllegalStateException("Response is missing list");
+        }
+        return weatherById;
+    }
+
+    private void readList(Map<Long, WeatherData> weatherById) {
+        expect('[');
+        if (tryConsume(']')) {
+            return;
+        }
+        do {
+            WeatherData weatherData = readCity(1);
+            if (!hasId) {
+                throw new IllegalStateException("Group entry is missing id");
+            }
+            weatherById.put(id, weatherData);
+        } while (tryConsume(','));
+        expect(']');
+    }
+
+    // Reads one current-weather object, forgetting the fields of any object read before it
+    private WeatherData readCity(int depth) {
+        cityName = null;
+        hasTemperature = false;
+        description = null;
+        hasId = false;
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                int keyStart = readKey();
+                if (keyEquals(keyStart, NAME_KEY)) {
+                    cityName = readString();
+                } else if (keyEquals(keyStart, MAIN_KEY)) {
+                    readMain(depth + 1);
+                } else if (keyEquals(keyStart, WEATHER_KEY)) {
+                    readFirstWeather(depth + 1);
+                } else if (keyEquals(keyStart, ID_KEY)) {
+                    id = readLong();
+                    hasId = true;
+                } else {
+                    skipValue(depth);
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+
+        if (cityName == null || !hasTemperature || description == null) {
+            throw new IllegalStateException("Response is missing name, main.temp or weather[0].description");
+        }
+        return new WeatherData(cityName, temperature, description);
+    }
+
+    private void readMain(int depth) {
+        expect('{');
+        if (tryConsume('}')) {
+            return;
+        }
+        do {
+            int keyStart = readKey();
+            if (keyEquals(keyStart, TEMP_KEY)) {
+                temperature = readNumber();
+                hasTemperature = true;
+            } else {
+                skipValue(depth);
+            }
+        } while (tryConsume(','));
+        expect('}');
+    }
+
+    private void readFirstWeather(int depth) {
+        expect('[');
+        if (tryConsume(']')) {
+            return;
+        }
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                int keyStart = readKey();
+                if (keyEquals(keyStart, DESCRIPTION_KEY)) {
+                    description = readString();
+                } else {
+                    skipValue(depth + 1);
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+        while (tryConsume(',')) {
+            skipValue(depth);
+        }
+        expect(']');
+    }
+
+    // Reads an object key and the following colon, returning the offset of the key's opening quote
+    private int readKey() {
+        skipWhitespace();
+        int keyStart = pos;
+        skipString();
+        expect(':');
+        return keyStart;
+    }
+
+    private boolean keyEquals(int quotePos, byte[] key) {
+        int start = quotePos + 1;
+        int end = start + key.length;
+        if (end >= json.length || json[end] != '"') {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (json[start + i] != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void skipValue(int depth) {
+        if (depth > MAX_DEPTH) {
+            throw error("Nesting too deep");
+        }
+        skipWhitespace();
+        byte b = peek();
+        if (b == '"') {
+            skipString();
+        } else if (b == '{') {
+            pos++;
+            if (!tryConsume('}')) {
+                do {
+                    readKey();
+                    skipValue(depth + 1);
+                } while (tryConsume(','));
+                expect('}');
+            }
+        } else if (b == '[') {
+            pos++;
+            if (!tryConsume(']')) {
+                do {
+                    skipValue(depth + 1);
+                } while (tryConsume(','));
+                expect(']');
+            }
+        } else if (b == 't') {
+            skipLiteral("true");
+        } else if (b == 'f') {
+            skipLiteral("false");
+        } else if (b == 'n') {
+            skipLiteral("null");
+        } else {
+            skipNumber();
+        }
+    }
+
+    private void skipString() {
+        expectRaw('"');
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                return;
+            }
+            if (b == '\\') {
+                next();
+            } else if ((b & 0xFF) < 0x20) {
+                throw error("Control character in string");
+            }
+        }
+    }
+
+    private String readString() {
+        skipWhitespace();
+        expectRaw('"');
+        int start = pos;
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                return new String(json, start, pos - 1 - start, StandardCharsets.UTF_8);
+            }
+            if (b == '\\') {
+                pos = start;
+                return readEscapedString();
+            }
+            if ((b & 0xFF) < 0x20) {
+                throw error("Control character in string");
+            }
+        }
+    }
+
+    private String readEscapedString() {
+        StringBuilder builder = new StringBuilder();
+        int runStart = pos;
+        while (true) {
+            byte b = next();
+            if (b == '"') {
+                builder.append(new String(json, runStart, pos - 1 - runStart, StandardCharsets.UTF_8));
+                return builder.toString();
+            }
+            if (b == '\\') {
+                builder.append(new String(json, runStart, pos - 1 - runStart, StandardCharsets.UTF_8));
+                builder.append(readEscape());
+                runStart = pos;
+            } else if ((b & 0xFF) < 0x20) {
+                throw error("Control character in string");
+            }
+        }
+    }
+
+    private char readEscape() {
+        byte b = next();
+        switch (b) {
+            case '"':
+                return '"';
+            case '\\':
+                return '\\';
+            case '/':
+                return '/';
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    code = (code << 4) | digit;
+                }
+                return (char) code;
+            default:
+                throw error("Invalid escape sequence");
+        }
+    }
+
+    private double readNumber() {
+        skipWhitespace();
+        int start = pos;
+        skipNumber();
+        return Double.parseDouble(new String(json, start, pos - start, StandardCharsets.US_ASCII));
+    }
+
+    private long readLong() {
+        skipWhitespace();
+        int start = pos;
+        skipNumber();
+        return Long.parseLong(new String(json, start, pos - start, StandardCharsets.US_ASCII));
+    }
+
+    private void skipNumber() {
+        int start = pos;
+        while (pos < json.length) {
+            byte b = json[pos];
+            if ((b >= '0' && b <= '9') || b == '-' || b == '+' || b == '.' || b == 'e' || b == 'E') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        if (start == pos) {
+            throw error("Expected a value");
+        }
+    }
+
+    private void skipLiteral(String literal) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (next() != literal.charAt(i)) {
+                throw error("Invalid literal");
+            }
+        }
+    }
+
+    private void expectEnd() {
+        skipWhitespace();
+        if (pos != json.length) {
+            throw error("Unexpected trailing content");
+        }
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        expectRaw(expected);
+    }
+
+    private void expectRaw(char expected) {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private boolean tryConsume(char expected) {
+        skipWhitespace();
+        if (pos < json.length && json[pos] == expected) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length) {
+            byte b = json[pos];
+            if (b == ' ' || b == '\n' || b == '\r' || b == '\t') {
+                pos++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private byte peek() {
+        if (pos >= json.length) {
+            throw error("Unexpected end of input");
+        }
+        return json[pos];
+    }
+
+    private byte next() {
+        byte b = peek();
+        pos++;
+        return b;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at offset " + pos);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,77 @@
+package com.weather.app;
+
+/**
+ * Receives measurements from the weather client and service hot paths.
+ * Implementations are called on every request and must be thread-safe and cheap;
+ * {@link #noop()} is used wherever no metrics have been configured.
+ */
+public interface WeatherMetrics {
+
+    /**
+     * Records a completed HTTP request to the weather API
+     * @param latencyNanos Time from sending the request until the response was received
+     * @param statusCode The HTTP status code of the response
+     */
+    void recordApiRequest(long latencyNanos, int statusCode);
+
+    /**
+     * Records the time taken to parse a response body
+     * @param nanos The parse time in nanoseconds
+     */
+    void recordParse(long nanos);
+
+    /**
+     * Records a lookup against an in-memory cache
+     * @param hit Whether the lookup was served from the cache
+     */
+    void recordCacheLookup(boolean hit);
+
+    /**
+     * Records a weather lookup made through the service, successful or not
+     * @param latencyNanos The end-to-end time of the lookup
+     */
+    void recordLookup(long latencyNanos);
+
+    /**
+     * Records a failed lookup
+     * @param error The failure; implementations classify it by the type of its root cause
+     */
+    void recordError(Throwable error);
+
+    /**
+     * @return A WeatherMetrics that discards every measurement
+     */
+    static WeatherMetrics noop() {
+        return NoopWeatherMetrics.INSTANCE;
+    }
+
+    /**
+     * The implementation returned by {@link WeatherMetrics#noop()}
+     */
+    final class NoopWeatherMetrics implements WeatherMetrics {
+        private static final NoopWeatherMetrics INSTANCE = new NoopWeatherMetrics();
+
+        private NoopWeatherMetrics() {
+        }
+
+        @Override
+        public void recordApiRequest(long latencyNanos, int statusCode) {
+        }
+
+        @Override
+        public void recordParse(long nanos) {
+        }
+
+        @Override
+        public void recordCacheLookup(boolean hit) {
+        }
+
+        @Override
+        public void recordLookup(long latencyNanos) {
+        }
+
+        @Override
+        public void recordError(Throwable error) {
+        }
+    }
+}
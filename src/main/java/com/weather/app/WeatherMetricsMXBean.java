@@ -0,0 +1,59 @@
+package com.weather.app;
+
+import java.util.Map;
+
+/**
+ * JMX view of InMemoryWeatherMetrics, registered as {@value InMemoryWeatherMetrics#OBJECT_NAME}
+ */
+public interface WeatherMetricsMXBean {
+
+    /**
+     * @return The number of HTTP requests sent to the weather API
+     */
+    long getApiRequestCount();
+
+    /**
+     * @return The median API request latency in milliseconds
+     */
+    double getApiLatencyP50Millis();
+
+    /**
+     * @return The 95th percentile API request latency in milliseconds
+     */
+    double getApiLatencyP95Millis();
+
+    /**
+     * @return The 99th percentile API request latency in milliseconds
+     */
+    double getApiLatencyP99Millis();
+
+    /**
+     * @return The number of API responses per HTTP status code
+     */
+    Map<Integer, Long> getStatusCodeCounts();
+
+    /**
+     * @return The 95th percentile response parse time in microseconds
+     */
+    double getParseTimeP95Micros();
+
+    /**
+     * @return The fraction of cache lookups served from the cache, or 0 if there were none
+     */
+    double getCacheHitRate();
+
+    /**
+     * @return The number of lookups made through the service
+     */
+    long getLookupCount();
+
+    /**
+     * @return The 95th percentile end-to-end lookup latency in milliseconds
+     */
+    double getLookupLatencyP95Millis();
+
+    /**
+     * @return The number of failed lookups per root-cause exception type
+     */
+    Map<String, Long> getErrorCounts();
+}
@@ -0,0 +1,444 @@
+package com.weather.app;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only history of fetched observations in a memory-mapped file of fixed-width records,
+ * with min/max/average temperature queries per city over a time window.
+ * <p>
+ * The file is a 16-byte header ({@code [int magic][int version][long recordCount]}) followed by
+ * 24-byte records {@code [long epochMillis][double temperature][int cityCode][int descriptionCode]}.
+ * City and description strings are stored once in a sidecar dictionary file ({@code <file>.dict}) and
+ * referenced by code. The records are mapped in fixed-size segments; for every segment an in-memory
+ * index holds each city's record slots and time range, so a query only touches the segments and
+ * records of the requested city and reads temperatures straight from the mapped buffers.
+ * <p>
+ * Records are written to the page cache as they are appended and survive a crash of the process;
+ * call {@link #flush()} to force them to the storage device.
+ */
+public class WeatherRecorder implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WeatherRecorder.class.getName());
+    private static final int MAGIC = 0x57485331;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int COUNT_OFFSET = 8;
+    static final int RECORD_SIZE = 24;
+    private static final int TEMPERATURE_OFFSET = 8;
+    private static final int CITY_OFFSET = 16;
+    private static final int DESCRIPTION_OFFSET = 20;
+    // 4096 records per segment maps the file in 96 KiB pieces
+    private static final int DEFAULT_SEGMENT_RECORDS = 4096;
+    private static final byte CITY_ENTRY = 'C';
+    private static final byte DESCRIPTION_ENTRY = 'D';
+
+    private final Path file;
+    private final Path dictionaryFile;
+    private final int segmentRecords;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final List<SegmentIndex> segmentIndexes = new ArrayList<>();
+    private final Map<String, Integer> cityCodesByKey = new HashMap<>();
+    private final List<String> cityNames = new ArrayList<>();
+    private final Map<String, Integer> descriptionCodesByText = new HashMap<>();
+    private final List<String> descriptions = new ArrayList<>();
+    private DataOutputStream dictionary;
+    private long recordCount;
+    private boolean closed;
+
+    /**
+     * Opens a history file, creating it if it does not exist
+     * @param file The record file; the dictionary is kept next to it with a {@code .dict} suffix
+     * @throws IOException if the files cannot be read, created or mapped, or the file is not a history file
+     */
+    public WeatherRecorder(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_RECORDS);
+    }
+
+    WeatherRecorder(Path file, int segmentRecords) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("History file cannot be null");
+        }
+        if (segmentRecords < 1) {
+            throw new IllegalArgumentException("Segment size must be at least 1 record");
+        }
+        this.file = file;
+        this.dictionaryFile = file.resolveSibling(file.getFileName() + ".dict");
+        this.segmentRecords = segmentRecords;
+
+        loadDictionary();
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            boolean created = channel.size() == 0;
+            this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                header.putInt(0, MAGIC).putInt(4, VERSION).putLong(COUNT_OFFSET, 0);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a weather history file: " + file);
+            }
+            loadRecords();
+            dictionary = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dictionaryFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        LOGGER.log(Level.CONFIG, "Opened weather history {0} with {1} records for {2} cities",
+                new Object[]{file, recordCount, cityNames.size()});
+    }
+
+    /**
+     * Appends an observation
+     * @param weatherData The observation
+     * @param timestampMillis When it was observed, in epoch milliseconds
+     * @throws IOException if the dictionary cannot be written or the file cannot be extended
+     */
+    public synchronized void record(WeatherData weatherData, long timestampMillis) throws IOException {
+        ensureOpen();
+        if (weatherData == null) {
+            throw new IllegalArgumentException("Weather data cannot be null");
+        }
+        String cityKey = CityResolver.shared().key(weatherData.getCity());
+        if (cityKey.isEmpty()) {
+            throw new IllegalArgumentException("City name cannot be empty");
+        }
+        String description = weatherData.getDescription() != null ? weatherData.getDescription() : "";
+
+        // Dictionary entries reach the file before any record that refers to them
+        int cityCode = cityCode(cityKey, weatherData.getCity());
+        int descriptionCode = descriptionCode(description);
+        dictionary.flush();
+
+        int segment = (int) (recordCount / segmentRecords);
+        int slot = (int) (recordCount % segmentRecords);
+        if (segment == segments.size()) {
+            mapSegment(segment);
+        }
+        MappedByteBuffer buffer = segments.get(segment);
+        int offset = slot * RECORD_SIZE;
+        buffer.putLong(offset, timestampMillis)
+                .putDouble(offset + TEMPERATURE_OFFSET, weatherData.getTemperatureCelsius())
+                .putInt(offset + CITY_OFFSET, cityCode)
+                .putInt(offset + DESCRIPTION_OFFSET, descriptionCode);
+        segmentIndexes.get(segment).add(cityCode, slot, timestampMillis);
+        recordCount++;
+        header.putLong(COUNT_OFFSET, recordCount);
+    }
+
+    /**
+     * Summarizes the temperatures recorded for a city in a time window
+     * @param city The city name in any case or spacing, or one of its aliases
+     * @param fromMillis The start of the window in epoch milliseconds, inclusive
+     * @param toMillis The end of the window in epoch milliseconds, exclusive
+     * @return The summary, or empty if nothing was recorded for the city in the window
+     */
+    public synchronized Optional<TemperatureSummary> summarize(String city, long fromMillis, long toMillis) {
+        ensureOpen();
+        Integer cityCode = cityCodesByKey.get(CityResolver.shared().key(city));
+        if (cityCode == null) {
+            return Optional.empty();
+        }
+
+        long count = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (int segment = 0; segment < segments.size(); segment++) {
+            CityRun run = segmentIndexes.get(segment).runs.get(cityCode);
+            if (run == null || run.maxTimestamp < fromMillis || run.minTimestamp >= toMillis) {
+                continue;
+            }
+            MappedByteBuffer buffer = segments.get(segment);
+            boolean wholeRunInWindow = run.minTimestamp >= fromMillis && run.maxTimestamp < toMillis;
+            for (int i = 0; i < run.count; i++) {
+                int offset = run.slots[i] * RECORD_SIZE;
+                if (!wholeRunInWindow) {
+                    long timestamp = buffer.getLong(offset);
+                    if (timestamp < fromMillis || timestamp >= toMillis) {
+                        continue;
+                    }
+                }
+                double temperature = buffer.getDouble(offset + TEMPERATURE_OFFSET);
+                min = Math.min(min, temperature);
+                max = Math.max(max, temperature);
+                sum += temperature;
+                count++;
+            }
+        }
+        return count == 0 ? Optional.empty()
+                : Optional.of(new TemperatureSummary(cityNames.get(cityCode), count, min, max, sum / count));
+    }
+
+    /**
+     * @return The number of observations recorded
+     */
+    public synchronized long size() {
+        return recordCount;
+    }
+
+    /**
+     * Forces recorded observations and the dictionary to the storage device
+     * @throws IOException if the dictionary cannot be synced
+     */
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        dictionary.flush();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+        try (FileChannel dictionaryChannel = FileChannel.open(dictionaryFile, StandardOpenOption.WRITE)) {
+            dictionaryChannel.force(true);
+        }
+    }
+
+    /**
+     * Flushes and closes the files. The mapped buffers are released once they are garbage collected.
+     * @throws IOException if the files cannot be flushed or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            segments.clear();
+            segmentIndexes.clear();
+            try {
+                dictionary.close();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Weather history " + file + " is closed");
+        }
+    }
+
+    // Reads the dictionary and truncates a tail entry left incomplete by a crash
+    private void loadDictionary() throws IOException {
+        if (!Files.exists(dictionaryFile)) {
+            return;
+        }
+        long validLength = 0;
+        try (InputStream fileStream = Files.newInputStream(dictionaryFile);
+             CountingInputStream counting = new CountingInputStream(new BufferedInputStream(fileStream));
+             DataInputStream in = new DataInputStream(counting)) {
+            while (true) {
+                int kind = in.read();
+                if (kind == -1) {
+                    break;
+                }
+                String value = in.readUTF();
+                if (kind == CITY_ENTRY) {
+                    cityCodesByKey.put(CityResolver.shared().key(value), cityNames.size());
+                    cityNames.add(value);
+                } else if (kind == DESCRIPTION_ENTRY) {
+                    descriptionCodesByText.put(value, descriptions.size());
+                    descriptions.add(value);
+                } else {
+                    break;
+                }
+                validLength = counting.count;
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            // Incomplete last entry; everything before it is kept
+        }
+        if (Files.size(dictionaryFile) > validLength) {
+            LOGGER.log(Level.WARNING, "Discarding incomplete data at the end of {0}", dictionaryFile);
+            try (FileChannel dictionaryChannel = FileChannel.open(dictionaryFile, StandardOpenOption.WRITE)) {
+                dictionaryChannel.truncate(validLength);
+            }
+        }
+    }
+
+    // Maps the existing segments and rebuilds their indexes; stops at the first record whose
+    // dictionary entries were lost, which can only be the tail written just before a crash
+    private void loadRecords() throws IOException {
+        long storedCount = header.getLong(COUNT_OFFSET);
+        long available = Math.max(0, (channel.size() - HEADER_SIZE) / RECORD_SIZE);
+        long count = Math.min(Math.max(0, storedCount), available);
+        long loaded = 0;
+        while (loaded < count) {
+            int segment = (int) (loaded / segmentRecords);
+            int slot = (int) (loaded % segmentRecords);
+            if (segment == segments.size()) {
+                mapSegment(segment);
+            }
+            MappedByteBuffer buffer = segments.get(segment);
+            int offset = slot * RECORD_SIZE;
+            int cityCode = buffer.getInt(offset + CITY_OFFSET);
+            int descriptionCode = buffer.getInt(offset + DESCRIPTION_OFFSET);
+            if (cityCode < 0 || cityCode >= cityNames.size()
+                    || descriptionCode < 0 || descriptionCode >= descriptions.size()) {
+                break;
+            }
+            segmentIndexes.get(segment).add(cityCode, slot, buffer.getLong(offset));
+            loaded++;
+        }
+        if (loaded != storedCount) {
+            LOGGER.log(Level.WARNING, "Discarding {0} unreadable records at the end of {1}",
+                    new Object[]{storedCount - loaded, file});
+            header.putLong(COUNT_OFFSET, loaded);
+        }
+        recordCount = loaded;
+    }
+
+    private void mapSegment(int segment) throws IOException {
+        long position = HEADER_SIZE + (long) segment * segmentRecords * RECORD_SIZE;
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) segmentRecords * RECORD_SIZE));
+        segmentIndexes.add(new SegmentIndex());
+    }
+
+    private int cityCode(String cityKey, String city) throws IOException {
+        Integer code = cityCodesByKey.get(cityKey);
+        if (code != null) {
+            return code;
+        }
+        dictionary.writeByte(CITY_ENTRY);
+        dictionary.writeUTF(city);
+        int newCode = cityNames.size();
+        cityNames.add(city);
+        cityCodesByKey.put(cityKey, newCode);
+        return newCode;
+    }
+
+    private int descriptionCode(String description) throws IOException {
+        Integer code = descriptionCodesByText.get(description);
+        if (code != null) {
+            return code;
+        }
+        dictionary.writeByte(DESCRIPTION_ENTRY);
+        dictionary.writeUTF(description);
+        int newCode = descriptions.size();
+        descriptions.add(description);
+        descriptionCodesByText.put(description, newCode);
+        return newCode;
+    }
+
+    /**
+     * Minimum, maximum and average temperature of one city over a time window
+     */
+    public static final class TemperatureSummary {
+        private final String city;
+        private final long count;
+        private final double min;
+        private final double max;
+        private final double average;
+
+        TemperatureSummary(String city, long count, double min, double max, double average) {
+            this.city = city;
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.average = average;
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMinCelsius() {
+            return min;
+        }
+
+        public double getMaxCelsius() {
+            return max;
+        }
+
+        public double getAverageCelsius() {
+            return average;
+        }
+    }
+
+    // The record slots of every city within one segment
+    private static final class SegmentIndex {
+        private final Map<Integer, CityRun> runs = new HashMap<>();
+
+        private void add(int cityCode, int slot, long timestamp) {
+            runs.computeIfAbsent(cityCode, code -> new CityRun()).add(slot, timestamp);
+        }
+    }
+
+    private static final class CityRun {
+        private int[] slots = new int[8];
+        private int count;
+        private long minTimestamp = Long.MAX_VALUE;
+        private long maxTimestamp = Long.MIN_VALUE;
+
+        private void add(int slot, long timestamp) {
+            if (count == slots.length) {
+                slots = Arrays.copyOf(slots, count * 2);
+            }
+            slots[count++] = slot;
+            minTimestamp = Math.min(minTimestamp, timestamp);
+            maxTimestamp = Math.max(maxTimestamp, timestamp);
+        }
+    }
+
+    // Tracks how many bytes have been consumed so a truncated dictionary can be cut back to its last full entry
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
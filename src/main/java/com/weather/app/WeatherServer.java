@@ -0,0 +1,233 @@
+package com.weather.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves weather lookups over HTTP using the JDK's built-in server, so one long-running JVM and one
+ * WeatherService (with its HTTP connections and caches) answer every query.
+ * <ul>
+ *   <li>{@code GET /weather?city=London} returns the weather for one city</li>
+ *   <li>{@code GET /weather/batch?city=London&city=Paris} returns a JSON array with one result per city,
+ *       each holding either {@code weather} or {@code error}</li>
+ * </ul>
+ * Lookup failures are reported as JSON {@code {"error": "..."}} with a matching status code.
+ * When constructed with metrics, {@code GET /metrics} returns them in the Prometheus text format.
+ */
+public class WeatherServer implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WeatherServer.class.getName());
+    static final int MAX_BATCH_SIZE = 100;
+
+    private final WeatherService weatherService;
+    private final InMemoryWeatherMetrics metrics;
+    private final HttpServer server;
+
+    /**
+     * Creates a server bound to the given address; call {@link #start()} to begin serving
+     * @param weatherService The service that performs lookups
+     * @param address The address to listen on; port 0 picks a free port
+     * @param executor The executor that runs request handlers
+     * @throws IOException if the address cannot be bound
+     */
+    public WeatherServer(WeatherService weatherService, InetSocketAddress address, Executor executor)
+            throws IOException {
+        this(weatherService, address, executor, null);
+    }
+
+    /**
+     * Creates a server that also serves the given metrics as text at {@code GET /metrics}
+     * @param weatherService The service that performs lookups
+     * @param address The address to listen on; port 0 picks a free port
+     * @param executor The executor that runs request handlers
+     * @param metrics The metrics to expose, or null to serve no metrics endpoint
+     * @throws IOException if the address cannot be bound
+     */
+    public WeatherServer(WeatherService weatherService, InetSocketAddress address, Executor executor,
+            InMemoryWeatherMetrics metrics) throws IOException {
+        if (weatherService == null || address == null || executor == null) {
+            throw new IllegalArgumentException("Weather service, address and executor cannot be null");
+        }
+        this.weatherService = weatherService;
+        this.metrics = metrics;
+        this.server = HttpServer.create(address, 0);
+        server.setExecutor(executor);
+        server.createContext("/weather", exchange -> handle(exchange, "/weather", this::handleWeather));
+        server.createContext("/weather/batch", exchange -> handle(exchange, "/weather/batch", this::handleBatch));
+        if (metrics != null) {
+            server.createContext("/metrics", exchange -> handle(exchange, "/metrics", this::handleMetrics));
+        }
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start() {
+        server.start();
+        LOGGER.log(Level.INFO, "Weather server listening on port {0}", getPort());
+    }
+
+    /**
+     * @return The port the server is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, giving requests in progress up to a second to finish
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        LOGGER.log(Level.INFO, "Weather server stopped");
+    }
+
+    // Common handling for every endpoint: only exact paths and GET are served, and the exchange is always closed
+    private static void handle(HttpExchange exchange, String path, Handler handler) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(path)) {
+                sendError(exchange, 404, "Not found");
+            } else if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                sendError(exchange, 405, "Method not allowed");
+            } else {
+                handler.handle(exchange);
+            }
+        } catch (BadRequestException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Unexpected error while handling " + exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleWeather(HttpExchange exchange) throws IOException {
+        List<String> cities = queryValues(exchange, "city");
+        if (cities.size() != 1) {
+            sendError(exchange, 400, "Exactly one city parameter is required");
+            return;
+        }
+
+        try {
+            sendJson(exchange, 200, toJson(weatherService.getWeather(cities.get(0))).toString());
+        } catch (WeatherApiException e) {
+            sendError(exchange, statusFor(e), e.getMessage());
+        }
+    }
+
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        List<String> cities = queryValues(exchange, "city");
+        if (cities.isEmpty() || cities.size() > MAX_BATCH_SIZE) {
+            sendError(exchange, 400, "Between 1 and " + MAX_BATCH_SIZE + " city parameters are required");
+            return;
+        }
+
+        JSONArray results = new JSONArray();
+        for (Map.Entry<String, Result<WeatherData>> entry : weatherService.getWeather(cities).entrySet()) {
+            JSONObject result = new JSONObject().put("city", entry.getKey());
+            if (entry.getValue().isSuccess()) {
+                result.put("weather", toJson(entry.getValue().getValue()));
+            } else {
+                WeatherApiException error = entry.getValue().getError();
+                result.put("error", error.getMessage());
+                result.put("status", statusFor(error));
+            }
+            results.put(result);
+        }
+        sendJson(exchange, 200, results.toString());
+    }
+
+    private static List<String> queryValues(HttpExchange exchange, String name) {
+        List<String> values = new ArrayList<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return values;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            String key = equals >= 0 ? parameter.substring(0, equals) : parameter;
+            if (key.equals(name)) {
+                String value = equals >= 0 ? parameter.substring(equals + 1) : "";
+                try {
+                    values.add(URLDecoder.decode(value, StandardCharsets.UTF_8));
+                } catch (IllegalArgumentException e) {
+                    // A malformed escape such as %zz is the client's mistake
+                    throw new BadRequestException("Malformed " + name + " parameter");
+                }
+            }
+        }
+        return values;
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] body = metrics.toText().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Maps a lookup failure to the status code this server reports for it
+    static int statusFor(WeatherApiException e) {
+        int upstreamStatus = e.getStatusCode();
+        if (upstreamStatus == 404 || upstreamStatus == 429 || upstreamStatus == 503) {
+            return upstreamStatus;
+        }
+        if (upstreamStatus != 0 || e.getCause() != null) {
+            // The provider or the network failed, not the request
+            return 502;
+        }
+        return 400;
+    }
+
+    private static JSONObject toJson(WeatherData weatherData) {
+        JSONObject json = new JSONObject()
+                .put("city", weatherData.getCity())
+                .put("temperatureCelsius", weatherData.getTemperatureCelsius())
+                .put("description", weatherData.getDescription());
+        return weatherData.isStale() ? json.put("stale", true) : json;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, new JSONObject().put("error", message).toString());
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    // Thrown while reading a request that cannot be served, answered with 400
+    private static final class BadRequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private BadRequestException(String message) {
+            super(message);
+        }
+    }
+}
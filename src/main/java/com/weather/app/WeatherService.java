@@ -1,18 +1,90 @@
 package com.weather.app;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Service class that acts as an intermediary between the application and the weather API
+ * Service class that acts as an intermediary between the application and the weather API.
+ * Bulk lookups run on one executor owned by the service, which {@link #close()} shuts down.
  */
-public class WeatherService {
+public class WeatherService implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(WeatherService.class.getName());
+    static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final AtomicInteger BULK_THREAD_COUNTER = new AtomicInteger();
+    private static final long BULK_THREAD_KEEP_ALIVE_SECONDS = 60;
+    // Cities per batch when the client supports batches: one OpenWeatherMap group request
+    static final int BATCH_SIZE = OpenWeatherMapClient.MAX_GROUP_SIZE;
+
     private final WeatherApiClient weatherApiClient;
+    private volatile int maxConcurrency;
+    private final boolean virtualThreads;
+    private final WeatherMetrics metrics;
+    private final ExecutorService bulkExecutor;
 
     public WeatherService(WeatherApiClient weatherApiClient) {
+        this(weatherApiClient, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public WeatherService(WeatherApiClient weatherApiClient, int maxConcurrency) {
+        this(weatherApiClient, maxConcurrency, false);
+    }
+
+    /**
+     * Creates a service that can run bulk lookups on virtual threads
+     * @param weatherApiClient The client that performs lookups
+     * @param maxConcurrency The maximum number of lookups a bulk request runs at a time
+     * @param virtualThreads Whether to run each bulk lookup on its own virtual thread instead of a fixed pool;
+     *     ignored with a warning when the JDK does not support virtual threads
+     */
+    public WeatherService(WeatherApiClient weatherApiClient, int maxConcurrency, boolean virtualThreads) {
+        this(weatherApiClient, maxConcurrency, virtualThreads, WeatherMetrics.noop());
+    }
+
+    /**
+     * Creates a service that reports lookup latency and failures to the given metrics
+     * @param weatherApiClient The client that performs lookups
+     * @param maxConcurrency The maximum number of lookups a bulk request runs at a time
+     * @param virtualThreads Whether to run each bulk lookup on its own virtual thread instead of a fixed pool
+     * @param metrics The metrics to record measurements in
+     */
+    public WeatherService(WeatherApiClient weatherApiClient, int maxConcurrency, boolean virtualThreads,
+            WeatherMetrics metrics) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("Metrics cannot be null");
+        }
+        if (virtualThreads && !VirtualThreads.isAvailable()) {
+            LOGGER.log(Level.WARNING, "Virtual threads require Java 21 or later, using platform threads");
+        }
         this.weatherApiClient = weatherApiClient;
-        LOGGER.log(Level.FINE, "WeatherService initialized");
+        this.maxConcurrency = maxConcurrency;
+        this.virtualThreads = virtualThreads && VirtualThreads.isAvailable();
+        this.metrics = metrics;
+        this.bulkExecutor = this.virtualThreads
+                ? VirtualThreads.newThreadPerTaskExecutor()
+                : newBulkExecutor(maxConcurrency);
+        LOGGER.log(Level.FINE, "WeatherService initialized with max concurrency {0}, {1} threads",
+                new Object[]{maxConcurrency, this.virtualThreads ? "virtual" : "platform"});
     }
 
     /**
@@ -24,19 +96,254 @@ public class WeatherService {
     public WeatherData getWeather(String city) throws WeatherApiException {
         LOGGER.log(Level.INFO, "Getting weather data for city: {0}", city);
         
-        if (city == null || city.trim().isEmpty()) {
+        if (CityNames.isBlank(city)) {
             LOGGER.log(Level.WARNING, "City name cannot be empty");
-            throw new WeatherApiException("City name cannot be empty");
+            WeatherApiException e = new WeatherApiException("City name cannot be empty");
+            metrics.recordError(e);
+            throw e;
         }
         
+        long start = System.nanoTime();
         try {
             WeatherData weatherData = weatherApiClient.getWeatherFromApi(city);
-            LOGGER.log(Level.INFO, "Successfully retrieved weather data. Temperature: {0}°C", 
-                    weatherData.getTemperatureCelsius());
+            logSuccess(weatherData);
             return weatherData;
-        } catch (WeatherApiException e) {
-            LOGGER.log(Level.SEVERE, "Error fetching weather data for city: " + city, e);
+        } catch (WeatherApiException | RuntimeException e) {
+            logFailure(city, e);
+            metrics.recordError(e);
             throw e;
+        } finally {
+            metrics.recordLookup(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gets weather data for the specified city without blocking the caller on the API round trip
+     * @param city The name of the city
+     * @return A future completed with the weather information, or completed exceptionally with a
+     *         WeatherApiException if there's an error fetching or parsing the weather data
+     */
+    public CompletableFuture<WeatherData> getWeatherAsync(String city) {
+        LOGGER.log(Level.INFO, "Getting weather data asynchronously for city: {0}", city);
+        
+        if (CityNames.isBlank(city)) {
+            LOGGER.log(Level.WARNING, "City name cannot be empty");
+            WeatherApiException e = new WeatherApiException("City name cannot be empty");
+            metrics.recordError(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        long start = System.nanoTime();
+        return weatherApiClient.getWeatherFromApiAsync(city).whenComplete((weatherData, error) -> {
+            metrics.recordLookup(System.nanoTime() - start);
+            if (error != null) {
+                logFailure(city, Futures.unwrap(error));
+                metrics.recordError(error);
+            } else {
+                logSuccess(weatherData);
+            }
+        });
+    }
+
+    /**
+     * Gets weather data for several cities, running up to the configured number of lookups at a time.
+     * If the client supports batches (see {@link WeatherApiClient#supportsBatch()}), the cities are fetched
+     * {@value #BATCH_SIZE} per lookup instead of one at a time.
+     * A failure for one city is reported in its result and does not affect the others.
+     * @param cities The names of the cities; duplicates are looked up once
+     * @return A map from each distinct city name, in the order given, to the outcome of its lookup
+     */
+    public Map<String, Result<WeatherData>> getWeather(Collection<String> cities) {
+        if (cities == null) {
+            throw new IllegalArgumentException("City collection cannot be null");
+        }
+        Set<String> distinctCities = new LinkedHashSet<>(cities);
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        if (distinctCities.isEmpty()) {
+            return results;
+        }
+        LOGGER.log(Level.INFO, "Getting weather data for {0} cities", distinctCities.size());
+
+        // Each call takes a permit per lookup before submitting it, so one call never has more than
+        // maxConcurrency lookups in flight however many other calls share the executor
+        Semaphore permits = new Semaphore(maxConcurrency);
+        if (weatherApiClient.supportsBatch()) {
+            return getWeatherInBatches(distinctCities, permits);
+        }
+        Map<String, Future<WeatherData>> pending = new LinkedHashMap<>();
+        for (String city : distinctCities) {
+            pending.put(city, submit(() -> getWeather(city), permits));
+        }
+        for (Map.Entry<String, Future<WeatherData>> entry : pending.entrySet()) {
+            results.put(entry.getKey(), awaitResult(entry.getValue()));
+        }
+        return results;
+    }
+
+    /**
+     * Changes how many lookups a bulk request runs at a time. Bulk requests already running keep their limit.
+     * @param maxConcurrency The maximum number of lookups a bulk request runs at a time
+     */
+    public synchronized void setMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be at least 1");
         }
+        if (bulkExecutor instanceof ThreadPoolExecutor) {
+            // The core size may never exceed the maximum, so the order depends on the direction of the change
+            ThreadPoolExecutor pool = (ThreadPoolExecutor) bulkExecutor;
+            if (maxConcurrency > pool.getMaximumPoolSize()) {
+                pool.setMaximumPoolSize(maxConcurrency);
+                pool.setCorePoolSize(maxConcurrency);
+            } else {
+                pool.setCorePoolSize(maxConcurrency);
+                pool.setMaximumPoolSize(maxConcurrency);
+            }
+        }
+        this.maxConcurrency = maxConcurrency;
+        LOGGER.log(Level.CONFIG, "WeatherService max concurrency changed to {0}", maxConcurrency);
+    }
+
+    /**
+     * Shuts down the executor bulk lookups run on; lookups already running are interrupted
+     */
+    @Override
+    public void close() {
+        bulkExecutor.shutdownNow();
+    }
+
+    private Map<String, Result<WeatherData>> getWeatherInBatches(Set<String> cities, Semaphore permits) {
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        Map<List<String>, Future<Map<String, Result<WeatherData>>>> pending = new LinkedHashMap<>();
+        for (String city : cities) {
+            // Reserve every city's place, so results keep the order given
+            results.put(city, null);
+            if (CityNames.isBlank(city)) {
+                WeatherApiException e = new WeatherApiException("City name cannot be empty");
+                metrics.recordError(e);
+                results.put(city, Result.failure(e));
+                continue;
+            }
+            batch.add(city);
+            if (batch.size() == BATCH_SIZE) {
+                List<String> full = batch;
+                pending.put(full, submit(() -> getWeatherBatch(full), permits));
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            List<String> last = batch;
+            pending.put(last, submit(() -> getWeatherBatch(last), permits));
+        }
+        for (Map.Entry<List<String>, Future<Map<String, Result<WeatherData>>>> entry : pending.entrySet()) {
+            results.putAll(awaitBatch(entry.getKey(), entry.getValue()));
+        }
+        return results;
+    }
+
+    private Map<String, Result<WeatherData>> getWeatherBatch(List<String> cities) {
+        LOGGER.log(Level.FINE, "Getting weather data for a batch of {0} cities", cities.size());
+        long start = System.nanoTime();
+        Map<String, Result<WeatherData>> results = weatherApiClient.getWeatherForCities(cities);
+        // Every city in the batch waited for the whole batch
+        long durationNanos = System.nanoTime() - start;
+        for (Map.Entry<String, Result<WeatherData>> entry : results.entrySet()) {
+            metrics.recordLookup(durationNanos);
+            Result<WeatherData> result = entry.getValue();
+            if (result.isSuccess()) {
+                logSuccess(result.getValue());
+            } else {
+                logFailure(entry.getKey(), result.getError());
+                metrics.recordError(result.getError());
+            }
+        }
+        return results;
+    }
+
+    private <T> Future<T> submit(Callable<T> task, Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new WeatherApiException("Weather data fetch was interrupted", e));
+        }
+        try {
+            return bulkExecutor.submit(() -> {
+                try {
+                    return task.call();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(new WeatherApiException("Weather service is closed", e));
+        }
+    }
+
+    // Guarded so the temperature is not boxed and the message not built when the level is disabled
+    private static void logSuccess(WeatherData weatherData) {
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.log(Level.INFO, "Successfully retrieved weather data. Temperature: {0}°C",
+                    weatherData.getTemperatureCelsius());
+        }
+    }
+
+    private static void logFailure(String city, Throwable error) {
+        if (LOGGER.isLoggable(Level.SEVERE)) {
+            LOGGER.log(Level.SEVERE, "Error fetching weather data for city: " + city, error);
+        }
+    }
+
+    private static Result<WeatherData> awaitResult(Future<WeatherData> future) {
+        try {
+            return Result.success(future.get());
+        } catch (ExecutionException e) {
+            return Result.failure(toWeatherApiException(Futures.unwrap(e)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            return Result.failure(new WeatherApiException("Weather data fetch was interrupted", e));
+        }
+    }
+
+    // A batch that could not run at all fails every city in it with the same error
+    private static Map<String, Result<WeatherData>> awaitBatch(List<String> cities,
+            Future<Map<String, Result<WeatherData>>> future) {
+        WeatherApiException error;
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            error = toWeatherApiException(Futures.unwrap(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            error = new WeatherApiException("Weather data fetch was interrupted", e);
+        }
+        Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+        for (String city : cities) {
+            results.put(city, Result.failure(error));
+        }
+        return results;
+    }
+
+    private static WeatherApiException toWeatherApiException(Throwable cause) {
+        if (cause instanceof WeatherApiException) {
+            return (WeatherApiException) cause;
+        }
+        return new WeatherApiException("Unexpected error while fetching weather data", cause);
+    }
+
+    // Threads are started on demand and retire after a minute idle, so a service that never runs a bulk
+    // lookup, like the CLI's, holds no threads
+    private static ExecutorService newBulkExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, BULK_THREAD_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "weather-bulk-" + BULK_THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
     }
 }
@@ -0,0 +1,349 @@
+package com.weather.app;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pushes weather changes to subscribers instead of having them poll WeatherService in a loop.
+ * <p>
+ * {@link #publisher(Collection)} returns a {@link Flow.Publisher} for a set of cities. One shared
+ * scheduler polls the union of the cities of all subscriptions once per interval, looking each city up
+ * once however many subscribers watch it, and publishes a city only when its temperature or description
+ * differs from the last published observation. A new subscriber first receives the last published
+ * observation of each of its cities.
+ * <p>
+ * Backpressure follows the subscriber's demand. Undelivered updates are conflated to the newest one per
+ * city, so a slow subscriber holds at most one pending update per city and always catches up with the
+ * current weather rather than a backlog. Updates are delivered on the delivery executor, one signal at a
+ * time per subscription. Closing the hub completes every subscription and drops undelivered updates.
+ */
+public class WeatherSubscriptionHub implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(WeatherSubscriptionHub.class.getName());
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final WeatherService weatherService;
+    private final Executor deliveryExecutor;
+    private final ScheduledExecutorService ownedScheduler;
+    private final Set<CitySubscription> subscriptions = new CopyOnWriteArraySet<>();
+    // The last observation published for each subscribed city, keyed on the canonical city name
+    private final ConcurrentMap<String, WeatherData> published = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    /**
+     * Creates a hub with its own polling scheduler that delivers updates on the common fork/join pool
+     * @param weatherService The service used to look up subscribed cities
+     * @param pollInterval How often subscribed cities are looked up
+     */
+    public WeatherSubscriptionHub(WeatherService weatherService, Duration pollInterval) {
+        this(weatherService, ForkJoinPool.commonPool(), newScheduler());
+        if (pollInterval == null || pollInterval.isNegative() || pollInterval.isZero()) {
+            ownedScheduler.shutdownNow();
+            throw new IllegalArgumentException("Poll interval must be positive");
+        }
+        ownedScheduler.scheduleWithFixedDelay(this::poll, pollInterval.toNanos(), pollInterval.toNanos(),
+                TimeUnit.NANOSECONDS);
+        LOGGER.log(Level.CONFIG, "WeatherSubscriptionHub initialized with poll interval {0}", pollInterval);
+    }
+
+    /**
+     * Creates a hub; without a scheduler, cities are only looked up when {@link #poll()} is called
+     * @param weatherService The service used to look up subscribed cities
+     * @param deliveryExecutor Runs the delivery of updates to subscribers
+     * @param ownedScheduler Runs polls and is shut down on close, or null
+     */
+    WeatherSubscriptionHub(WeatherService weatherService, Executor deliveryExecutor,
+            ScheduledExecutorService ownedScheduler) {
+        if (weatherService == null || deliveryExecutor == null) {
+            throw new IllegalArgumentException("Weather service and delivery executor cannot be null");
+        }
+        this.weatherService = weatherService;
+        this.deliveryExecutor = deliveryExecutor;
+        this.ownedScheduler = ownedScheduler;
+    }
+
+    /**
+     * Creates a publisher of weather changes for a set of cities. Every subscriber to it gets its own
+     * subscription; nothing is polled for the cities until someone subscribes.
+     * @param cities The names of the cities to watch; spellings of the same city are watched once
+     * @return The publisher
+     */
+    public Flow.Publisher<WeatherData> publisher(Collection<String> cities) {
+        if (cities == null || cities.isEmpty()) {
+            throw new IllegalArgumentException("Cities cannot be null or empty");
+        }
+        Map<String, String> citiesByKey = new LinkedHashMap<>();
+        for (String city : cities) {
+            try {
+                citiesByKey.putIfAbsent(CityResolver.shared().resolve(city).getKey(), city.trim());
+            } catch (WeatherApiException e) {
+                throw new IllegalArgumentException(e.getMessage() + ": " + city, e);
+            }
+        }
+        Map<String, String> watched = Collections.unmodifiableMap(citiesByKey);
+        return subscriber -> subscribe(watched, subscriber);
+    }
+
+    /**
+     * Looks up every subscribed city once and publishes the ones that changed
+     */
+    void poll() {
+        Map<String, String> citiesByKey = new LinkedHashMap<>();
+        for (CitySubscription subscription : subscriptions) {
+            subscription.citiesByKey.forEach(citiesByKey::putIfAbsent);
+        }
+        published.keySet().retainAll(citiesByKey.keySet());
+        poll(citiesByKey);
+    }
+
+    /**
+     * @return The number of active subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Stops polling and completes every subscription
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (ownedScheduler != null) {
+            ownedScheduler.shutdownNow();
+        }
+        for (CitySubscription subscription : subscriptions) {
+            subscription.complete();
+        }
+        subscriptions.clear();
+    }
+
+    private void subscribe(Map<String, String> citiesByKey, Flow.Subscriber<? super WeatherData> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber cannot be null");
+        }
+        CitySubscription subscription = new CitySubscription(citiesByKey, subscriber);
+        if (closed) {
+            subscription.complete();
+            return;
+        }
+        subscriptions.add(subscription);
+        Map<String, String> unknown = new LinkedHashMap<>();
+        citiesByKey.forEach((key, city) -> {
+            WeatherData last = published.get(key);
+            if (last != null) {
+                subscription.offer(key, last);
+            } else {
+                unknown.put(key, city);
+            }
+        });
+        // Starts delivery with onSubscribe, on the delivery executor like every other signal
+        subscription.drain();
+        if (!unknown.isEmpty() && ownedScheduler != null) {
+            // Look up cities nobody watched before now instead of leaving the subscriber waiting a full interval
+            try {
+                ownedScheduler.execute(() -> poll(unknown));
+            } catch (RejectedExecutionException e) {
+                LOGGER.log(Level.FINE, "Initial poll rejected, hub is closed");
+            }
+        }
+    }
+
+    private void poll(Map<String, String> citiesByKey) {
+        if (citiesByKey.isEmpty() || closed) {
+            return;
+        }
+        try {
+            Map<String, Result<WeatherData>> results = weatherService.getWeather(citiesByKey.values());
+            citiesByKey.forEach((key, city) -> {
+                Result<WeatherData> result = results.get(city);
+                if (result != null && result.isSuccess()) {
+                    publish(key, result.getValue());
+                }
+            });
+        } catch (RuntimeException e) {
+            // Never let an exception cancel the periodic task
+            LOGGER.log(Level.WARNING, "Polling subscribed cities failed", e);
+        }
+    }
+
+    private void publish(String key, WeatherData weatherData) {
+        // Last known data served during an outage is not news
+        if (weatherData.isStale()) {
+            return;
+        }
+        WeatherData previous = published.put(key, weatherData);
+        if (previous != null && Double.compare(previous.getTemperatureCelsius(),
+                weatherData.getTemperatureCelsius()) == 0
+                && Objects.equals(previous.getDescription(), weatherData.getDescription())) {
+            return;
+        }
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.log(Level.FINE, "Publishing weather change for city {0}", key);
+        }
+        for (CitySubscription subscription : subscriptions) {
+            if (subscription.citiesByKey.containsKey(key)) {
+                subscription.offer(key, weatherData);
+            }
+        }
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "weather-subscriptions-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // One subscriber's view of the hub. Signals are emitted by a single drain loop at a time, which the
+    // work-in-progress counter hands to whichever thread arrives while the loop is running.
+    private final class CitySubscription implements Flow.Subscription {
+        private final Map<String, String> citiesByKey;
+        private final Flow.Subscriber<? super WeatherData> subscriber;
+        private final AtomicInteger workInProgress = new AtomicInteger();
+        // Guarded by this: the newest undelivered update per city, oldest change first
+        private final LinkedHashMap<String, WeatherData> pending = new LinkedHashMap<>();
+        private long demand;
+        private boolean cancelled;
+        private boolean completed;
+        private Throwable error;
+        // Only touched by the drain loop
+        private boolean started;
+        private boolean terminated;
+
+        private CitySubscription(Map<String, String> citiesByKey, Flow.Subscriber<? super WeatherData> subscriber) {
+            this.citiesByKey = citiesByKey;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (this) {
+                if (n <= 0) {
+                    error = new IllegalArgumentException("Requested " + n + " items, must be positive");
+                } else {
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                pending.clear();
+            }
+            subscriptions.remove(this);
+        }
+
+        private void offer(String key, WeatherData weatherData) {
+            synchronized (this) {
+                if (cancelled || completed) {
+                    return;
+                }
+                pending.remove(key);
+                pending.put(key, weatherData);
+            }
+            drain();
+        }
+
+        private void complete() {
+            synchronized (this) {
+                completed = true;
+                pending.clear();
+            }
+            drain();
+        }
+
+        private void drain() {
+            if (workInProgress.getAndIncrement() != 0) {
+                return;
+            }
+            try {
+                deliveryExecutor.execute(this::drainLoop);
+            } catch (RejectedExecutionException e) {
+                workInProgress.set(0);
+                LOGGER.log(Level.WARNING, "Weather update delivery rejected", e);
+            }
+        }
+
+        private void drainLoop() {
+            int missed = 1;
+            do {
+                try {
+                    emit();
+                } catch (RuntimeException e) {
+                    // A subscriber that throws is considered cancelled
+                    LOGGER.log(Level.WARNING, "Weather subscriber failed, cancelling its subscription", e);
+                    terminated = true;
+                    cancel();
+                }
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            if (terminated) {
+                return;
+            }
+            if (!started) {
+                started = true;
+                subscriber.onSubscribe(this);
+            }
+            while (true) {
+                WeatherData next;
+                Throwable failure;
+                boolean done;
+                synchronized (this) {
+                    if (cancelled) {
+                        terminated = true;
+                        return;
+                    }
+                    failure = error;
+                    done = completed;
+                    next = null;
+                    if (failure == null && !done && demand > 0 && !pending.isEmpty()) {
+                        Iterator<WeatherData> iterator = pending.values().iterator();
+                        next = iterator.next();
+                        iterator.remove();
+                        demand--;
+                    }
+                }
+                if (failure != null || done) {
+                    terminated = true;
+                    cancel();
+                    if (failure != null) {
+                        subscriber.onError(failure);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                    return;
+                }
+                if (next == null) {
+                    return;
+                }
+                subscriber.onNext(next);
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the CachingWeatherApiClient class
+ */
+public class CachingWeatherApiClientTest {
+
+    private WeatherApiClient mockApiClient;
+    private AtomicLong clock;
+    private CachingWeatherApiClient cachingClient;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        clock = new AtomicLong();
+        cachingClient = new CachingWeatherApiClient(mockApiClient, Duration.ofMinutes(5), 2, clock::get);
+    }
+
+    @Test
+    public void testRepeatedLookupIsServedFromCache() throws WeatherApiException {
+        // Arrange
+        WeatherData london = new WeatherData("London", 15.5, "scattered clouds");
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(london);
+
+        // Act
+        WeatherData first = cachingClient.getWeatherFromApi("London");
+        WeatherData second = cachingClient.getWeatherFromApi("London");
+
+        // Assert
+        assertSame(london, first);
+        assertSame(london, second);
+        verify(mockApiClient, times(1)).getWeatherFromApi("London");
+        assertEquals(1, cachingClient.getHitCount());
+        assertEquals(1, cachingClient.getMissCount());
+    }
+
+    @Test
+    public void testCityNameIsNormalizedForCacheKey() throws WeatherApiException {
+        // Arrange
+        WeatherData newYork = new WeatherData("New York", 21.0, "clear sky");
+        when(mockApiClient.getWeatherFromApi("New York")).thenReturn(newYork);
+
+        // Act
+        cachingClient.getWeatherFromApi("New York");
+        WeatherData result = cachingClient.getWeatherFromApi("  new   YORK ");
+
+        // Assert
+        assertSame(newYork, result);
+        verify(mockApiClient, never()).getWeatherFromApi("  new   YORK ");
+        assertEquals(1, cachingClient.getHitCount());
+    }
+
+    @Test
+    public void testDiacriticsAndAliasesShareCacheEntry() throws WeatherApiException {
+        // Arrange
+        WeatherData saoPaulo = new WeatherData("São Paulo", 28.0, "light rain");
+        WeatherData mumbai = new WeatherData("Mumbai", 31.0, "haze");
+        when(mockApiClient.getWeatherFromApi("São Paulo")).thenReturn(saoPaulo);
+        when(mockApiClient.getWeatherFromApi("Mumbai")).thenReturn(mumbai);
+
+        // Act
+        cachingClient.getWeatherFromApi("São Paulo");
+        cachingClient.getWeatherFromApi("Mumbai");
+        WeatherData unaccented = cachingClient.getWeatherFromApi("Sao Paulo");
+        WeatherData alias = cachingClient.getWeatherFromApi("Bombay");
+
+        // Assert
+        assertSame(saoPaulo, unaccented);
+        assertSame(mumbai, alias);
+        verify(mockApiClient, times(2)).getWeatherFromApi(anyString());
+    }
+
+    @Test
+    public void testExpiredEntryIsFetchedAgain() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Paris"))
+            .thenReturn(new WeatherData("Paris", 20.0, "clear sky"))
+            .thenReturn(new WeatherData("Paris", 18.0, "light rain"));
+
+        // Act
+        cachingClient.getWeatherFromApi("Paris");
+        clock.addAndGet(Duration.ofMinutes(5).toNanos());
+        WeatherData result = cachingClient.getWeatherFromApi("Paris");
+
+        // Assert
+        assertEquals("light rain", result.getDescription());
+        verify(mockApiClient, times(2)).getWeatherFromApi("Paris");
+        assertEquals(0, cachingClient.getHitCount());
+        assertEquals(2, cachingClient.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi(anyString()))
+            .thenAnswer(invocation -> new WeatherData(invocation.getArgument(0), 10.0, "mist"));
+
+        // Act
+        cachingClient.getWeatherFromApi("Oslo");
+        cachingClient.getWeatherFromApi("Berlin");
+        cachingClient.getWeatherFromApi("Oslo");
+        cachingClient.getWeatherFromApi("Rome");
+        cachingClient.getWeatherFromApi("Oslo");
+        cachingClient.getWeatherFromApi("Berlin");
+
+        // Assert - Berlin was the least recently used entry when Rome was added, then Rome when Berlin returned
+        assertEquals(2, cachingClient.getEvictionCount());
+        assertEquals(2, cachingClient.size());
+        verify(mockApiClient, times(1)).getWeatherFromApi("Oslo");
+        verify(mockApiClient, times(2)).getWeatherFromApi("Berlin");
+    }
+
+    @Test
+    public void testReconfigureAppliesToHeldEntries() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi(anyString()))
+            .thenAnswer(invocation -> new WeatherData(invocation.getArgument(0), 10.0, "mist"));
+        cachingClient.getWeatherFromApi("Oslo");
+        cachingClient.getWeatherFromApi("Berlin");
+
+        // Act
+        cachingClient.reconfigure(Duration.ofMinutes(1), 1);
+        cachingClient.getWeatherFromApi("Berlin");
+        clock.addAndGet(Duration.ofMinutes(1).toNanos());
+        cachingClient.getWeatherFromApi("Berlin");
+
+        // Assert - Oslo was evicted to fit the new limit, and Berlin expired under the shorter TTL
+        assertEquals(1, cachingClient.getEvictionCount());
+        assertEquals(1, cachingClient.getHitCount());
+        verify(mockApiClient, times(2)).getWeatherFromApi("Berlin");
+        assertThrows(IllegalArgumentException.class, () -> cachingClient.reconfigure(Duration.ZERO, 1));
+    }
+
+    @Test
+    public void testBatchPassesOnlyMissesToDelegate() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Oslo")).thenReturn(new WeatherData("Oslo", 1.0, "snow"));
+        Map<String, Result<WeatherData>> fetched = new LinkedHashMap<>();
+        fetched.put("Berlin", Result.success(new WeatherData("Berlin", 8.0, "mist")));
+        when(mockApiClient.getWeatherForCities(Collections.singletonList("Berlin"))).thenReturn(fetched);
+        cachingClient.getWeatherFromApi("Oslo");
+
+        // Act
+        Map<String, Result<WeatherData>> results = cachingClient.getWeatherForCities(Arrays.asList("Berlin", "oslo"));
+
+        // Assert
+        assertEquals(Arrays.asList("Berlin", "oslo"), new ArrayList<>(results.keySet()));
+        assertEquals("snow", results.get("oslo").getValue().getDescription());
+        assertEquals("mist", results.get("Berlin").getValue().getDescription());
+        assertEquals(1, cachingClient.getHitCount());
+        assertSame(fetched.get("Berlin").getValue(), cachingClient.getWeatherFromApi("Berlin"));
+    }
+
+    @Test
+    public void testBatchReportsCityMissingFromDelegateResults() {
+        // Arrange
+        when(mockApiClient.getWeatherForCities(Arrays.asList("Berlin", "Oslo"))).thenReturn(Collections.emptyMap());
+
+        // Act
+        Map<String, Result<WeatherData>> results = cachingClient.getWeatherForCities(Arrays.asList("Berlin", "Oslo"));
+
+        // Assert
+        assertFalse(results.get("Berlin").isSuccess());
+        assertEquals("No result for city Oslo", results.get("Oslo").getError().getMessage());
+        assertEquals(0, cachingClient.size());
+    }
+
+    @Test
+    public void testFailedLookupIsNotCached() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Atlantis"))
+            .thenThrow(new WeatherApiException("City not found"));
+
+        // Act & Assert
+        assertThrows(WeatherApiException.class, () -> cachingClient.getWeatherFromApi("Atlantis"));
+        assertThrows(WeatherApiException.class, () -> cachingClient.getWeatherFromApi("Atlantis"));
+
+        verify(mockApiClient, times(2)).getWeatherFromApi("Atlantis");
+        assertEquals(0, cachingClient.size());
+    }
+
+    @Test
+    public void testEmptyCityIsPassedToDelegate() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi(""))
+            .thenThrow(new WeatherApiException("City name cannot be empty"));
+
+        // Act & Assert
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> cachingClient.getWeatherFromApi(""));
+
+        assertTrue(exception.getMessage().contains("cannot be empty"));
+        assertEquals(0, cachingClient.getMissCount());
+    }
+
+    @Test
+    public void testConstructorRejectsInvalidSettings() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> new CachingWeatherApiClient(null));
+        assertThrows(IllegalArgumentException.class,
+            () -> new CachingWeatherApiClient(mockApiClient, Duration.ZERO, 10));
+        assertThrows(IllegalArgumentException.class,
+            () -> new CachingWeatherApiClient(mockApiClient, Duration.ofMinutes(1), 0));
+    }
+
+    @Test
+    public void testAsyncLookupPopulatesAndUsesCache() throws Exception {
+        // Arrange
+        WeatherData helsinki = new WeatherData("Helsinki", -2.0, "light snow");
+        when(mockApiClient.getWeatherFromApiAsync("Helsinki"))
+            .thenReturn(CompletableFuture.completedFuture(helsinki));
+
+        // Act
+        WeatherData first = cachingClient.getWeatherFromApiAsync("Helsinki").get(5, TimeUnit.SECONDS);
+        WeatherData second = cachingClient.getWeatherFromApi("Helsinki");
+
+        // Assert
+        assertSame(helsinki, first);
+        assertSame(helsinki, second);
+        verify(mockApiClient, times(1)).getWeatherFromApiAsync("Helsinki");
+        verify(mockApiClient, never()).getWeatherFromApi(anyString());
+        assertEquals(1, cachingClient.getHitCount());
+    }
+}
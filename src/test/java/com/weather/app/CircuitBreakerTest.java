@@ -0,0 +1,150 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CircuitBreaker class
+ */
+public class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(3);
+
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new AtomicLong(1_000_000L);
+        // Window of 4 calls, trips at 50% failed or slow, open for 30 seconds, 2 probes
+        breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofSeconds(2), 0.5, Duration.ofSeconds(30), 2, clock::get);
+    }
+
+    @Test
+    public void testOpensWhenFailureRateIsReached() {
+        // Arrange
+        call(true);
+        call(true);
+        call(false);
+
+        // Act - the fourth call completes the minimum and makes the failure rate 50%
+        call(false);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testStaysClosedBelowMinimumCallsAndThreshold() {
+        // Arrange & Act - three failures are not enough calls to judge
+        call(false);
+        call(false);
+        call(false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        // Old failures slide out of the window
+        breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofSeconds(2), 0.5, Duration.ofSeconds(30), 2, clock::get);
+        call(false);
+        for (int i = 0; i < 10; i++) {
+            call(true);
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testOpensWhenSlowCallRateIsReached() {
+        // Arrange & Act - successful but slow calls
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(FAST);
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(SLOW);
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenProbesCloseTheBreaker() {
+        // Arrange
+        trip();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // Act - only two probes are let through
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailedProbeReopensTheBreaker() {
+        // Arrange
+        trip();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(breaker.tryAcquire());
+
+        // Act
+        breaker.onFailure(FAST);
+
+        // Assert - the open duration starts again
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(29));
+        assertFalse(breaker.tryAcquire());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testIgnoredProbeFreesItsSlot() {
+        // Arrange
+        trip();
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        // Act
+        breaker.onIgnored();
+
+        // Assert - another probe may go, and the ignored call did not count as a success
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(FAST);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void trip() {
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void call(boolean success) {
+        assertTrue(breaker.tryAcquire());
+        if (success) {
+            breaker.onSuccess(FAST);
+        } else {
+            breaker.onFailure(FAST);
+        }
+    }
+}
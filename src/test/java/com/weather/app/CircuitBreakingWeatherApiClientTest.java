@@ -0,0 +1,162 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the CircuitBreakingWeatherApiClient class
+ */
+public class CircuitBreakingWeatherApiClientTest {
+
+    private WeatherApiClient mockApiClient;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        // Trips after two calls that both failed; stays open far longer than a test runs
+        breaker = new CircuitBreaker(2, 2, 0.5, Duration.ofSeconds(2), 1.0, Duration.ofHours(1), 1);
+    }
+
+    @Test
+    public void testOpenBreakerFailsFastWithoutCallingDelegate() throws WeatherApiException {
+        // Arrange
+        CircuitBreakingWeatherApiClient client = new CircuitBreakingWeatherApiClient(mockApiClient, breaker, false);
+        when(mockApiClient.getWeatherFromApi("London"))
+            .thenThrow(new WeatherApiException("Failed to connect to weather service", new IOException("refused")));
+        assertThrows(WeatherApiException.class, () -> client.getWeatherFromApi("London"));
+        assertThrows(WeatherApiException.class, () -> client.getWeatherFromApi("London"));
+
+        // Act
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> client.getWeatherFromApi("London"));
+
+        // Assert
+        assertEquals(CircuitBreakingWeatherApiClient.OPEN_MESSAGE, exception.getMessage());
+        assertEquals(503, exception.getStatusCode());
+        assertEquals(503, WeatherServer.statusFor(exception));
+        verify(mockApiClient, times(2)).getWeatherFromApi("London");
+    }
+
+    @Test
+    public void testServesLastKnownDataAsStale() throws WeatherApiException {
+        // Arrange
+        CircuitBreakingWeatherApiClient client = new CircuitBreakingWeatherApiClient(mockApiClient, breaker, true);
+        when(mockApiClient.getWeatherFromApi(anyString()))
+            .thenReturn(new WeatherData("London", 15.5, "cloudy"))
+            .thenThrow(new WeatherApiException("API returned error status: 500", 500));
+        WeatherData fresh = client.getWeatherFromApi("London");
+
+        // Act - a transient failure trips the breaker; both it and the rejected call fall back to the last known data
+        WeatherData failed = client.getWeatherFromApi(" london ");
+        WeatherData rejected = client.getWeatherFromApi("London");
+
+        // Assert
+        assertFalse(fresh.isStale());
+        assertTrue(failed.isStale());
+        assertEquals(15.5, failed.getTemperatureCelsius(), 0.001);
+        assertTrue(rejected.isStale());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        verify(mockApiClient, times(2)).getWeatherFromApi(anyString());
+        assertThrows(WeatherApiException.class, () -> client.getWeatherFromApi("Paris"));
+    }
+
+    @Test
+    public void testBatchCountsAsOneCallAndFallsBackPerCity() throws WeatherApiException {
+        // Arrange
+        CircuitBreakingWeatherApiClient client = new CircuitBreakingWeatherApiClient(mockApiClient, breaker, true);
+        Map<String, Result<WeatherData>> first = new LinkedHashMap<>();
+        first.put("London", Result.success(new WeatherData("London", 15.5, "cloudy")));
+        first.put("Atlantis", Result.failure(new WeatherApiException("City not found", 404)));
+        Map<String, Result<WeatherData>> second = new LinkedHashMap<>();
+        second.put("London", Result.failure(new WeatherApiException("API error", 500)));
+        second.put("Paris", Result.failure(new WeatherApiException("API error", 500)));
+        when(mockApiClient.getWeatherForCities(anyCollection())).thenReturn(first, second);
+
+        // Act
+        Map<String, Result<WeatherData>> answered = client.getWeatherForCities(Arrays.asList("London", "Atlantis"));
+        Map<String, Result<WeatherData>> failed = client.getWeatherForCities(Arrays.asList("London", "Paris"));
+        Map<String, Result<WeatherData>> rejected = client.getWeatherForCities(Collections.singletonList("London"));
+
+        // Assert - one success and one failure trip the breaker; transient failures fall back to the last known data
+        assertEquals("City not found", answered.get("Atlantis").getError().getMessage());
+        assertTrue(failed.get("London").getValue().isStale());
+        assertEquals(500, failed.get("Paris").getError().getStatusCode());
+        assertTrue(rejected.get("London").getValue().isStale());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        verify(mockApiClient, times(2)).getWeatherForCities(anyCollection());
+    }
+
+    @Test
+    public void testLocalRateLimitRejectionsDoNotTripBreaker() throws WeatherApiException {
+        // Arrange
+        CircuitBreakingWeatherApiClient client = new CircuitBreakingWeatherApiClient(mockApiClient, breaker, false);
+        when(mockApiClient.getWeatherFromApi("London"))
+            .thenThrow(new RateLimitExceededException("Rate limit exceeded"));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            WeatherApiException exception = assertThrows(WeatherApiException.class,
+                () -> client.getWeatherFromApi("London"));
+            assertEquals(429, exception.getStatusCode());
+        }
+
+        // Assert - every call reached the delegate, none was rejected by the breaker
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        verify(mockApiClient, times(5)).getWeatherFromApi("London");
+    }
+
+    @Test
+    public void testClientErrorsDoNotTripBreaker() throws WeatherApiException {
+        // Arrange
+        CircuitBreakingWeatherApiClient client = new CircuitBreakingWeatherApiClient(mockApiClient, breaker, true);
+        when(mockApiClient.getWeatherFromApi("Atlantis"))
+            .thenThrow(new WeatherApiException("City not found: Atlantis", 404));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            WeatherApiException exception = assertThrows(WeatherApiException.class,
+                () -> client.getWeatherFromApi("Atlantis"));
+            assertEquals(404, exception.getStatusCode());
+        }
+
+        // Assert
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testAsyncLookupsShareTheBreaker() throws Exception {
+        // Arrange
+        CircuitBreakingWeatherApiClient client = new CircuitBreakingWeatherApiClient(mockApiClient, breaker, true);
+        when(mockApiClient.getWeatherFromApiAsync("Oslo"))
+            .thenReturn(CompletableFuture.completedFuture(new WeatherData("Oslo", -2.0, "snow")))
+            .thenReturn(CompletableFuture.failedFuture(new WeatherApiException("API returned error status: 502", 502)));
+
+        // Act
+        WeatherData fresh = client.getWeatherFromApiAsync("Oslo").get();
+        WeatherData stale = client.getWeatherFromApiAsync("Oslo").get();
+        WeatherData rejected = client.getWeatherFromApiAsync("Oslo").get();
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> client.getWeatherFromApiAsync("Bergen").get());
+
+        // Assert
+        assertFalse(fresh.isStale());
+        assertTrue(stale.isStale());
+        assertTrue(rejected.isStale());
+        verify(mockApiClient, times(2)).getWeatherFromApiAsync("Oslo");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreakingWeatherApiClient.OPEN_MESSAGE, exception.getCause().getMessage());
+    }
+}
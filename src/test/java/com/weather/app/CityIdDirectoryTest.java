@@ -0,0 +1,32 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CityIdDirectory class
+ */
+public class CityIdDirectoryTest {
+
+    @Test
+    public void testBundledDirectoryResolvesKnownCities() {
+        CityIdDirectory directory = CityIdDirectory.bundled();
+
+        assertTrue(directory.size() > 0);
+        assertEquals(Optional.of(2643743L), directory.findId("London"));
+        assertEquals(Optional.of(5128581L), directory.findId("  new york "));
+    }
+
+    @Test
+    public void testUnknownCityIsNotFound() {
+        CityIdDirectory directory = new CityIdDirectory(Collections.singletonMap("Paris", 2988507L));
+
+        assertEquals(Optional.of(2988507L), directory.findId("PARIS"));
+        assertEquals(Optional.empty(), directory.findId("Atlantis"));
+        assertEquals(Optional.empty(), directory.findId(null));
+    }
+}
@@ -0,0 +1,73 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CityResolver class
+ */
+public class CityResolverTest {
+
+    private final CityResolver resolver = new CityResolver(
+            new CityIdDirectory(Map.of("Sao Paulo", 3448439L, "New York", 5128581L)),
+            Map.of("NYC", "New York"));
+
+    @Test
+    public void testSpellingsShareOneKey() throws WeatherApiException {
+        assertEquals("sao paulo", resolver.key("São Paulo"));
+        assertEquals("sao paulo", resolver.key("  SAO   paulo "));
+        assertEquals("dusseldorf", resolver.key("Düsseldorf"));
+        assertEquals("", resolver.key("   "));
+        assertEquals("", resolver.key(null));
+    }
+
+    @Test
+    public void testResolvesIdAndQueryName() throws WeatherApiException {
+        CityResolver.ResolvedCity saoPaulo = resolver.resolve(" São Paulo ");
+
+        assertEquals("sao paulo", saoPaulo.getKey());
+        assertEquals("São Paulo", saoPaulo.getQueryName());
+        assertEquals("S%C3%A3o+Paulo", saoPaulo.getEncodedQueryName());
+        assertEquals(Optional.of(3448439L), saoPaulo.getId());
+        assertEquals(Optional.empty(), resolver.resolve("Springfield").getId());
+    }
+
+    @Test
+    public void testAliasesResolveToCanonicalCity() throws WeatherApiException {
+        CityResolver.ResolvedCity nyc = resolver.resolve("nyc");
+
+        assertEquals("new york", nyc.getKey());
+        assertEquals("new york", nyc.getQueryName());
+        assertEquals(Optional.of(5128581L), nyc.getId());
+    }
+
+    @Test
+    public void testRejectsInvalidNames() {
+        WeatherApiException empty = assertThrows(WeatherApiException.class, () -> resolver.resolve("  "));
+        WeatherApiException invalid = assertThrows(WeatherApiException.class, () -> resolver.resolve("Paris!"));
+        // A cached rejection is reported the same way
+        WeatherApiException again = assertThrows(WeatherApiException.class, () -> resolver.resolve("Paris!"));
+
+        assertEquals("City name cannot be empty", empty.getMessage());
+        assertTrue(invalid.getMessage().contains("Invalid city name format"));
+        assertEquals(invalid.getMessage(), again.getMessage());
+        assertThrows(WeatherApiException.class, () -> resolver.resolve(null));
+    }
+
+    @Test
+    public void testRepeatedNamesAreServedFromCache() throws WeatherApiException {
+        assertSame(resolver.resolve("London"), resolver.resolve("London"));
+    }
+
+    @Test
+    public void testSharedResolverUsesBundledAliases() throws WeatherApiException {
+        assertEquals("mumbai", CityResolver.shared().key("Bombay"));
+        assertEquals(CityResolver.shared().resolve("Mumbai").getId(), CityResolver.shared().resolve("Bombay").getId());
+        assertTrue(new CityResolver(null, Collections.emptyMap()).resolve("London").getId().isPresent());
+    }
+}
@@ -0,0 +1,182 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the CoalescingWeatherApiClient class
+ */
+public class CoalescingWeatherApiClientTest {
+
+    private static final int CALLERS = 8;
+
+    private WeatherApiClient mockApiClient;
+    private CoalescingWeatherApiClient coalescingClient;
+    private CountDownLatch upstreamEntered;
+    private CountDownLatch releaseUpstream;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        coalescingClient = new CoalescingWeatherApiClient(mockApiClient);
+        upstreamEntered = new CountDownLatch(1);
+        releaseUpstream = new CountDownLatch(1);
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneUpstreamCall() throws Exception {
+        // Arrange
+        WeatherData london = new WeatherData("London", 15.5, "scattered clouds");
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            upstreamEntered.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            return london;
+        });
+
+        // Act
+        List<Future<WeatherData>> results = runConcurrently("London", " london ");
+
+        // Assert
+        for (Future<WeatherData> result : results) {
+            assertSame(london, result.get(5, TimeUnit.SECONDS));
+        }
+        verify(mockApiClient, times(1)).getWeatherFromApi(anyString());
+        assertEquals(0, coalescingClient.getInFlightCount());
+    }
+
+    @Test
+    public void testConcurrentCallersShareUpstreamException() throws Exception {
+        // Arrange
+        WeatherApiException notFound = new WeatherApiException("City not found");
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            upstreamEntered.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            throw notFound;
+        });
+
+        // Act
+        List<Future<WeatherData>> results = runConcurrently("Atlantis", "ATLANTIS");
+
+        // Assert
+        for (Future<WeatherData> result : results) {
+            Exception exception = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(notFound, exception.getCause());
+        }
+        verify(mockApiClient, times(1)).getWeatherFromApi(anyString());
+    }
+
+    @Test
+    public void testConcurrentCallersShareUpstreamError() throws Exception {
+        // Arrange
+        AssertionError failure = new AssertionError("delegate bug");
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            upstreamEntered.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            throw failure;
+        });
+
+        // Act
+        List<Future<WeatherData>> results = runConcurrently("London", "LONDON");
+
+        // Assert
+        for (Future<WeatherData> result : results) {
+            Exception exception = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertSame(failure, exception.getCause());
+        }
+        assertEquals(0, coalescingClient.getInFlightCount());
+    }
+
+    @Test
+    public void testSequentialCallsAreNotCoalesced() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Paris"))
+            .thenReturn(new WeatherData("Paris", 20.0, "clear sky"));
+
+        // Act
+        coalescingClient.getWeatherFromApi("Paris");
+        coalescingClient.getWeatherFromApi("Paris");
+
+        // Assert
+        verify(mockApiClient, times(2)).getWeatherFromApi("Paris");
+    }
+
+    @Test
+    public void testConstructorWithNullDelegate() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new CoalescingWeatherApiClient(null));
+    }
+
+    @Test
+    public void testAsyncCallersShareOneUpstreamFuture() throws Exception {
+        // Arrange
+        CompletableFuture<WeatherData> upstream = new CompletableFuture<>();
+        when(mockApiClient.getWeatherFromApiAsync(anyString())).thenReturn(upstream);
+
+        // Act
+        CompletableFuture<WeatherData> first = coalescingClient.getWeatherFromApiAsync("Tokyo");
+        CompletableFuture<WeatherData> second = coalescingClient.getWeatherFromApiAsync("tokyo");
+        second.cancel(true);
+        WeatherData tokyo = new WeatherData("Tokyo", 25.0, "haze");
+        upstream.complete(tokyo);
+
+        // Assert - cancelling one caller's future must not affect the others
+        assertSame(tokyo, first.get(5, TimeUnit.SECONDS));
+        verify(mockApiClient, times(1)).getWeatherFromApiAsync(anyString());
+        assertEquals(0, coalescingClient.getInFlightCount());
+    }
+
+    /**
+     * Starts one leading caller, waits until it is blocked upstream, then adds followers
+     * and releases the upstream call once every follower is parked on the shared result.
+     */
+    private List<Future<WeatherData>> runConcurrently(String leaderCity, String followerCity)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Thread> followers = new ArrayList<>();
+        List<Future<WeatherData>> results = new ArrayList<>();
+        try {
+            results.add(executor.submit(() -> coalescingClient.getWeatherFromApi(leaderCity)));
+            assertTrue(upstreamEntered.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    synchronized (followers) {
+                        followers.add(Thread.currentThread());
+                    }
+                    return coalescingClient.getWeatherFromApi(followerCity);
+                }));
+            }
+            awaitFollowersParked(followers);
+            releaseUpstream.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitFollowersParked(List<Thread> followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            synchronized (followers) {
+                if (followers.size() == CALLERS - 1
+                        && followers.stream().allMatch(t -> t.getState() == Thread.State.WAITING)) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        fail("Followers did not join the in-flight request in time");
+    }
+}
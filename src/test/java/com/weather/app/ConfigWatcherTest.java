@@ -0,0 +1,122 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ConfigWatcher class and configuration reloading in ConfigUtil
+ */
+public class ConfigWatcherTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final CopyOnWriteArrayList<WeatherConfig> reloads = new CopyOnWriteArrayList<>();
+    private final Consumer<WeatherConfig> listener = reloads::add;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        ConfigUtil.removeListener(listener);
+        ConfigUtil.reload(ConfigUtil.getConfigFile());
+    }
+
+    @Test
+    public void testReloadReplacesSnapshotAndNotifiesListeners() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("weather.properties");
+        Files.write(file, "cache.max.entries=42\n".getBytes(StandardCharsets.UTF_8));
+        WeatherConfig before = ConfigUtil.current();
+        ConfigUtil.addListener(listener);
+
+        // Act
+        WeatherConfig after = ConfigUtil.reload(file);
+
+        // Assert
+        assertNotSame(before, after);
+        assertSame(after, ConfigUtil.current());
+        assertEquals(42, ConfigUtil.current().getCacheMaxEntries());
+        assertEquals(1, reloads.size());
+        assertSame(after, reloads.get(0));
+    }
+
+    @Test
+    public void testUnreadableFileKeepsCurrentSnapshot() {
+        // Arrange
+        WeatherConfig before = ConfigUtil.current();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> ConfigUtil.reload(tempDir.resolve("missing.properties")));
+        assertSame(before, ConfigUtil.current());
+    }
+
+    @Test
+    public void testEmptyFileKeepsCurrentSnapshot() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("weather.properties");
+        Files.write(file, "cache.max.entries=42\n".getBytes(StandardCharsets.UTF_8));
+        WeatherConfig before = ConfigUtil.reload(file);
+        ConfigUtil.addListener(listener);
+
+        // Act - what a reader sees between an in-place save truncating the file and writing it
+        Files.write(file, new byte[0]);
+
+        // Assert
+        IOException exception = assertThrows(IOException.class, () -> ConfigUtil.reload(file));
+        assertTrue(exception.getMessage().contains("is empty"));
+        assertSame(before, ConfigUtil.current());
+        assertEquals(42, ConfigUtil.current().getCacheMaxEntries());
+        assertTrue(reloads.isEmpty());
+    }
+
+    @Test
+    public void testFileMissingAPreviousKeyKeepsCurrentSnapshot() throws IOException {
+        // Arrange
+        Path file = tempDir.resolve("weather.properties");
+        Files.write(file, "cache.max.entries=42\nlookup.max.concurrency=3\n".getBytes(StandardCharsets.UTF_8));
+        WeatherConfig before = ConfigUtil.reload(file);
+
+        // Act
+        Files.write(file, "cache.max.entries=42\n".getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        IOException exception = assertThrows(IOException.class, () -> ConfigUtil.reload(file));
+        assertTrue(exception.getMessage().contains("lookup.max.concurrency"));
+        assertSame(before, ConfigUtil.current());
+
+        // Adding keys is fine
+        Files.write(file, "cache.max.entries=7\nlookup.max.concurrency=3\ncache.ttl.seconds=60\n"
+                .getBytes(StandardCharsets.UTF_8));
+        assertEquals(7, ConfigUtil.reload(file).getCacheMaxEntries());
+    }
+
+    @Test
+    public void testModifiedFileIsReloaded() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("weather.properties");
+        Files.write(file, "http.request.timeout.ms=2000\n".getBytes(StandardCharsets.UTF_8));
+        ConfigUtil.reload(file);
+
+        try (ConfigWatcher watcher = new ConfigWatcher(file)) {
+            // Act
+            Files.write(file, "http.request.timeout.ms=3000\n".getBytes(StandardCharsets.UTF_8));
+
+            // Assert - the watch service reports the change asynchronously
+            long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+            while (!ConfigUtil.getHttpRequestTimeout().equals(Duration.ofSeconds(3)) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals(Duration.ofSeconds(3), ConfigUtil.getHttpRequestTimeout());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the HttpTransport class
+ */
+public class HttpTransportTest {
+
+    @Test
+    public void testSharedClientIsReused() {
+        assertSame(HttpTransport.sharedClient(), HttpTransport.sharedClient());
+        assertNotNull(System.getProperty(HttpTransport.KEEPALIVE_PROPERTY));
+    }
+
+    @Test
+    public void testCreateClientAppliesSettings() {
+        // Act
+        HttpClient client = HttpTransport.createClient(Duration.ofSeconds(3), HttpClient.Version.HTTP_1_1, 2,
+            Duration.ofSeconds(30), 0);
+
+        // Assert
+        assertEquals(Duration.ofSeconds(3), client.connectTimeout().orElseThrow());
+        assertEquals(HttpClient.Version.HTTP_1_1, client.version());
+        assertTrue(client.executor().isPresent());
+    }
+}
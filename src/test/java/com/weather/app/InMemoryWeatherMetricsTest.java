@@ -0,0 +1,109 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the InMemoryWeatherMetrics class
+ */
+public class InMemoryWeatherMetricsTest {
+
+    @Test
+    public void testApiLatencyPercentiles() {
+        // Arrange
+        InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+
+        // Act
+        for (int millis = 1; millis <= 1000; millis++) {
+            metrics.recordApiRequest(TimeUnit.MILLISECONDS.toNanos(millis), 200);
+        }
+
+        // Assert - buckets are at most about 3% wide
+        assertEquals(1000, metrics.getApiRequestCount());
+        assertEquals(500, metrics.getApiLatencyP50Millis(), 500 * 0.04);
+        assertEquals(950, metrics.getApiLatencyP95Millis(), 950 * 0.04);
+        assertEquals(990, metrics.getApiLatencyP99Millis(), 990 * 0.04);
+    }
+
+    @Test
+    public void testCountsStatusCodesCacheLookupsAndErrors() {
+        // Arrange
+        InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+
+        // Act
+        metrics.recordApiRequest(1_000_000, 200);
+        metrics.recordApiRequest(1_000_000, 200);
+        metrics.recordApiRequest(1_000_000, 404);
+        metrics.recordCacheLookup(true);
+        metrics.recordCacheLookup(true);
+        metrics.recordCacheLookup(true);
+        metrics.recordCacheLookup(false);
+        metrics.recordError(new WeatherApiException("City not found", 404));
+        metrics.recordError(new WeatherApiException("Network error", new IOException("connection reset")));
+
+        // Assert - errors are grouped by root cause
+        assertEquals(2L, metrics.getStatusCodeCounts().get(200));
+        assertEquals(1L, metrics.getStatusCodeCounts().get(404));
+        assertEquals(0.75, metrics.getCacheHitRate(), 0.0001);
+        assertEquals(1L, metrics.getErrorCounts().get("WeatherApiException"));
+        assertEquals(1L, metrics.getErrorCounts().get("IOException"));
+    }
+
+    @Test
+    public void testEmptyMetrics() {
+        // Arrange
+        InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+
+        // Act & Assert
+        assertEquals(0, metrics.getApiRequestCount());
+        assertEquals(0, metrics.getApiLatencyP95Millis());
+        assertEquals(0, metrics.getCacheHitRate());
+        assertTrue(metrics.getErrorCounts().isEmpty());
+    }
+
+    @Test
+    public void testToText() {
+        // Arrange
+        InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+        metrics.recordApiRequest(TimeUnit.MILLISECONDS.toNanos(20), 200);
+        metrics.recordCacheLookup(false);
+        metrics.recordError(new WeatherApiException("City not found", 404));
+
+        // Act
+        String text = metrics.toText();
+
+        // Assert
+        assertTrue(text.contains("# TYPE weather_api_request_seconds summary\n"));
+        assertTrue(text.contains("weather_api_request_seconds_count 1\n"));
+        assertTrue(text.contains("weather_api_responses_total{status=\"200\"} 1\n"));
+        assertTrue(text.contains("weather_cache_lookups_total{result=\"miss\"} 1\n"));
+        assertTrue(text.contains("weather_errors_total{type=\"WeatherApiException\"} 1\n"));
+    }
+
+    @Test
+    public void testRegisterMBean() throws Exception {
+        // Arrange
+        InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+        metrics.recordLookup(TimeUnit.MILLISECONDS.toNanos(5));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(InMemoryWeatherMetrics.OBJECT_NAME);
+
+        // Act
+        boolean registered = metrics.registerMBean();
+
+        // Assert
+        try {
+            assertTrue(registered);
+            assertEquals(1L, server.getAttribute(name, "LookupCount"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.weather.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the batched group-endpoint path of OpenWeatherMapClient, run against a local stub HTTP server
+ */
+public class OpenWeatherMapClientBatchTest {
+
+    private HttpServer server;
+    private final List<String> requestedUris = new CopyOnWriteArrayList<>();
+    private volatile int groupStatus = 200;
+    private OpenWeatherMapClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/data/2.5/group", this::handleGroup);
+        server.createContext("/data/2.5/weather", this::handleWeather);
+        server.start();
+
+        Map<String, Long> ids = new HashMap<>();
+        ids.put("London", 2643743L);
+        ids.put("Paris", 2988507L);
+        ids.put("Ghost Town", 1L);
+        for (int i = 0; i < 45; i++) {
+            ids.put("Town " + i, 1000L + i);
+        }
+        String baseUrl = "http://localhost:" + server.getAddress().getPort() + "/data/2.5/weather";
+        client = new OpenWeatherMapClient("test-api-key", baseUrl, new CityIdDirectory(ids));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testKnownCitiesAreFetchedInOneGroupRequest() {
+        // Act
+        Map<String, Result<WeatherData>> results = client.getWeatherForCities(Arrays.asList("London", "paris"));
+
+        // Assert
+        assertEquals(1, requestedUris.size());
+        assertTrue(requestedUris.get(0).startsWith("/data/2.5/group?id=2643743,2988507&appid=test-api-key"));
+        assertEquals("London", results.get("London").getValue().getCity());
+        assertEquals(12.5, results.get("London").getValue().getTemperatureCelsius(), 0.001);
+        assertEquals("Paris", results.get("paris").getValue().getCity());
+        assertEquals("clear sky", results.get("paris").getValue().getDescription());
+    }
+
+    @Test
+    public void testIdsAreSentInChunksOfTwenty() {
+        // Arrange
+        List<String> cities = IntStream.range(0, 45).mapToObj(i -> "Town " + i).collect(Collectors.toList());
+
+        // Act
+        Map<String, Result<WeatherData>> results = client.getWeatherForCities(cities);
+
+        // Assert
+        assertEquals(3, requestedUris.size());
+        assertEquals(Arrays.asList(20, 20, 5), idCounts());
+        assertEquals(cities, new ArrayList<>(results.keySet()));
+        assertTrue(results.values().stream().allMatch(Result::isSuccess));
+    }
+
+    @Test
+    public void testUnknownCityFallsBackToSingleLookup() {
+        // Act
+        Map<String, Result<WeatherData>> results = client.getWeatherForCities(Arrays.asList("Springfield", "London"));
+
+        // Assert
+        assertEquals(2, requestedUris.size());
+        assertTrue(requestedUris.stream().anyMatch(uri -> uri.startsWith("/data/2.5/weather?q=Springfield")));
+        assertEquals(Arrays.asList("Springfield", "London"), new ArrayList<>(results.keySet()));
+        assertEquals("Springfield", results.get("Springfield").getValue().getCity());
+    }
+
+    @Test
+    public void testCityMissingFromGroupResponseIsReportedPerCity() {
+        // Act
+        Map<String, Result<WeatherData>> results = client.getWeatherForCities(Arrays.asList("London", "Ghost Town"));
+
+        // Assert
+        assertTrue(results.get("London").isSuccess());
+        assertEquals("City not found", results.get("Ghost Town").getError().getMessage());
+    }
+
+    @Test
+    public void testGroupHttpErrorFailsEveryCityInChunk() {
+        // Arrange
+        groupStatus = 401;
+
+        // Act
+        Map<String, Result<WeatherData>> results = client.getWeatherForCities(Arrays.asList("London", "Paris"));
+
+        // Assert
+        assertEquals("Invalid API key", results.get("London").getError().getMessage());
+        assertEquals("Invalid API key", results.get("Paris").getError().getMessage());
+    }
+
+    @Test
+    public void testBulkServiceLookupsUseGroupRequests() {
+        // Arrange
+        List<String> cities = IntStream.range(0, 45).mapToObj(i -> "Town " + i).collect(Collectors.toList());
+        WeatherService service = new WeatherService(new CachingWeatherApiClient(client), 2);
+
+        // Act
+        Map<String, Result<WeatherData>> results = service.getWeather(cities);
+        Map<String, Result<WeatherData>> cached = service.getWeather(cities);
+        service.close();
+
+        // Assert - the second call is answered from the cache
+        assertEquals(3, requestedUris.size());
+        assertTrue(requestedUris.stream().allMatch(uri -> uri.startsWith("/data/2.5/group?id=")));
+        assertEquals(cities, new ArrayList<>(results.keySet()));
+        assertTrue(results.values().stream().allMatch(Result::isSuccess));
+        assertTrue(cached.values().stream().allMatch(Result::isSuccess));
+    }
+
+    private List<Integer> idCounts() {
+        List<Integer> counts = new ArrayList<>();
+        for (String uri : requestedUris) {
+            String ids = uri.substring(uri.indexOf("id=") + 3, uri.indexOf('&'));
+            counts.add(ids.split(",").length);
+        }
+        return counts;
+    }
+
+    private void handleGroup(HttpExchange exchange) throws IOException {
+        requestedUris.add(exchange.getRequestURI().toString());
+        if (groupStatus != 200) {
+            respond(exchange, groupStatus, "{\"cod\":" + groupStatus + "}");
+            return;
+        }
+        String query = exchange.getRequestURI().getQuery();
+        String ids = query.substring(query.indexOf("id=") + 3, query.indexOf('&'));
+        StringBuilder list = new StringBuilder();
+        for (String id : ids.split(",")) {
+            if ("1".equals(id)) {
+                continue;
+            }
+            if (list.length() > 0) {
+                list.append(',');
+            }
+            list.append(cityJson(Long.parseLong(id)));
+        }
+        respond(exchange, 200, "{\"cnt\":" + ids.split(",").length + ",\"list\":[" + list + "]}");
+    }
+
+    private void handleWeather(HttpExchange exchange) throws IOException {
+        requestedUris.add(exchange.getRequestURI().toString());
+        String query = exchange.getRequestURI().getQuery();
+        String city = query.substring(2, query.indexOf('&'));
+        respond(exchange, 200, "{\"name\":\"" + city + "\",\"main\":{\"temp\":20.0},"
+                + "\"weather\":[{\"description\":\"overcast clouds\"}]}");
+    }
+
+    private static String cityJson(long id) {
+        String name = id == 2643743L ? "London" : id == 2988507L ? "Paris" : "Town " + (id - 1000);
+        double temp = id == 2643743L ? 12.5 : 18.0;
+        String description = id == 2988507L ? "clear sky" : "light rain";
+        return "{\"coord\":{\"lon\":0.0,\"lat\":0.0},\"weather\":[{\"id\":500,\"main\":\"Rain\","
+                + "\"description\":\"" + description + "\",\"icon\":\"10d\"}],"
+                + "\"main\":{\"temp\":" + temp + ",\"humidity\":80},\"id\":" + id + ",\"name\":\"" + name + "\"}";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -2,15 +2,41 @@ package com.weather.app;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockedStatic;
 
+import com.sun.management.ThreadMXBean;
+
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSession;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 // Import main application classes correctly
@@ -24,10 +50,14 @@ import com.weather.app.WeatherApiException;
  */
 public class OpenWeatherMapClientTest {
 
+    // Allocation budget for one lookup against a stub response; about 1.1 KB today, and a single unguarded
+    // redactApiKey call pushes it past 2 KB
+    private static final long BYTES_PER_LOOKUP = 1_792;
+
     private final String API_KEY = "test-api-key";
     private OpenWeatherMapClient client;
     private HttpClient mockHttpClient;
-    private HttpResponse<String> mockResponse;
+    private HttpResponse<byte[]> mockResponse;
 
     @BeforeEach
     @SuppressWarnings("unchecked")
@@ -55,7 +85,7 @@ public class OpenWeatherMapClientTest {
             + "}";
         
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(jsonResponse);
+        when(mockResponse.body()).thenReturn(jsonResponse.getBytes(StandardCharsets.UTF_8));
         when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
             .thenReturn(mockResponse);
         
@@ -90,7 +120,7 @@ public class OpenWeatherMapClientTest {
         String city = "InvalidCity";
         
         when(mockResponse.statusCode()).thenReturn(404);
-        when(mockResponse.body()).thenReturn("Not found");
+        when(mockResponse.body()).thenReturn("Not found".getBytes(StandardCharsets.UTF_8));
         when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
             .thenReturn(mockResponse);
         
@@ -131,7 +161,7 @@ public class OpenWeatherMapClientTest {
         String invalidJson = "{invalid-json}";
         
         when(mockResponse.statusCode()).thenReturn(200);
-        when(mockResponse.body()).thenReturn(invalidJson);
+        when(mockResponse.body()).thenReturn(invalidJson.getBytes(StandardCharsets.UTF_8));
         when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
             .thenReturn(mockResponse);
         
@@ -177,4 +207,376 @@ public class OpenWeatherMapClientTest {
         // Verify no HTTP request was made
         verifyNoInteractions(mockHttpClient);
     }
+
+    @Test
+    public void testGetWeatherFromApiAsyncSuccess() throws Exception {
+        // Arrange
+        String jsonResponse = "{"
+            + "\"name\":\"London\","
+            + "\"main\":{\"temp\":15.5},"
+            + "\"weather\":[{\"description\":\"scattered clouds\"}]"
+            + "}";
+        
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(jsonResponse.getBytes(StandardCharsets.UTF_8));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockResponse));
+        
+        // Act
+        WeatherData result = client.getWeatherFromApiAsync("London").get(5, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals("London", result.getCity());
+        assertEquals(15.5, result.getTemperatureCelsius(), 0.001);
+        assertEquals("scattered clouds", result.getDescription());
+        
+        // Verify that the non-blocking send was used
+        verify(mockHttpClient).sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+        verify(mockHttpClient, never()).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+    
+    @Test
+    public void testGetWeatherFromApiAsyncHttpError() {
+        // Arrange
+        when(mockResponse.statusCode()).thenReturn(401);
+        when(mockResponse.body()).thenReturn("Unauthorized".getBytes(StandardCharsets.UTF_8));
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(CompletableFuture.completedFuture(mockResponse));
+        
+        // Act & Assert
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> client.getWeatherFromApiAsync("London").get(5, TimeUnit.SECONDS));
+        
+        assertTrue(exception.getCause() instanceof WeatherApiException);
+        assertEquals("Invalid API key", exception.getCause().getMessage());
+    }
+    
+    @Test
+    public void testGetWeatherFromApiAsyncNetworkError() {
+        // Arrange
+        IOException ioException = new IOException("Network error");
+        when(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(CompletableFuture.failedFuture(ioException));
+        
+        // Act & Assert
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> client.getWeatherFromApiAsync("London").get(5, TimeUnit.SECONDS));
+        
+        assertTrue(exception.getCause() instanceof WeatherApiException);
+        assertTrue(exception.getCause().getMessage().contains("Network error"));
+        assertEquals(ioException, exception.getCause().getCause());
+    }
+    
+    @Test
+    public void testGetWeatherFromApiAsyncInvalidCityFormat() {
+        // Act
+        CompletableFuture<WeatherData> result = client.getWeatherFromApiAsync("London<script>");
+        
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertTrue(exception.getCause().getMessage().contains("Invalid city name format"));
+        
+        // Verify no HTTP request was made
+        verifyNoInteractions(mockHttpClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRateLimitedResponsePausesFurtherRequests() throws Exception {
+        // Arrange - a limiter that never queues, so the pause shows up as an immediate failure
+        OpenWeatherMapClient limitedClient = new OpenWeatherMapClient(API_KEY, "https://test-api.example.com/weather",
+                null, new RateLimiter(600, 10, Duration.ZERO)) {
+            protected HttpClient createHttpClient() {
+                return mockHttpClient;
+            }
+        };
+        when(mockResponse.statusCode()).thenReturn(429);
+        when(mockResponse.body()).thenReturn("{}".getBytes(StandardCharsets.UTF_8));
+        when(mockResponse.headers()).thenReturn(
+            HttpHeaders.of(Map.of("Retry-After", List.of("30")), (name, value) -> true));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+
+        // Act
+        WeatherApiException first = assertThrows(WeatherApiException.class,
+            () -> limitedClient.getWeatherFromApi("London"));
+        WeatherApiException second = assertThrows(WeatherApiException.class,
+            () -> limitedClient.getWeatherFromApi("Paris"));
+
+        // Assert
+        assertEquals("Rate limit exceeded", first.getMessage());
+        assertEquals("Rate limit exceeded", second.getMessage());
+        verify(mockHttpClient, times(1)).send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRecordsRequestMetrics() throws Exception {
+        // Arrange
+        InMemoryWeatherMetrics metrics = new InMemoryWeatherMetrics();
+        OpenWeatherMapClient meteredClient = new OpenWeatherMapClient(API_KEY, "https://test-api.example.com/weather",
+                null, new RateLimiter(600, 10, Duration.ZERO), metrics) {
+            protected HttpClient createHttpClient() {
+                return mockHttpClient;
+            }
+        };
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(("{\"name\":\"London\",\"main\":{\"temp\":15.5},"
+            + "\"weather\":[{\"description\":\"cloudy\"}]}").getBytes(StandardCharsets.UTF_8));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+
+        // Act
+        meteredClient.getWeatherFromApi("London");
+        when(mockResponse.statusCode()).thenReturn(404);
+        assertThrows(WeatherApiException.class, () -> meteredClient.getWeatherFromApi("Atlantis"));
+
+        // Assert
+        assertEquals(2, metrics.getApiRequestCount());
+        assertEquals(1L, metrics.getStatusCodeCounts().get(200));
+        assertEquals(1L, metrics.getStatusCodeCounts().get(404));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testHttpClientCreatedOnFirstRequest() throws Exception {
+        // Arrange
+        AtomicInteger created = new AtomicInteger();
+        OpenWeatherMapClient lazyClient = new OpenWeatherMapClient(API_KEY, "https://test-api.example.com/weather") {
+            protected HttpClient createHttpClient() {
+                created.incrementAndGet();
+                return mockHttpClient;
+            }
+        };
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(("{\"name\":\"London\",\"main\":{\"temp\":15.5},"
+            + "\"weather\":[{\"description\":\"cloudy\"}]}").getBytes(StandardCharsets.UTF_8));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+        int createdBeforeRequest = created.get();
+
+        // Act
+        lazyClient.getWeatherFromApi("London");
+        lazyClient.getWeatherFromApi("Paris");
+
+        // Assert
+        assertEquals(0, createdBeforeRequest);
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    public void testLookupAllocatesLittlePerCall() throws Exception {
+        // Arrange - bytes allocated by the current thread are only available on HotSpot-based JVMs
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean);
+        ThreadMXBean allocationBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+        // A hand-written stub, since a Mockito mock records every call; the budget never makes a call wait
+        HttpClient stubHttpClient = new StubHttpClient(new StubResponse(200, ("{\"name\":\"London\","
+            + "\"main\":{\"temp\":15.5},\"weather\":[{\"description\":\"cloudy\"}]}")
+            .getBytes(StandardCharsets.UTF_8)));
+        OpenWeatherMapClient stubbedClient = new OpenWeatherMapClient(API_KEY, "https://test-api.example.com/weather",
+                null, new RateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE / 2, Duration.ZERO)) {
+            protected HttpClient createHttpClient() {
+                return stubHttpClient;
+            }
+        };
+        WeatherService service = new WeatherService(stubbedClient);
+        // At the levels a production server runs at, so unguarded FINE/INFO messages would show up as allocation
+        Logger[] loggers = {Logger.getLogger(OpenWeatherMapClient.class.getName()),
+            Logger.getLogger(WeatherService.class.getName())};
+        Level[] levels = new Level[loggers.length];
+        for (int i = 0; i < loggers.length; i++) {
+            levels[i] = loggers[i].getLevel();
+            loggers[i].setLevel(Level.WARNING);
+        }
+        int calls = 10_000;
+        try {
+            for (int i = 0; i < calls; i++) {
+                service.getWeather("London");
+            }
+
+            // Act
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < calls; i++) {
+                service.getWeather("London");
+            }
+            long bytesPerCall = (allocationBean.getThreadAllocatedBytes(threadId) - before) / calls;
+
+            // Assert - the request, its URI and the parsed WeatherData, with no log formatting or redaction regex
+            assertTrue(bytesPerCall < BYTES_PER_LOOKUP, "Allocated " + bytesPerCall + " bytes per call");
+        } finally {
+            for (int i = 0; i < loggers.length; i++) {
+                loggers[i].setLevel(levels[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testRedactApiKey() {
+        assertEquals("https://api.example.com/weather?q=London&appid=REDACTED&units=metric",
+            OpenWeatherMapClient.redactApiKey("https://api.example.com/weather?q=London&appid=secret&units=metric"));
+    }
+
+    @Test
+    public void testParseRetryAfter() {
+        Instant now = Instant.parse("2024-01-01T12:00:00Z");
+
+        assertEquals(Duration.ofSeconds(120), OpenWeatherMapClient.parseRetryAfter(" 120 ", now));
+        assertEquals(Duration.ofSeconds(30),
+            OpenWeatherMapClient.parseRetryAfter("Mon, 01 Jan 2024 12:00:30 GMT", now));
+        assertEquals(Duration.ZERO, OpenWeatherMapClient.parseRetryAfter("Mon, 01 Jan 2024 11:00:00 GMT", now));
+        assertNull(OpenWeatherMapClient.parseRetryAfter("soon", now));
+        assertNull(OpenWeatherMapClient.parseRetryAfter(null, now));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRequestsCarryTimeout() throws Exception {
+        // Arrange
+        when(mockResponse.statusCode()).thenReturn(200);
+        when(mockResponse.body()).thenReturn(("{\"name\":\"London\",\"main\":{\"temp\":15.5},"
+            + "\"weather\":[{\"description\":\"scattered clouds\"}]}").getBytes(StandardCharsets.UTF_8));
+        when(mockHttpClient.send(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+            .thenReturn(mockResponse);
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+
+        // Act
+        client.getWeatherFromApi("London");
+
+        // Assert
+        verify(mockHttpClient).send(request.capture(), any(HttpResponse.BodyHandler.class));
+        assertEquals(ConfigUtil.getHttpRequestTimeout(), request.getValue().timeout().orElseThrow());
+    }
+
+    /**
+     * HttpClient that answers every request with the same response, without allocating per call
+     */
+    private static final class StubHttpClient extends HttpClient {
+        private final HttpResponse<byte[]> response;
+
+        private StubHttpClient(HttpResponse<byte[]> response) {
+            this.response = response;
+        }
+
+        @Override
+        public Optional<CookieHandler> cookieHandler() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Duration> connectTimeout() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Redirect followRedirects() {
+            return Redirect.NEVER;
+        }
+
+        @Override
+        public Optional<ProxySelector> proxy() {
+            return Optional.empty();
+        }
+
+        @Override
+        public SSLContext sslContext() {
+            return null;
+        }
+
+        @Override
+        public SSLParameters sslParameters() {
+            return null;
+        }
+
+        @Override
+        public Optional<Authenticator> authenticator() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Version version() {
+            return Version.HTTP_1_1;
+        }
+
+        @Override
+        public Optional<Executor> executor() {
+            return Optional.empty();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+            return (HttpResponse<T>) response;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                HttpResponse.BodyHandler<T> responseBodyHandler) {
+            return CompletableFuture.completedFuture((HttpResponse<T>) response);
+        }
+
+        @Override
+        public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                HttpResponse.BodyHandler<T> responseBodyHandler, HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+            return sendAsync(request, responseBodyHandler);
+        }
+    }
+
+    /**
+     * A fixed response with no headers
+     */
+    private static final class StubResponse implements HttpResponse<byte[]> {
+        private static final HttpHeaders NO_HEADERS = HttpHeaders.of(Map.of(), (name, value) -> true);
+
+        private final int statusCode;
+        private final byte[] body;
+
+        private StubResponse(int statusCode, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        @Override
+        public int statusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public HttpRequest request() {
+            return null;
+        }
+
+        @Override
+        public Optional<HttpResponse<byte[]>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return NO_HEADERS;
+        }
+
+        @Override
+        public byte[] body() {
+            return body;
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+
+        @Override
+        public URI uri() {
+            return null;
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return HttpClient.Version.HTTP_1_1;
+        }
+    }
 }
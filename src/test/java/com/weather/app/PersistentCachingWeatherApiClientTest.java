@@ -0,0 +1,146 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the PersistentCachingWeatherApiClient class
+ */
+public class PersistentCachingWeatherApiClientTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WeatherApiClient mockApiClient;
+    private PersistentWeatherCache cache;
+    private Path cacheFile;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        cacheFile = tempDir.resolve("weather.cache");
+        cache = new PersistentWeatherCache(cacheFile);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        cache.close();
+    }
+
+    @Test
+    public void testRestartedClientIsServedFromDisk() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        clientAt(1_000_000L).getWeatherFromApi("London");
+        cache.close();
+
+        // Act - a new process reopens the same file ten minutes later
+        cache = new PersistentWeatherCache(cacheFile);
+        WeatherData result = clientAt(1_000_000L + Duration.ofMinutes(10).toMillis()).getWeatherFromApi("london");
+
+        // Assert
+        assertEquals("cloudy", result.getDescription());
+        verify(mockApiClient, times(1)).getWeatherFromApi(anyString());
+    }
+
+    @Test
+    public void testAliasesShareOneDiskEntry() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Bombay")).thenReturn(new WeatherData("Mumbai", 31.0, "haze"));
+        clientAt(0L).getWeatherFromApi("Bombay");
+
+        // Act
+        WeatherData result = clientAt(Duration.ofMinutes(1).toMillis()).getWeatherFromApi("Mumbai");
+
+        // Assert
+        assertEquals("haze", result.getDescription());
+        assertEquals(1, cache.size());
+        verify(mockApiClient, times(1)).getWeatherFromApi(anyString());
+    }
+
+    @Test
+    public void testEntryOlderThanMaxAgeIsFetchedAgain() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Paris"))
+            .thenReturn(new WeatherData("Paris", 20.0, "clear sky"))
+            .thenReturn(new WeatherData("Paris", 18.0, "light rain"));
+        clientAt(0L).getWeatherFromApi("Paris");
+
+        // Act
+        WeatherData result = clientAt(Duration.ofMinutes(31).toMillis()).getWeatherFromApi("Paris");
+
+        // Assert
+        assertEquals("light rain", result.getDescription());
+        verify(mockApiClient, times(2)).getWeatherFromApi("Paris");
+    }
+
+    @Test
+    public void testStaleFallbackIsNotWritten() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Oslo"))
+            .thenReturn(new WeatherData("Oslo", -5.0, "snow").asStale())
+            .thenReturn(new WeatherData("Oslo", -3.0, "cloudy"));
+        clientAt(0L).getWeatherFromApi("Oslo");
+        cache.close();
+
+        // Act - a restarted process must not see the stale observation as a fresh entry
+        cache = new PersistentWeatherCache(cacheFile);
+        WeatherData result = clientAt(Duration.ofMinutes(1).toMillis()).getWeatherFromApi("Oslo");
+
+        // Assert
+        assertFalse(result.isStale());
+        assertEquals("cloudy", result.getDescription());
+        verify(mockApiClient, times(2)).getWeatherFromApi("Oslo");
+    }
+
+    @Test
+    public void testUnreadableCacheFallsBackToDelegate() throws Exception {
+        // Arrange - a directory in place of the cache file makes every disk access fail
+        PersistentWeatherCache brokenCache = new PersistentWeatherCache(tempDir);
+        when(mockApiClient.getWeatherFromApi("Oslo")).thenReturn(new WeatherData("Oslo", -5.0, "snow"));
+        PersistentCachingWeatherApiClient client = new PersistentCachingWeatherApiClient(
+            mockApiClient, brokenCache, Duration.ofMinutes(30));
+
+        // Act
+        WeatherData result = client.getWeatherFromApi("Oslo");
+
+        // Assert
+        assertEquals("snow", result.getDescription());
+    }
+
+    @Test
+    public void testBatchReportsCityMissingFromDelegateResults() throws IOException {
+        // Arrange
+        Map<String, Result<WeatherData>> fetched = new LinkedHashMap<>();
+        fetched.put("Oslo", Result.success(new WeatherData("Oslo", -5.0, "snow")));
+        when(mockApiClient.getWeatherForCities(Arrays.asList("Oslo", "Atlantis"))).thenReturn(fetched);
+
+        // Act
+        Map<String, Result<WeatherData>> results = clientAt(0L).getWeatherForCities(Arrays.asList("Oslo", "Atlantis"));
+
+        // Assert
+        assertEquals("snow", results.get("Oslo").getValue().getDescription());
+        assertEquals("No result for city Atlantis", results.get("Atlantis").getError().getMessage());
+        assertEquals(1, cache.size());
+    }
+
+    private PersistentCachingWeatherApiClient clientAt(long epochMillis) {
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+        return new PersistentCachingWeatherApiClient(mockApiClient, cache, Duration.ofMinutes(30), clock);
+    }
+}
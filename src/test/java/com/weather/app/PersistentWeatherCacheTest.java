@@ -0,0 +1,108 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PersistentWeatherCache class
+ */
+public class PersistentWeatherCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testEntriesSurviveReopen() throws IOException {
+        Path file = tempDir.resolve("weather.cache");
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            cache.put("London", new WeatherData("London", 15.5, "scattered clouds"), 1000L);
+            cache.put("São Paulo", new WeatherData("São Paulo", 28.0, "chuva fraca"), 2000L);
+            cache.put("london", new WeatherData("London", 16.0, "light rain"), 3000L);
+        }
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            PersistentWeatherCache.Entry london = cache.get(" LONDON ").orElseThrow();
+            assertEquals(16.0, london.getWeatherData().getTemperatureCelsius(), 0.001);
+            assertEquals("light rain", london.getWeatherData().getDescription());
+            assertEquals(3000L, london.getFetchedAtMillis());
+            assertEquals("São Paulo", cache.get("são paulo").orElseThrow().getWeatherData().getCity());
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Test
+    public void testFileIsNotReadUntilFirstAccess() throws IOException {
+        Path file = tempDir.resolve("lazy.cache");
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            assertFalse(Files.exists(file));
+            assertTrue(cache.get("Paris").isEmpty());
+            assertTrue(Files.exists(file));
+        }
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        Path file = tempDir.resolve("torn.cache");
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            cache.put("Oslo", new WeatherData("Oslo", -5.0, "snow"), 1000L);
+        }
+        long intactLength = Files.size(file);
+        // Simulate a crash in the middle of writing the next record
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            assertEquals(1, cache.size());
+            assertEquals(intactLength, Files.size(file));
+            cache.put("Rome", new WeatherData("Rome", 21.0, "clear sky"), 2000L);
+        }
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            assertEquals(2, cache.size());
+        }
+    }
+
+    @Test
+    public void testUnrecognisedFileIsReplaced() throws IOException {
+        Path file = tempDir.resolve("foreign.cache");
+        Files.write(file, "not a cache file".getBytes());
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            assertEquals(0, cache.size());
+            cache.put("Oslo", new WeatherData("Oslo", -5.0, "snow"), 1000L);
+        }
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            assertEquals(1, cache.size());
+        }
+    }
+
+    @Test
+    public void testRepeatedUpdatesTriggerCompaction() throws IOException {
+        Path file = tempDir.resolve("compact.cache");
+        long lengthAfterOneRecord;
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            cache.put("Berlin", new WeatherData("Berlin", 0.0, "fog"), 0L);
+            lengthAfterOneRecord = Files.size(file);
+            for (int i = 1; i <= 200; i++) {
+                cache.put("Berlin", new WeatherData("Berlin", i, "fog"), i);
+            }
+            assertTrue(Files.size(file) < lengthAfterOneRecord * 64,
+                "Log should have been compacted instead of holding 201 records");
+
+            cache.compact();
+            assertEquals(lengthAfterOneRecord, Files.size(file));
+        }
+
+        try (PersistentWeatherCache cache = new PersistentWeatherCache(file)) {
+            assertEquals(200.0, cache.get("Berlin").orElseThrow().getWeatherData().getTemperatureCelsius(), 0.001);
+        }
+    }
+}
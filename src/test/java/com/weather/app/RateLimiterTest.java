@@ -0,0 +1,123 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RateLimiter class
+ */
+public class RateLimiterTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private AtomicLong clock;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new AtomicLong(1_000 * ONE_SECOND);
+    }
+
+    @Test
+    public void testBurstIsServedImmediatelyThenRequestsAreSpacedOut() throws WeatherApiException {
+        // Arrange - 60 per minute is one token per second
+        RateLimiter limiter = limiter(60, 3, Duration.ofSeconds(10), 0.5);
+
+        // Act & Assert
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(ONE_SECOND, limiter.reserve());
+        assertEquals(2 * ONE_SECOND, limiter.reserve());
+
+        // Tokens refill while idle, up to the burst size
+        clock.addAndGet(60 * ONE_SECOND);
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(0, limiter.reserve());
+        assertEquals(ONE_SECOND, limiter.reserve());
+    }
+
+    @Test
+    public void testFailsFastWhenWaitExceedsMaximum() throws WeatherApiException {
+        // Arrange
+        RateLimiter limiter = limiter(60, 1, Duration.ZERO, 0.5);
+        limiter.reserve();
+
+        // Act & Assert
+        WeatherApiException exception = assertThrows(WeatherApiException.class, limiter::reserve);
+        assertEquals("Rate limit exceeded", exception.getMessage());
+        assertInstanceOf(RateLimitExceededException.class, exception);
+        assertEquals(429, exception.getStatusCode());
+
+        // A rejected caller does not use up budget
+        clock.addAndGet(ONE_SECOND);
+        assertEquals(0, limiter.reserve());
+    }
+
+    @Test
+    public void testSetBudgetChangesRateOfLaterPermits() throws WeatherApiException {
+        // Arrange
+        RateLimiter limiter = limiter(60, 1, Duration.ofSeconds(10), 0.5);
+        limiter.reserve();
+
+        // Act - 120 per minute is one token every half second
+        limiter.setBudget(120, 1, Duration.ZERO);
+
+        // Assert - the permit already reserved keeps its place, the next one follows the new rate and max wait
+        assertThrows(RateLimitExceededException.class, limiter::reserve);
+        clock.addAndGet(ONE_SECOND);
+        assertEquals(0, limiter.reserve());
+        clock.addAndGet(ONE_SECOND / 2);
+        assertEquals(0, limiter.reserve());
+        assertThrows(IllegalArgumentException.class, () -> limiter.setBudget(0, 1, Duration.ZERO));
+    }
+
+    @Test
+    public void testBackOffHonoursRetryAfterWithJitter() throws WeatherApiException {
+        // Arrange
+        RateLimiter limiter = limiter(60, 5, Duration.ofMinutes(1), 0.5);
+
+        // Act
+        Duration pause = limiter.backOff(Duration.ofSeconds(10));
+
+        // Assert - 10% jitter on top of the requested delay, and no burst once the pause ends
+        assertEquals(Duration.ofSeconds(11), pause);
+        assertEquals(11 * ONE_SECOND, limiter.reserve());
+        assertEquals(12 * ONE_SECOND, limiter.reserve());
+    }
+
+    @Test
+    public void testBackOffGrowsExponentiallyUntilSuccess() {
+        // Arrange - a jitter source of 1.0 always picks the upper bound
+        RateLimiter limiter = limiter(60, 1, Duration.ofMinutes(1), 1.0);
+
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(1), limiter.backOff(null));
+        assertEquals(Duration.ofSeconds(2), limiter.backOff(null));
+        assertEquals(Duration.ofSeconds(4), limiter.backOff(null));
+        for (int i = 0; i < 10; i++) {
+            limiter.backOff(null);
+        }
+        assertEquals(Duration.ofSeconds(60), limiter.backOff(null));
+
+        limiter.recordSuccess();
+        assertEquals(Duration.ofSeconds(1), limiter.backOff(null));
+    }
+
+    @Test
+    public void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(0, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(60, 0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new RateLimiter(60, 1, Duration.ofSeconds(-1)));
+    }
+
+    private RateLimiter limiter(int requestsPerMinute, int burst, Duration maxWait, double jitter) {
+        return new RateLimiter(requestsPerMinute, burst, maxWait, clock::get, () -> jitter);
+    }
+}
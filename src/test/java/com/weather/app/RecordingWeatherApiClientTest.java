@@ -0,0 +1,82 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RecordingWeatherApiClient class
+ */
+public class RecordingWeatherApiClientTest {
+
+    @TempDir
+    Path tempDir;
+
+    private WeatherApiClient mockApiClient;
+    private WeatherRecorder recorder;
+    private RecordingWeatherApiClient client;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockApiClient = mock(WeatherApiClient.class);
+        recorder = new WeatherRecorder(tempDir.resolve("history.bin"));
+        client = new RecordingWeatherApiClient(mockApiClient, recorder,
+            Clock.fixed(Instant.ofEpochMilli(5_000L), ZoneOffset.UTC));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        recorder.close();
+    }
+
+    @Test
+    public void testFetchedObservationsAreRecorded() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        when(mockApiClient.getWeatherFromApiAsync("London"))
+            .thenReturn(CompletableFuture.completedFuture(new WeatherData("London", 17.5, "cloudy")));
+
+        // Act
+        client.getWeatherFromApi("London");
+        client.getWeatherFromApiAsync("London").get();
+
+        // Assert
+        WeatherRecorder.TemperatureSummary summary = recorder.summarize("London", 5_000L, 5_001L).orElseThrow();
+        assertEquals(2, summary.getCount());
+        assertEquals(16.5, summary.getAverageCelsius(), 0.001);
+    }
+
+    @Test
+    public void testFailuresAreNotRecorded() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Atlantis")).thenThrow(new WeatherApiException("City not found", 404));
+
+        // Act & Assert
+        assertThrows(WeatherApiException.class, () -> client.getWeatherFromApi("Atlantis"));
+        assertEquals(0, recorder.size());
+    }
+
+    @Test
+    public void testRecordingErrorsDoNotFailLookups() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        recorder.close();
+
+        // Act
+        WeatherData result = client.getWeatherFromApi("London");
+
+        // Assert
+        assertEquals(15.5, result.getTemperatureCelsius(), 0.001);
+    }
+}
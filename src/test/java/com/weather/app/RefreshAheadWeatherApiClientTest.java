@@ -0,0 +1,213 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RefreshAheadWeatherApiClient class
+ */
+public class RefreshAheadWeatherApiClientTest {
+
+    private WeatherApiClient mockApiClient;
+    private AtomicLong clock;
+    private List<Runnable> pendingRefreshes;
+    private RefreshAheadWeatherApiClient client;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        clock = new AtomicLong();
+        pendingRefreshes = new ArrayList<>();
+        Executor queueingExecutor = pendingRefreshes::add;
+        client = new RefreshAheadWeatherApiClient(mockApiClient, Duration.ofMinutes(5), Duration.ofMinutes(30),
+            1, Duration.ofMinutes(1), clock::get, queueingExecutor, null, null);
+    }
+
+    @Test
+    public void testFreshEntryIsServedWithoutRefresh() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+
+        // Act
+        client.getWeatherFromApi("London");
+        clock.addAndGet(minutes(4));
+        WeatherData result = client.getWeatherFromApi("london");
+
+        // Assert
+        assertEquals(15.5, result.getTemperatureCelsius(), 0.001);
+        assertTrue(pendingRefreshes.isEmpty());
+        verify(mockApiClient, times(1)).getWeatherFromApi(anyString());
+    }
+
+    @Test
+    public void testStaleEntryIsServedImmediatelyAndRefreshedInBackground() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London"))
+            .thenReturn(new WeatherData("London", 15.5, "cloudy"))
+            .thenReturn(new WeatherData("London", 17.0, "sunny"));
+        client.getWeatherFromApi("London");
+        clock.addAndGet(minutes(6));
+
+        // Act
+        WeatherData stale = client.getWeatherFromApi("London");
+        client.getWeatherFromApi("London");
+
+        // Assert - the caller got the old value and exactly one refresh was queued
+        assertEquals("cloudy", stale.getDescription());
+        assertEquals(1, pendingRefreshes.size());
+        verify(mockApiClient, times(1)).getWeatherFromApi("London");
+
+        pendingRefreshes.get(0).run();
+        assertEquals("sunny", client.getWeatherFromApi("London").getDescription());
+        verify(mockApiClient, times(2)).getWeatherFromApi("London");
+    }
+
+    @Test
+    public void testFailedRefreshKeepsServingStaleData() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Paris"))
+            .thenReturn(new WeatherData("Paris", 20.0, "clear sky"))
+            .thenThrow(new WeatherApiException("Rate limit exceeded"));
+        client.getWeatherFromApi("Paris");
+        clock.addAndGet(minutes(6));
+
+        // Act
+        client.getWeatherFromApi("Paris");
+        pendingRefreshes.remove(0).run();
+        WeatherData result = client.getWeatherFromApi("Paris");
+
+        // Assert - the old entry is still served and a new refresh attempt was queued
+        assertEquals("clear sky", result.getDescription());
+        assertEquals(1, pendingRefreshes.size());
+    }
+
+    @Test
+    public void testStaleFallbackIsNotCached() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London"))
+            .thenReturn(new WeatherData("London", 15.5, "cloudy").asStale())
+            .thenReturn(new WeatherData("London", 17.0, "sunny"));
+
+        // Act
+        WeatherData first = client.getWeatherFromApi("London");
+        WeatherData second = client.getWeatherFromApi("London");
+
+        // Assert
+        assertTrue(first.isStale());
+        assertFalse(second.isStale());
+        assertEquals("sunny", second.getDescription());
+        verify(mockApiClient, times(2)).getWeatherFromApi("London");
+    }
+
+    @Test
+    public void testEntryPastHardTtlIsFetchedSynchronously() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Oslo"))
+            .thenReturn(new WeatherData("Oslo", -5.0, "snow"))
+            .thenReturn(new WeatherData("Oslo", -1.0, "fog"));
+        client.getWeatherFromApi("Oslo");
+        clock.addAndGet(minutes(31));
+
+        // Act
+        WeatherData result = client.getWeatherFromApi("Oslo");
+
+        // Assert
+        assertEquals("fog", result.getDescription());
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    public void testSchedulerRefreshesOnlyTheMostRequestedCity() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi(anyString()))
+            .thenAnswer(invocation -> new WeatherData(invocation.getArgument(0), 10.0, "mist"));
+        client.getWeatherFromApi("Rome");
+        client.getWeatherFromApi("Rome");
+        client.getWeatherFromApi("Rome");
+        client.getWeatherFromApi("Berlin");
+        clock.addAndGet(minutes(4) + TimeUnit.SECONDS.toNanos(30));
+
+        // Act - both entries go stale before the next run, but top-K is 1
+        client.refreshHotCities();
+        pendingRefreshes.forEach(Runnable::run);
+
+        // Assert
+        verify(mockApiClient, times(2)).getWeatherFromApi("Rome");
+        verify(mockApiClient, times(1)).getWeatherFromApi("Berlin");
+    }
+
+    @Test
+    public void testSchedulerDropsEntriesPastHardTtl() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Tokyo")).thenReturn(new WeatherData("Tokyo", 25.0, "haze"));
+        client.getWeatherFromApi("Tokyo");
+        clock.addAndGet(minutes(30));
+
+        // Act
+        client.refreshHotCities();
+
+        // Assert
+        assertEquals(0, client.size());
+    }
+
+    @Test
+    public void testAsyncLookupServesCachedEntry() throws Exception {
+        // Arrange
+        WeatherData rome = new WeatherData("Rome", 27.0, "sunny");
+        when(mockApiClient.getWeatherFromApiAsync("Rome")).thenReturn(CompletableFuture.completedFuture(rome));
+
+        // Act
+        client.getWeatherFromApiAsync("Rome").get(5, TimeUnit.SECONDS);
+        WeatherData result = client.getWeatherFromApiAsync("Rome").get(5, TimeUnit.SECONDS);
+
+        // Assert
+        assertSame(rome, result);
+        verify(mockApiClient, times(1)).getWeatherFromApiAsync("Rome");
+    }
+
+    @Test
+    public void testScheduledRefreshesRunOffTheSchedulerThread() throws Exception {
+        // Arrange - the entry passes its soft TTL before the first scheduled run
+        CompletableFuture<String> refreshThread = new CompletableFuture<>();
+        when(mockApiClient.getWeatherFromApi("Oslo"))
+            .thenReturn(new WeatherData("Oslo", 1.0, "snow"))
+            .thenAnswer(invocation -> {
+                refreshThread.complete(Thread.currentThread().getName());
+                return new WeatherData("Oslo", 2.0, "snow");
+            });
+
+        try (RefreshAheadWeatherApiClient scheduled = new RefreshAheadWeatherApiClient(mockApiClient,
+                Duration.ofMillis(1), Duration.ofMinutes(1), 1, Duration.ofMillis(20))) {
+            // Act
+            scheduled.getWeatherFromApi("Oslo");
+
+            // Assert
+            String threadName = refreshThread.get(5, TimeUnit.SECONDS);
+            assertTrue(threadName.startsWith("weather-refresh-"), threadName);
+            assertFalse(threadName.startsWith("weather-refresh-scheduler-"), threadName);
+        }
+    }
+
+    @Test
+    public void testConstructorRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new RefreshAheadWeatherApiClient(
+            mockApiClient, Duration.ofMinutes(10), Duration.ofMinutes(5), 1, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new RefreshAheadWeatherApiClient(
+            null, Duration.ofMinutes(1), Duration.ofMinutes(5), 1, Duration.ofMinutes(1)));
+    }
+
+    private static long minutes(long minutes) {
+        return TimeUnit.MINUTES.toNanos(minutes);
+    }
+}
@@ -0,0 +1,39 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Result class
+ */
+public class ResultTest {
+
+    @Test
+    public void testSuccess() throws WeatherApiException {
+        WeatherData data = new WeatherData("London", 15.5, "Cloudy");
+        Result<WeatherData> result = Result.success(data);
+
+        assertTrue(result.isSuccess());
+        assertSame(data, result.getValue());
+        assertSame(data, result.getOrThrow());
+        assertThrows(IllegalStateException.class, result::getError);
+    }
+
+    @Test
+    public void testFailure() {
+        WeatherApiException error = new WeatherApiException("City not found");
+        Result<WeatherData> result = Result.failure(error);
+
+        assertFalse(result.isSuccess());
+        assertSame(error, result.getError());
+        assertSame(error, assertThrows(WeatherApiException.class, result::getOrThrow));
+        assertThrows(IllegalStateException.class, result::getValue);
+        assertTrue(result.toString().contains("City not found"));
+    }
+
+    @Test
+    public void testFailureRequiresError() {
+        assertThrows(IllegalArgumentException.class, () -> Result.failure(null));
+    }
+}
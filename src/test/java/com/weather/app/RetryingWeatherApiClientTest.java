@@ -0,0 +1,137 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RetryingWeatherApiClient class
+ */
+public class RetryingWeatherApiClientTest {
+
+    private static final RetryPolicy FAST_POLICY =
+        new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofSeconds(5));
+
+    private WeatherApiClient mockApiClient;
+    private WeatherData londonWeather;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        londonWeather = new WeatherData("London", 15.5, "cloudy");
+    }
+
+    @Test
+    public void testTransientFailureIsRetried() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApiAsync("London"))
+            .thenReturn(failed(new WeatherApiException("Network error", new IOException("reset"))))
+            .thenReturn(failed(new WeatherApiException("API error", 503)))
+            .thenReturn(CompletableFuture.completedFuture(londonWeather));
+        RetryingWeatherApiClient client = new RetryingWeatherApiClient(mockApiClient, FAST_POLICY, false);
+
+        // Act
+        WeatherData result = client.getWeatherFromApi("London");
+
+        // Assert
+        assertSame(londonWeather, result);
+        verify(mockApiClient, times(3)).getWeatherFromApiAsync("London");
+    }
+
+    @Test
+    public void testPermanentFailureIsNotRetried() {
+        // Arrange
+        when(mockApiClient.getWeatherFromApiAsync("Atlantis"))
+            .thenReturn(failed(new WeatherApiException("City not found", 404)));
+        RetryingWeatherApiClient client = new RetryingWeatherApiClient(mockApiClient, FAST_POLICY, false);
+
+        // Act
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> client.getWeatherFromApi("Atlantis"));
+
+        // Assert
+        assertEquals("City not found", exception.getMessage());
+        verify(mockApiClient, times(1)).getWeatherFromApiAsync("Atlantis");
+    }
+
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        // Arrange
+        when(mockApiClient.getWeatherFromApiAsync("London"))
+            .thenAnswer(invocation -> failed(new WeatherApiException("Rate limit exceeded", 429)));
+        RetryingWeatherApiClient client = new RetryingWeatherApiClient(mockApiClient, FAST_POLICY, false);
+
+        // Act
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> client.getWeatherFromApi("London"));
+
+        // Assert
+        assertEquals(429, exception.getStatusCode());
+        verify(mockApiClient, times(3)).getWeatherFromApiAsync("London");
+    }
+
+    @Test
+    public void testCallFailsAtDeadline() {
+        // Arrange - the upstream never answers
+        when(mockApiClient.getWeatherFromApiAsync("London")).thenReturn(new CompletableFuture<>());
+        RetryPolicy policy = new RetryPolicy(3, Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(100));
+        RetryingWeatherApiClient client = new RetryingWeatherApiClient(mockApiClient, policy, false);
+
+        // Act
+        long start = System.nanoTime();
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> client.getWeatherFromApi("London"));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("timed out"));
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000);
+    }
+
+    @Test
+    public void testSlowRequestIsHedged() throws WeatherApiException {
+        // Arrange - twenty fast calls establish the p95, then the next request hangs
+        CompletableFuture<WeatherData> fast = CompletableFuture.completedFuture(londonWeather);
+        CompletableFuture<WeatherData> hanging = new CompletableFuture<>();
+        when(mockApiClient.getWeatherFromApiAsync("London")).thenReturn(fast);
+        RetryingWeatherApiClient client = new RetryingWeatherApiClient(mockApiClient, FAST_POLICY, true);
+        for (int i = 0; i < 20; i++) {
+            client.getWeatherFromApi("London");
+        }
+        assertNotNull(client.getHedgeDelay());
+        when(mockApiClient.getWeatherFromApiAsync("London")).thenReturn(hanging, fast);
+
+        // Act
+        WeatherData result = client.getWeatherFromApi("London");
+
+        // Assert
+        assertSame(londonWeather, result);
+        verify(mockApiClient, times(22)).getWeatherFromApiAsync("London");
+    }
+
+    @Test
+    public void testRetryPolicyClassification() {
+        RetryPolicy policy = RetryPolicy.defaults();
+
+        assertTrue(policy.isRetryable(new WeatherApiException("Network error", new IOException())));
+        assertTrue(policy.isRetryable(new WeatherApiException("API error", 502)));
+        assertTrue(policy.isRetryable(new WeatherApiException("Rate limit exceeded", 429)));
+        assertFalse(policy.isRetryable(new RateLimitExceededException("Rate limit exceeded")));
+        assertFalse(policy.isRetryable(new WeatherApiException("Invalid API key", 401)));
+        assertFalse(policy.isRetryable(new WeatherApiException("City name cannot be empty")));
+        assertFalse(policy.isRetryable(new IllegalStateException()));
+
+        assertEquals(Duration.ofMillis(100).toNanos(), policy.backoffNanos(1, 0.5));
+        assertEquals(Duration.ofMillis(400).toNanos(), policy.backoffNanos(3, 0.5));
+        assertEquals(Duration.ofSeconds(1).toNanos(), policy.backoffNanos(10, 0.5));
+    }
+
+    private static CompletableFuture<WeatherData> failed(WeatherApiException exception) {
+        return CompletableFuture.failedFuture(exception);
+    }
+}
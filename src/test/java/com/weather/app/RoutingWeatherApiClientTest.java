@@ -0,0 +1,174 @@
+package com.weather.app;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the RoutingWeatherApiClient class, partly run against local stub HTTP servers
+ */
+public class RoutingWeatherApiClientTest {
+
+    private final List<HttpServer> servers = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // The first request in the JVM builds the shared HttpClient and loads the HTTP stack; keep that
+        // one-off cost out of the latencies the tests compare
+        owm(startServer(new AtomicInteger(), 200, 0)).getWeatherFromApi("London");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        servers.forEach(server -> server.stop(0));
+    }
+
+    @Test
+    public void testRoutesToFasterBackend() throws Exception {
+        // Arrange
+        AtomicInteger fastRequests = new AtomicInteger();
+        AtomicInteger slowRequests = new AtomicInteger();
+        String fastUrl = startServer(fastRequests, 200, 0);
+        String slowUrl = startServer(slowRequests, 200, 200);
+        RoutingWeatherApiClient client = new RoutingWeatherApiClient(Arrays.asList(owm(slowUrl), owm(fastUrl)));
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertEquals("London", client.getWeatherFromApi("London").getCity());
+        }
+
+        // Assert - the slow backend is only tried until its latency is known
+        assertEquals(1, slowRequests.get());
+        assertEquals(9, fastRequests.get());
+        assertTrue(client.getBackends().get(0).getLatencyMillis() > client.getBackends().get(1).getLatencyMillis());
+    }
+
+    @Test
+    public void testServerErrorFailsOverToAnotherBackend() throws Exception {
+        // Arrange
+        AtomicInteger failingRequests = new AtomicInteger();
+        AtomicInteger healthyRequests = new AtomicInteger();
+        String failingUrl = startServer(failingRequests, 500, 0);
+        String healthyUrl = startServer(healthyRequests, 200, 0);
+        RoutingWeatherApiClient client = new RoutingWeatherApiClient(Arrays.asList(owm(failingUrl), owm(healthyUrl)));
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals(20.0, client.getWeatherFromApi("London").getTemperatureCelsius(), 0.001);
+        }
+
+        // Assert - the failing backend is avoided once its error rate is known
+        assertEquals(5, healthyRequests.get());
+        assertTrue(failingRequests.get() <= 2);
+        assertTrue(client.getBackends().get(0).getErrorRate(System.nanoTime()) > 0);
+    }
+
+    @Test
+    public void testClientErrorsAreNotRetriedOrCountedAsFailures() throws WeatherApiException {
+        // Arrange
+        WeatherApiClient first = mock(WeatherApiClient.class);
+        WeatherApiClient second = mock(WeatherApiClient.class);
+        when(first.getWeatherFromApi("Atlantis")).thenThrow(new WeatherApiException("City not found: Atlantis", 404));
+        AtomicLong clock = new AtomicLong();
+        RoutingWeatherApiClient client = new RoutingWeatherApiClient(Arrays.asList(first, second), clock::get,
+            bound -> 0);
+
+        // Act
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> client.getWeatherFromApi("Atlantis"));
+
+        // Assert
+        assertEquals(404, exception.getStatusCode());
+        verifyNoInteractions(second);
+        assertEquals(0.0, client.getBackends().get(0).getErrorRate(clock.get()), 0.0);
+    }
+
+    @Test
+    public void testAsyncLookupFailsOverAndErrorRateFades() throws Exception {
+        // Arrange
+        WeatherApiClient first = mock(WeatherApiClient.class);
+        WeatherApiClient second = mock(WeatherApiClient.class);
+        when(first.getWeatherFromApiAsync("Oslo"))
+            .thenReturn(CompletableFuture.failedFuture(new WeatherApiException("API returned error status: 503", 503)));
+        when(second.getWeatherFromApiAsync("Oslo"))
+            .thenReturn(CompletableFuture.completedFuture(new WeatherData("Oslo", -2.0, "snow")));
+        AtomicLong clock = new AtomicLong();
+        RoutingWeatherApiClient client = new RoutingWeatherApiClient(Arrays.asList(first, second), clock::get,
+            bound -> 0);
+
+        // Act
+        WeatherData weatherData = client.getWeatherFromApiAsync("Oslo").get();
+
+        // Assert
+        assertEquals("Oslo", weatherData.getCity());
+        RoutingWeatherApiClient.Backend failed = client.getBackends().get(0);
+        double errorRate = failed.getErrorRate(clock.get());
+        assertTrue(errorRate > 0);
+        assertEquals(0, failed.getInFlight());
+        clock.addAndGet(RoutingWeatherApiClient.ERROR_DECAY_NANOS);
+        assertEquals(errorRate / Math.E, failed.getErrorRate(clock.get()), 1e-9);
+    }
+
+    @Test
+    public void testForOpenWeatherMapCreatesOneBackendPerKeyOrUrl() {
+        // Act
+        RoutingWeatherApiClient client = RoutingWeatherApiClient.forOpenWeatherMap(
+            Arrays.asList("key-1", "key-2", "key-3"), Arrays.asList("http://localhost:1/data/2.5/weather"),
+            WeatherMetrics.noop());
+
+        // Assert
+        assertEquals(3, client.getBackends().size());
+        assertThrows(IllegalArgumentException.class,
+            () -> RoutingWeatherApiClient.forOpenWeatherMap(new ArrayList<>(), Arrays.asList("http://localhost:1"),
+                WeatherMetrics.noop()));
+    }
+
+    private static OpenWeatherMapClient owm(String baseUrl) {
+        return new OpenWeatherMapClient("test-api-key", baseUrl, null, new RateLimiter(6000, 100, Duration.ZERO));
+    }
+
+    private String startServer(AtomicInteger requests, int status, long delayMillis) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/data/2.5/weather", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, status, status == 200
+                ? "{\"name\":\"London\",\"main\":{\"temp\":20.0},\"weather\":[{\"description\":\"overcast clouds\"}]}"
+                : "{\"cod\":" + status + "}");
+        });
+        server.start();
+        servers.add(server);
+        return "http://localhost:" + server.getAddress().getPort() + "/data/2.5/weather";
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WeatherAggregator class
+ */
+public class WeatherAggregatorTest {
+
+    private static final String[] CITIES = {"London", "Paris", "Oslo", "Rome", "Cairo", "Lima"};
+    private static final String[] DESCRIPTIONS = {"clear sky", "cloudy", "light rain", "snow"};
+
+    @Test
+    public void testHottestCities() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+        store.append(new WeatherData("Oslo", -3.0, "snow"), 1L);
+        store.append(new WeatherData("Cairo", 35.0, "clear sky"), 2L);
+        store.append(new WeatherData("Rome", 22.0, "clear sky"), 3L);
+        store.append(new WeatherData("Oslo", 4.0, "cloudy"), 4L);
+        store.append(new WeatherData("Lima", 22.0, "cloudy"), 5L);
+
+        // Act
+        List<WeatherAggregator.CityTemperature> hottest = new WeatherAggregator(store).hottestCities(3);
+
+        // Assert - ties are broken by city name
+        assertEquals(3, hottest.size());
+        assertEquals("Cairo", hottest.get(0).getCity());
+        assertEquals(35.0, hottest.get(0).getTemperatureCelsius(), 0.001);
+        assertEquals("Lima", hottest.get(1).getCity());
+        assertEquals("Rome", hottest.get(2).getCity());
+    }
+
+    @Test
+    public void testCountByDescriptionAndHistogram() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+        store.append(new WeatherData("Oslo", -3.0, "snow"), 1L);
+        store.append(new WeatherData("Rome", 12.0, "cloudy"), 2L);
+        store.append(new WeatherData("Lima", 19.9, "cloudy"), 3L);
+        store.append(new WeatherData("Cairo", 45.0, "clear sky"), 4L);
+        WeatherAggregator aggregator = new WeatherAggregator(store);
+
+        // Act
+        Map<String, Long> counts = aggregator.countByDescription();
+        long[] histogram = aggregator.temperatureHistogram(0.0, 10.0, 4);
+
+        // Assert - out-of-range temperatures land in the first and last buckets
+        assertEquals(List.of("cloudy", "clear sky", "snow"), List.copyOf(counts.keySet()));
+        assertEquals(2L, counts.get("cloudy"));
+        assertArrayEquals(new long[]{1, 2, 0, 1}, histogram);
+    }
+
+    @Test
+    public void testParallelAndSequentialResultsAreIdentical() {
+        // Arrange - enough rows for many chunks
+        WeatherDataStore store = new WeatherDataStore();
+        Random random = new Random(42);
+        for (int i = 0; i < 20 * WeatherAggregator.CHUNK_SIZE + 123; i++) {
+            store.append(new WeatherData(CITIES[random.nextInt(CITIES.length)], random.nextGaussian() * 15,
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]), i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        WeatherAggregator parallel = new WeatherAggregator(store, pool);
+        WeatherAggregator sequential = new WeatherAggregator(store, false);
+
+        try {
+            // Act & Assert
+            assertEquals(sequential.hottestCities(CITIES.length).toString(),
+                    parallel.hottestCities(CITIES.length).toString());
+            assertEquals(sequential.countByDescription(), parallel.countByDescription());
+            assertArrayEquals(sequential.temperatureHistogram(-40.0, 2.5, 40),
+                    parallel.temperatureHistogram(-40.0, 2.5, 40));
+            assertEquals(store.size(), parallel.countByDescription().values().stream().mapToLong(Long::longValue).sum());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmptyStore() {
+        // Arrange
+        WeatherAggregator aggregator = new WeatherAggregator(new WeatherDataStore());
+
+        // Act & Assert
+        assertTrue(aggregator.hottestCities(5).isEmpty());
+        assertTrue(aggregator.countByDescription().isEmpty());
+        assertArrayEquals(new long[3], aggregator.temperatureHistogram(0.0, 1.0, 3));
+        assertThrows(IllegalArgumentException.class, () -> aggregator.temperatureHistogram(0.0, 0.0, 3));
+    }
+}
@@ -65,6 +65,26 @@ public class WeatherAppTest {
         WeatherApp.setExitOnError(originalExitOnError);
     }
     
+    @Test
+    public void testServeRejectsPortOutOfRange() {
+        // The first call to main applies logging.properties, which removes our handler, so attach it after
+        WeatherApp.main(new String[]{"--serve", "http"});
+        appLogger.addHandler(streamHandler);
+        appLogger.setLevel(Level.ALL);
+
+        for (String port : new String[]{"70000", "-1", "http"}) {
+            // Arrange
+            logContent.reset();
+
+            // Act
+            WeatherApp.main(new String[]{"--serve", port});
+
+            // Assert
+            streamHandler.flush();
+            assertTrue(logContent.toString().contains("Usage: java -jar WeatherApp.jar --serve <port>"), port);
+        }
+    }
+
     // Note: The following tests would require mocking or a real API key
     // They are commented out since they're for demonstration purposes
     
@@ -0,0 +1,88 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WeatherConfig class
+ */
+public class WeatherConfigTest {
+
+    @Test
+    public void testDefaultsWhenNothingIsConfigured() {
+        // Act
+        WeatherConfig config = WeatherConfig.resolve(name -> null, new Properties());
+
+        // Assert
+        assertNull(config.getApiKey());
+        assertTrue(config.getApiKeys().isEmpty());
+        assertEquals(WeatherConfig.DEFAULT_API_URL, config.getApiBaseUrl());
+        assertEquals(Collections.singletonList(WeatherConfig.DEFAULT_API_URL), config.getApiBaseUrls());
+        assertEquals(60, config.getRequestsPerMinute());
+        assertEquals(Duration.ofSeconds(10), config.getHttpRequestTimeout());
+        assertEquals(HttpClient.Version.HTTP_2, config.getHttpVersion());
+        assertEquals(CachingWeatherApiClient.DEFAULT_TTL, config.getCacheTtl());
+        assertEquals(CachingWeatherApiClient.DEFAULT_MAX_ENTRIES, config.getCacheMaxEntries());
+        assertEquals(WeatherService.DEFAULT_MAX_CONCURRENCY, config.getMaxConcurrency());
+        assertFalse(config.useVirtualThreads());
+        assertNull(config.getHistoryFile());
+        assertNull(config.getCacheFile());
+    }
+
+    @Test
+    public void testEnvironmentOverridesProperties() {
+        // Arrange
+        Map<String, String> environment = new HashMap<>();
+        environment.put("OPENWEATHERMAP_API_KEY", "env-key");
+        environment.put("WEATHER_CACHE_TTL_SECONDS", "30");
+        environment.put("WEATHER_CACHE_FILE", " /tmp/weather.cache ");
+        Properties properties = new Properties();
+        properties.setProperty("api.key", "file-key");
+        properties.setProperty("cache.ttl.seconds", "120");
+        properties.setProperty("cache.max.entries", "50");
+        properties.setProperty("cache.file", "/var/cache/weather.cache");
+        properties.setProperty("http.version", "http_1_1");
+
+        // Act
+        WeatherConfig config = WeatherConfig.resolve(environment::get, properties);
+
+        // Assert
+        assertEquals("env-key", config.getApiKey());
+        assertEquals(Collections.singletonList("env-key"), config.getApiKeys());
+        assertEquals(Duration.ofSeconds(30), config.getCacheTtl());
+        assertEquals(50, config.getCacheMaxEntries());
+        assertEquals(Paths.get("/tmp/weather.cache"), config.getCacheFile());
+        assertEquals(HttpClient.Version.HTTP_1_1, config.getHttpVersion());
+    }
+
+    @Test
+    public void testListsAndInvalidValues() {
+        // Arrange
+        Properties properties = new Properties();
+        properties.setProperty("api.keys", " key-1, key-2 ,,key-1");
+        properties.setProperty("api.base.urls", "http://a/weather,http://b/weather");
+        properties.setProperty("lookup.max.concurrency", "0");
+        properties.setProperty("http.request.timeout.ms", "soon");
+        properties.setProperty("http.version", "HTTP_3");
+
+        // Act
+        WeatherConfig config = WeatherConfig.resolve(name -> null, properties);
+
+        // Assert
+        assertEquals(Arrays.asList("key-1", "key-2"), config.getApiKeys());
+        assertEquals(Arrays.asList("http://a/weather", "http://b/weather"), config.getApiBaseUrls());
+        assertEquals(WeatherService.DEFAULT_MAX_CONCURRENCY, config.getMaxConcurrency());
+        assertEquals(Duration.ofSeconds(10), config.getHttpRequestTimeout());
+        assertEquals(HttpClient.Version.HTTP_2, config.getHttpVersion());
+    }
+}
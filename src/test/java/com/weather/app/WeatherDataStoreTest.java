@@ -0,0 +1,131 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WeatherDataStore class
+ */
+public class WeatherDataStoreTest {
+
+    @Test
+    public void testAppendAndGet() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore(1);
+
+        // Act
+        int first = store.append(new WeatherData("London", 15.5, "cloudy"), 1_000L);
+        int second = store.append(new WeatherData("Paris", 18.0, "clear sky"), 2_000L);
+
+        // Assert
+        assertEquals(0, first);
+        assertEquals(1, second);
+        assertEquals(2, store.size());
+        WeatherData paris = store.get(second);
+        assertEquals("Paris", paris.getCity());
+        assertEquals(18.0, paris.getTemperatureCelsius(), 0.001);
+        assertEquals("clear sky", paris.getDescription());
+        assertEquals(2_000L, store.getTimestamp(second));
+        assertThrows(IndexOutOfBoundsException.class, () -> store.get(2));
+    }
+
+    @Test
+    public void testCitiesAndDescriptionsAreStoredOnce() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+
+        // Act
+        for (int i = 0; i < 10_000; i++) {
+            String city = i % 2 == 0 ? "London" : " LONDON ";
+            store.append(new WeatherData(city, i % 30, i % 3 == 0 ? "rain" : "cloudy"), i);
+        }
+
+        // Assert
+        assertEquals(10_000, store.size());
+        assertEquals(1, store.cityCount());
+        assertEquals(2, store.descriptionCount());
+        assertEquals("London", store.get(1).getCity());
+    }
+
+    @Test
+    public void testScanTimeRange() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+        for (int i = 0; i < 100; i++) {
+            store.append(new WeatherData("London", i, "cloudy"), i * 10L);
+        }
+        List<Long> visited = new ArrayList<>();
+
+        // Act
+        store.scan(200L, 250L, (timestamp, city, temperature, description) -> visited.add(timestamp));
+
+        // Assert
+        assertEquals(List.of(200L, 210L, 220L, 230L, 240L), visited);
+    }
+
+    @Test
+    public void testScanTimeRangeWithOutOfOrderAppends() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+        store.append(new WeatherData("London", 1.0, "cloudy"), 300L);
+        store.append(new WeatherData("London", 2.0, "cloudy"), 100L);
+        store.append(new WeatherData("London", 3.0, "cloudy"), 200L);
+        List<Double> visited = new ArrayList<>();
+
+        // Act
+        store.scan(100L, 300L, (timestamp, city, temperature, description) -> visited.add(temperature));
+
+        // Assert - rows are visited in append order
+        assertEquals(List.of(2.0, 3.0), visited);
+    }
+
+    @Test
+    public void testScanCity() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+        for (int i = 0; i < 30; i++) {
+            store.append(new WeatherData(i % 3 == 0 ? "Oslo" : "Rome", i, "clear sky"), i);
+        }
+        double[] sum = new double[1];
+
+        // Act
+        int oslo = store.scanCity("oslo", (timestamp, city, temperature, description) -> sum[0] += temperature);
+        int atlantis = store.scanCity("Atlantis", (timestamp, city, temperature, description) -> fail());
+
+        // Assert
+        assertEquals(10, oslo);
+        assertEquals(0 + 3 + 6 + 9 + 12 + 15 + 18 + 21 + 24 + 27, sum[0], 0.001);
+        assertEquals(0, atlantis);
+    }
+
+    @Test
+    public void testScanCityByAlias() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+        store.append(new WeatherData("New York", 20.0, "clear sky"), 1L);
+        store.append(new WeatherData("NYC", 22.0, "clear sky"), 2L);
+        List<String> cities = new ArrayList<>();
+
+        // Act
+        int newYork = store.scanCity("nyc", (timestamp, city, temperature, description) -> cities.add(city));
+
+        // Assert
+        assertEquals(2, newYork);
+        assertEquals(List.of("New York", "New York"), cities);
+    }
+
+    @Test
+    public void testRejectsInvalidInput() {
+        // Arrange
+        WeatherDataStore store = new WeatherDataStore();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new WeatherDataStore(0));
+        assertThrows(IllegalArgumentException.class, () -> store.append(null, 0L));
+        assertThrows(IllegalArgumentException.class, () -> store.append(new WeatherData(" ", 1.0, "rain"), 0L));
+    }
+}
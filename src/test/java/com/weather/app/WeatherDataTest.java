@@ -30,5 +30,18 @@ public class WeatherDataTest {
         assertTrue(result.contains("Sunny"));
     }
 
+    @Test
+    public void testAsStale() {
+        WeatherData data = new WeatherData("Oslo", -2.0, "Snow");
+        WeatherData stale = data.asStale();
+
+        assertFalse(data.isStale());
+        assertTrue(stale.isStale());
+        assertEquals("Oslo", stale.getCity());
+        assertEquals(-2.0, stale.getTemperatureCelsius(), 0.001);
+        assertTrue(stale.toString().contains("last known data"));
+        assertFalse(data.toString().contains("last known data"));
+    }
+
 
 }
@@ -0,0 +1,111 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WeatherJsonParser class
+ */
+public class WeatherJsonParserTest {
+
+    private static final String FULL_RESPONSE = "{"
+        + "\"coord\":{\"lon\":-0.1257,\"lat\":51.5085},"
+        + "\"weather\":[{\"id\":802,\"main\":\"Clouds\",\"description\":\"scattered clouds\",\"icon\":\"03d\"},"
+        + "{\"id\":701,\"main\":\"Mist\",\"description\":\"mist\",\"icon\":\"50d\"}],"
+        + "\"base\":\"stations\","
+        + "\"main\":{\"temp\":15.5,\"feels_like\":14.8,\"temp_min\":13.9,\"temp_max\":16.7,"
+        + "\"pressure\":1012,\"humidity\":72},"
+        + "\"visibility\":10000,\"wind\":{\"speed\":4.12,\"deg\":250},\"clouds\":{\"all\":40},"
+        + "\"dt\":1700000000,\"sys\":{\"type\":2,\"id\":2075535,\"country\":\"GB\",\"sunrise\":1699946000},"
+        + "\"timezone\":0,\"id\":2643743,\"name\":\"London\",\"cod\":200,\"rain\":null,\"flag\":true"
+        + "}";
+
+    @Test
+    public void testParseFullResponse() throws WeatherApiException {
+        WeatherData data = parse(FULL_RESPONSE);
+
+        assertEquals("London", data.getCity());
+        assertEquals(15.5, data.getTemperatureCelsius(), 0.001);
+        assertEquals("scattered clouds", data.getDescription());
+    }
+
+    @Test
+    public void testParseWithWhitespaceAndKeyOrder() throws WeatherApiException {
+        WeatherData data = parse(" {\n  \"main\" : { \"temp\" : -3.25e0 },\n"
+            + "  \"name\" : \"Oslo\",\n  \"weather\" : [ { \"description\" : \"snow\" } ]\n}\n");
+
+        assertEquals("Oslo", data.getCity());
+        assertEquals(-3.25, data.getTemperatureCelsius(), 0.001);
+        assertEquals("snow", data.getDescription());
+    }
+
+    @Test
+    public void testParseDecodesEscapesAndUnicode() throws WeatherApiException {
+        WeatherData data = parse("{\"name\":\"São Paulo\",\"main\":{\"temp\":28},"
+            + "\"weather\":[{\"description\":\"\\\"heavy\\\" rain \\u2614\\n\"}]}");
+
+        assertEquals("São Paulo", data.getCity());
+        assertEquals("\"heavy\" rain ☔\n", data.getDescription());
+    }
+
+    @Test
+    public void testIgnoresLookalikeKeysInNestedObjects() throws WeatherApiException {
+        WeatherData data = parse("{\"sys\":{\"name\":\"wrong\",\"temp\":99},"
+            + "\"name\":\"Rome\",\"main\":{\"temp\":21.0},\"weather\":[{\"description\":\"clear sky\"}]}");
+
+        assertEquals("Rome", data.getCity());
+        assertEquals(21.0, data.getTemperatureCelsius(), 0.001);
+    }
+
+    @Test
+    public void testMissingFieldIsReported() {
+        WeatherApiException exception = assertThrows(WeatherApiException.class,
+            () -> parse("{\"name\":\"London\",\"main\":{\"temp\":15.5},\"weather\":[]}"));
+
+        assertTrue(exception.getMessage().contains("parsing weather data"));
+    }
+
+    @Test
+    public void testMalformedJsonIsReported() {
+        assertThrows(WeatherApiException.class, () -> parse("{invalid-json}"));
+        assertThrows(WeatherApiException.class, () -> parse("{\"name\":\"London\""));
+        assertThrows(WeatherApiException.class, () -> parse(FULL_RESPONSE + "}"));
+        assertThrows(WeatherApiException.class, () -> parse(""));
+    }
+
+    @Test
+    public void testParseGroupResponseKeysCitiesById() throws WeatherApiException {
+        Map<Long, WeatherData> weatherById = WeatherJsonParser.parseGroup(("{\"cnt\":2,\"list\":["
+            + FULL_RESPONSE + ","
+            + "{\"id\":2988507,\"name\":\"Paris\",\"main\":{\"temp\":18},"
+            + "\"weather\":[{\"id\":800,\"description\":\"clear sky\"}]}]}").getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(2, weatherById.size());
+        assertEquals("London", weatherById.get(2643743L).getCity());
+        assertEquals("scattered clouds", weatherById.get(2643743L).getDescription());
+        assertEquals("Paris", weatherById.get(2988507L).getCity());
+        assertEquals(18.0, weatherById.get(2988507L).getTemperatureCelsius(), 0.001);
+    }
+
+    @Test
+    public void testMalformedGroupResponseIsReported() {
+        assertThrows(WeatherApiException.class, () -> parseGroup("{\"cnt\":0}"));
+        assertThrows(WeatherApiException.class, () -> parseGroup("{\"list\":[" + FULL_RESPONSE + "]"));
+        // Every entry needs its id, or it could not be matched to the requested city
+        assertThrows(WeatherApiException.class, () -> parseGroup("{\"list\":[{\"name\":\"Oslo\","
+            + "\"main\":{\"temp\":1},\"weather\":[{\"description\":\"snow\"}]}]}"));
+        assertTrue(assertDoesNotThrow(() -> parseGroup("{\"cnt\":0,\"list\":[]}")).isEmpty());
+    }
+
+    private static WeatherData parse(String json) throws WeatherApiException {
+        return WeatherJsonParser.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<Long, WeatherData> parseGroup(String json) throws WeatherApiException {
+        return WeatherJsonParser.parseGroup(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
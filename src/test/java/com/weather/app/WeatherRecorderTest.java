@@ -0,0 +1,116 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the WeatherRecorder class
+ */
+public class WeatherRecorderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testSummarizeTimeWindow() throws IOException {
+        try (WeatherRecorder recorder = new WeatherRecorder(tempDir.resolve("history.bin"), 4)) {
+            for (int hour = 0; hour < 24; hour++) {
+                recorder.record(new WeatherData("London", hour, "cloudy"), hour * 3_600_000L);
+                recorder.record(new WeatherData("Paris", 100 + hour, "clear sky"), hour * 3_600_000L);
+            }
+
+            WeatherRecorder.TemperatureSummary london =
+                    recorder.summarize(" london ", 6 * 3_600_000L, 12 * 3_600_000L).orElseThrow();
+
+            assertEquals("London", london.getCity());
+            assertEquals(6, london.getCount());
+            assertEquals(6.0, london.getMinCelsius(), 0.001);
+            assertEquals(11.0, london.getMaxCelsius(), 0.001);
+            assertEquals(8.5, london.getAverageCelsius(), 0.001);
+            assertEquals(48, recorder.size());
+        }
+    }
+
+    @Test
+    public void testSummarizeWithoutMatches() throws IOException {
+        try (WeatherRecorder recorder = new WeatherRecorder(tempDir.resolve("history.bin"), 4)) {
+            recorder.record(new WeatherData("Oslo", -5.0, "snow"), 1_000L);
+
+            assertTrue(recorder.summarize("Oslo", 2_000L, 3_000L).isEmpty());
+            assertTrue(recorder.summarize("Atlantis", 0L, Long.MAX_VALUE).isEmpty());
+        }
+    }
+
+    @Test
+    public void testSummarizeByAlias() throws IOException {
+        try (WeatherRecorder recorder = new WeatherRecorder(tempDir.resolve("history.bin"), 4)) {
+            recorder.record(new WeatherData("New York", 20.0, "clear sky"), 1_000L);
+            recorder.record(new WeatherData("NYC", 22.0, "clear sky"), 2_000L);
+
+            WeatherRecorder.TemperatureSummary newYork = recorder.summarize("nyc", 0L, Long.MAX_VALUE).orElseThrow();
+
+            assertEquals("New York", newYork.getCity());
+            assertEquals(2, newYork.getCount());
+            assertEquals(21.0, newYork.getAverageCelsius(), 0.001);
+        }
+    }
+
+    @Test
+    public void testRecordsSurviveReopen() throws IOException {
+        Path file = tempDir.resolve("history.bin");
+        try (WeatherRecorder recorder = new WeatherRecorder(file, 4)) {
+            for (int i = 0; i < 10; i++) {
+                recorder.record(new WeatherData("Oslo", i, i % 2 == 0 ? "snow" : "light snow"), i);
+            }
+        }
+
+        try (WeatherRecorder recorder = new WeatherRecorder(file, 4)) {
+            recorder.record(new WeatherData("Rome", 20.0, "clear sky"), 10L);
+
+            assertEquals(11, recorder.size());
+            assertEquals(4.5, recorder.summarize("Oslo", 0L, 10L).orElseThrow().getAverageCelsius(), 0.001);
+            assertEquals(1, recorder.summarize("Rome", 0L, 11L).orElseThrow().getCount());
+        }
+    }
+
+    @Test
+    public void testRecordsWithLostDictionaryEntriesAreDiscarded() throws IOException {
+        Path file = tempDir.resolve("history.bin");
+        Path dictionary = tempDir.resolve("history.bin.dict");
+        try (WeatherRecorder recorder = new WeatherRecorder(file, 4)) {
+            recorder.record(new WeatherData("Oslo", -5.0, "snow"), 1_000L);
+        }
+        long intactLength = Files.size(dictionary);
+        try (WeatherRecorder recorder = new WeatherRecorder(file, 4)) {
+            recorder.record(new WeatherData("Rome", 20.0, "clear sky"), 2_000L);
+        }
+        // Simulate a crash that lost the tail of the dictionary, including a half-written entry
+        try (FileChannel channel = FileChannel.open(dictionary, StandardOpenOption.WRITE)) {
+            channel.truncate(intactLength + 3);
+        }
+
+        try (WeatherRecorder recorder = new WeatherRecorder(file, 4)) {
+            assertEquals(1, recorder.size());
+            assertTrue(recorder.summarize("Rome", 0L, 3_000L).isEmpty());
+            assertEquals(intactLength, Files.size(dictionary));
+            recorder.record(new WeatherData("Rome", 21.0, "clear sky"), 3_000L);
+            assertEquals(21.0, recorder.summarize("Rome", 0L, 4_000L).orElseThrow().getMaxCelsius(), 0.001);
+        }
+    }
+
+    @Test
+    public void testRejectsForeignFile() throws IOException {
+        Path file = tempDir.resolve("not-history.bin");
+        Files.write(file, new byte[64]);
+
+        assertThrows(IOException.class, () -> new WeatherRecorder(file));
+    }
+}
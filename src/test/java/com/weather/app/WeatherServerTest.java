@@ -0,0 +1,158 @@
+package com.weather.app;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the WeatherServer class
+ */
+public class WeatherServerTest {
+
+    private WeatherApiClient mockApiClient;
+    private InMemoryWeatherMetrics metrics;
+    private ExecutorService executor;
+    private WeatherServer server;
+    private HttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockApiClient = mock(WeatherApiClient.class);
+        metrics = new InMemoryWeatherMetrics();
+        executor = Executors.newFixedThreadPool(2);
+        server = new WeatherServer(new WeatherService(mockApiClient, WeatherService.DEFAULT_MAX_CONCURRENCY, false,
+            metrics), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), executor, metrics);
+        server.start();
+        httpClient = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testWeatherEndpointReturnsJson() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("São Paulo")).thenReturn(new WeatherData("São Paulo", 28.0, "rain"));
+
+        // Act
+        HttpResponse<String> response = get("/weather?city=S%C3%A3o+Paulo");
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/json"));
+        JSONObject body = new JSONObject(response.body());
+        assertEquals("São Paulo", body.getString("city"));
+        assertEquals(28.0, body.getDouble("temperatureCelsius"), 0.001);
+        assertEquals("rain", body.getString("description"));
+    }
+
+    @Test
+    public void testLookupErrorsMapToStatusCodes() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Atlantis")).thenThrow(new WeatherApiException("City not found", 404));
+        when(mockApiClient.getWeatherFromApi("London")).thenThrow(new WeatherApiException("API error", 500));
+
+        // Act & Assert
+        HttpResponse<String> notFound = get("/weather?city=Atlantis");
+        assertEquals(404, notFound.statusCode());
+        assertEquals("City not found", new JSONObject(notFound.body()).getString("error"));
+        assertEquals(502, get("/weather?city=London").statusCode());
+        assertEquals(400, get("/weather").statusCode());
+        assertEquals(404, get("/weather/unknown").statusCode());
+    }
+
+    @Test
+    public void testBatchEndpointReportsEachCity() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        when(mockApiClient.getWeatherFromApi("Atlantis")).thenThrow(new WeatherApiException("City not found", 404));
+
+        // Act
+        HttpResponse<String> response = get("/weather/batch?city=London&city=Atlantis");
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        JSONArray results = new JSONArray(response.body());
+        assertEquals(2, results.length());
+        assertEquals("London", results.getJSONObject(0).getString("city"));
+        assertEquals("cloudy", results.getJSONObject(0).getJSONObject("weather").getString("description"));
+        assertEquals("City not found", results.getJSONObject(1).getString("error"));
+        assertEquals(404, results.getJSONObject(1).getInt("status"));
+    }
+
+    @Test
+    public void testMalformedEscapeIsBadRequest() throws Exception {
+        // Arrange - HttpClient refuses to send an invalid escape, so the request is written by hand
+        String request = "GET /weather?city=%zz HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+
+        // Act
+        String statusLine;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            statusLine = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                StandardCharsets.US_ASCII)).readLine();
+        }
+
+        // Assert
+        assertTrue(statusLine.startsWith("HTTP/1.1 400"), statusLine);
+        verifyNoInteractions(mockApiClient);
+    }
+
+    @Test
+    public void testOnlyGetIsAllowed() throws Exception {
+        // Act
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/weather?city=London"))
+            .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+
+        // Assert
+        assertEquals(405, response.statusCode());
+        verifyNoInteractions(mockApiClient);
+    }
+
+    @Test
+    public void testMetricsEndpointReportsLookups() throws Exception {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        get("/weather?city=London");
+
+        // Act
+        HttpResponse<String> response = get("/metrics");
+
+        // Assert
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("text/plain"));
+        assertTrue(response.body().contains("weather_lookup_seconds_count 1\n"));
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException {
+        return httpClient.send(HttpRequest.newBuilder(uri(pathAndQuery)).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort()
+            + pathAndQuery);
+    }
+}
@@ -2,6 +2,22 @@ package com.weather.app;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 // Import main application classes correctly
@@ -56,7 +72,7 @@ public class WeatherServiceTest {
     public void testGetWeatherNullCity() throws WeatherApiException {
         // Act & Assert
         WeatherApiException exception = assertThrows(WeatherApiException.class, 
-            () -> weatherService.getWeather(null));
+            () -> weatherService.getWeather((String) null));
         
         assertTrue(exception.getMessage().contains("cannot be empty"));
         // Verify that the API client was never called
@@ -78,4 +94,213 @@ public class WeatherServiceTest {
         assertEquals(errorMessage, exception.getMessage());
         verify(mockApiClient).getWeatherFromApi(city);
     }
+
+    @Test
+    public void testGetWeatherAsyncValidCity() throws Exception {
+        // Arrange
+        String city = "Paris";
+        WeatherData expectedData = new WeatherData("Paris", 22.5, "Clear");
+        when(mockApiClient.getWeatherFromApiAsync(city))
+            .thenReturn(CompletableFuture.completedFuture(expectedData));
+        
+        // Act
+        WeatherData actualData = weatherService.getWeatherAsync(city).get(5, TimeUnit.SECONDS);
+        
+        // Assert
+        assertEquals(expectedData, actualData);
+        verify(mockApiClient).getWeatherFromApiAsync(city);
+        verify(mockApiClient, never()).getWeatherFromApi(any());
+    }
+    
+    @Test
+    public void testGetWeatherAsyncEmptyCity() {
+        // Act
+        CompletableFuture<WeatherData> result = weatherService.getWeatherAsync(" ");
+        
+        // Assert
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertTrue(exception.getCause() instanceof WeatherApiException);
+        assertTrue(exception.getCause().getMessage().contains("cannot be empty"));
+        verifyNoInteractions(mockApiClient);
+    }
+    
+    @Test
+    public void testGetWeatherAsyncApiException() {
+        // Arrange
+        String city = "Error";
+        WeatherApiException apiError = new WeatherApiException("API Error");
+        when(mockApiClient.getWeatherFromApiAsync(city))
+            .thenReturn(CompletableFuture.failedFuture(apiError));
+        
+        // Act & Assert
+        ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> weatherService.getWeatherAsync(city).get(5, TimeUnit.SECONDS));
+        
+        assertSame(apiError, exception.getCause());
+    }
+
+    @Test
+    public void testGetWeatherForManyCitiesReportsEachOutcome() throws WeatherApiException {
+        // Arrange
+        WeatherData paris = new WeatherData("Paris", 22.5, "Clear");
+        WeatherData rome = new WeatherData("Rome", 27.0, "Sunny");
+        when(mockApiClient.getWeatherFromApi("Paris")).thenReturn(paris);
+        when(mockApiClient.getWeatherFromApi("Rome")).thenReturn(rome);
+        when(mockApiClient.getWeatherFromApi("Atlantis")).thenThrow(new WeatherApiException("City not found"));
+        
+        // Act
+        Map<String, Result<WeatherData>> results =
+            weatherService.getWeather(Arrays.asList("Paris", "Atlantis", "", "Rome", "Paris"));
+        
+        // Assert
+        assertEquals(Arrays.asList("Paris", "Atlantis", "", "Rome"), new ArrayList<>(results.keySet()));
+        assertSame(paris, results.get("Paris").getValue());
+        assertSame(rome, results.get("Rome").getValue());
+        assertEquals("City not found", results.get("Atlantis").getError().getMessage());
+        assertTrue(results.get("").getError().getMessage().contains("cannot be empty"));
+        verify(mockApiClient, times(1)).getWeatherFromApi("Paris");
+    }
+    
+    @Test
+    public void testGetWeatherForManyCitiesRespectsMaxConcurrency() throws WeatherApiException {
+        // Arrange
+        int maxConcurrency = 3;
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return new WeatherData(invocation.getArgument(0), 10.0, "Cloudy");
+        });
+        WeatherService boundedService = new WeatherService(mockApiClient, maxConcurrency);
+        List<String> cities = IntStream.range(0, 12).mapToObj(i -> "City " + i).collect(Collectors.toList());
+        
+        // Act
+        Map<String, Result<WeatherData>> results = boundedService.getWeather(cities);
+        
+        // Assert
+        assertEquals(12, results.size());
+        assertTrue(results.values().stream().allMatch(Result::isSuccess));
+        assertTrue(peak.get() > 1, "Lookups should overlap");
+        assertTrue(peak.get() <= maxConcurrency, "At most " + maxConcurrency + " lookups may run at once");
+    }
+    
+    @Test
+    public void testBulkLookupsShareOneExecutor() throws WeatherApiException {
+        // Arrange
+        int maxConcurrency = 2;
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            threadNames.add(Thread.currentThread().getName());
+            return new WeatherData(invocation.getArgument(0), 10.0, "Cloudy");
+        });
+        WeatherService boundedService = new WeatherService(mockApiClient, maxConcurrency);
+        List<String> cities = IntStream.range(0, 6).mapToObj(i -> "City " + i).collect(Collectors.toList());
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            boundedService.getWeather(cities);
+        }
+        boundedService.close();
+        Map<String, Result<WeatherData>> afterClose = boundedService.getWeather(cities);
+
+        // Assert
+        assertTrue(threadNames.size() <= maxConcurrency, "Repeated calls should reuse the same threads");
+        assertEquals("Weather service is closed", afterClose.get("City 0").getError().getMessage());
+    }
+
+    @Test
+    public void testSetMaxConcurrencyAppliesToLaterBulkLookups() throws WeatherApiException {
+        // Arrange
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return new WeatherData(invocation.getArgument(0), 10.0, "Cloudy");
+        });
+        WeatherService boundedService = new WeatherService(mockApiClient, 4);
+        List<String> cities = IntStream.range(0, 8).mapToObj(i -> "City " + i).collect(Collectors.toList());
+
+        // Act
+        boundedService.setMaxConcurrency(1);
+        Map<String, Result<WeatherData>> results = boundedService.getWeather(cities);
+
+        // Assert
+        assertTrue(results.values().stream().allMatch(Result::isSuccess));
+        assertEquals(1, peak.get());
+        assertThrows(IllegalArgumentException.class, () -> boundedService.setMaxConcurrency(0));
+        boundedService.close();
+    }
+
+    @Test
+    public void testBulkLookupGoesThroughBatchesWhenSupported() throws WeatherApiException {
+        // Arrange
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        when(mockApiClient.supportsBatch()).thenReturn(true);
+        when(mockApiClient.getWeatherForCities(anyCollection())).thenAnswer(invocation -> {
+            List<String> batch = new ArrayList<>(invocation.<Collection<String>>getArgument(0));
+            batches.add(batch);
+            Map<String, Result<WeatherData>> results = new LinkedHashMap<>();
+            for (String city : batch) {
+                results.put(city, "City 7".equals(city)
+                        ? Result.failure(new WeatherApiException("City not found", 404))
+                        : Result.success(new WeatherData(city, 10.0, "Cloudy")));
+            }
+            return results;
+        });
+        List<String> cities = IntStream.range(0, 45).mapToObj(i -> "City " + i).collect(Collectors.toList());
+        cities.add(1, " ");
+
+        // Act
+        Map<String, Result<WeatherData>> results = weatherService.getWeather(cities);
+
+        // Assert
+        assertEquals(cities, new ArrayList<>(results.keySet()));
+        assertEquals(Arrays.asList(20, 20, 5),
+                batches.stream().map(List::size).sorted(Collections.reverseOrder()).collect(Collectors.toList()));
+        assertTrue(results.get(" ").getError().getMessage().contains("cannot be empty"));
+        assertEquals("City not found", results.get("City 7").getError().getMessage());
+        assertEquals(44, results.values().stream().filter(Result::isSuccess).count());
+        verify(mockApiClient, never()).getWeatherFromApi(anyString());
+    }
+
+    @Test
+    public void testGetWeatherForManyCitiesOnVirtualThreads() throws WeatherApiException {
+        // Arrange
+        int maxConcurrency = 3;
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+        when(mockApiClient.getWeatherFromApi(anyString())).thenAnswer(invocation -> {
+            threadNames.add(Thread.currentThread().getName());
+            peak.accumulateAndGet(active.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            active.decrementAndGet();
+            return new WeatherData(invocation.getArgument(0), 10.0, "Cloudy");
+        });
+        WeatherService virtualService = new WeatherService(mockApiClient, maxConcurrency, true);
+        List<String> cities = IntStream.range(0, 12).mapToObj(i -> "City " + i).collect(Collectors.toList());
+
+        // Act
+        Map<String, Result<WeatherData>> results = virtualService.getWeather(cities);
+
+        // Assert - on JDKs without virtual threads the service falls back to its platform pool
+        assertEquals(12, results.size());
+        assertTrue(results.values().stream().allMatch(Result::isSuccess));
+        assertTrue(peak.get() <= maxConcurrency, "At most " + maxConcurrency + " lookups may run at once");
+        boolean onPlatformPool = threadNames.stream().allMatch(name -> name.startsWith("weather-bulk-"));
+        assertEquals(!VirtualThreads.isAvailable(), onPlatformPool);
+    }
+
+    @Test
+    public void testGetWeatherForNoCities() {
+        // Act & Assert
+        assertTrue(weatherService.getWeather(Collections.<String>emptyList()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> weatherService.getWeather((Collection<String>) null));
+        assertThrows(IllegalArgumentException.class, () -> new WeatherService(mockApiClient, 0));
+        verifyNoInteractions(mockApiClient);
+    }
 }
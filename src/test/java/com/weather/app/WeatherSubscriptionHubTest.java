@@ -0,0 +1,175 @@
+package com.weather.app;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the WeatherSubscriptionHub class
+ */
+public class WeatherSubscriptionHubTest {
+
+    private WeatherApiClient mockApiClient;
+    private WeatherSubscriptionHub hub;
+
+    @BeforeEach
+    public void setUp() {
+        mockApiClient = mock(WeatherApiClient.class);
+        // Deliver on the polling thread and poll by hand, so the tests are deterministic
+        hub = new WeatherSubscriptionHub(new WeatherService(mockApiClient), Runnable::run, null);
+    }
+
+    @Test
+    public void testOnlyChangesArePublished() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London"))
+            .thenReturn(new WeatherData("London", 15.5, "cloudy"))
+            .thenReturn(new WeatherData("London", 15.5, "cloudy"))
+            .thenReturn(new WeatherData("London", 15.5, "light rain"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher(Collections.singletonList("London")).subscribe(subscriber);
+
+        // Act
+        hub.poll();
+        hub.poll();
+        hub.poll();
+
+        // Assert
+        assertEquals(2, subscriber.items.size());
+        assertEquals("cloudy", subscriber.items.get(0).getDescription());
+        assertEquals("light rain", subscriber.items.get(1).getDescription());
+    }
+
+    @Test
+    public void testEachCityIsPolledOnceForAllSubscribers() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("London")).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        when(mockApiClient.getWeatherFromApi("Paris")).thenReturn(new WeatherData("Paris", 18.0, "clear sky"));
+        RecordingSubscriber first = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber second = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher(Arrays.asList("London", "Paris")).subscribe(first);
+        hub.publisher(Collections.singletonList(" london ")).subscribe(second);
+
+        // Act
+        hub.poll();
+        RecordingSubscriber late = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher(Collections.singletonList("Paris")).subscribe(late);
+
+        // Assert
+        verify(mockApiClient, times(1)).getWeatherFromApi("London");
+        verify(mockApiClient, times(1)).getWeatherFromApi("Paris");
+        assertEquals(2, first.items.size());
+        assertEquals(1, second.items.size());
+        assertEquals("London", second.items.get(0).getCity());
+        // A late subscriber starts with the last published observation
+        assertEquals(1, late.items.size());
+        assertEquals("Paris", late.items.get(0).getCity());
+        assertEquals(3, hub.getSubscriptionCount());
+    }
+
+    @Test
+    public void testSlowSubscriberReceivesOnlyTheLatestUpdate() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi("Oslo"))
+            .thenReturn(new WeatherData("Oslo", -2.0, "snow"))
+            .thenReturn(new WeatherData("Oslo", -1.0, "snow"))
+            .thenReturn(new WeatherData("Oslo", 0.5, "sleet"));
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        hub.publisher(Collections.singletonList("Oslo")).subscribe(subscriber);
+
+        // Act - three changes arrive without demand
+        hub.poll();
+        hub.poll();
+        hub.poll();
+        assertTrue(subscriber.items.isEmpty());
+        subscriber.subscription.request(5);
+
+        // Assert
+        assertEquals(1, subscriber.items.size());
+        assertEquals(0.5, subscriber.items.get(0).getTemperatureCelsius(), 0.001);
+    }
+
+    @Test
+    public void testCancelStopsPollingAndCloseCompletesSubscribers() throws WeatherApiException {
+        // Arrange
+        when(mockApiClient.getWeatherFromApi(anyString())).thenReturn(new WeatherData("London", 15.5, "cloudy"));
+        RecordingSubscriber cancelled = new RecordingSubscriber(Long.MAX_VALUE);
+        RecordingSubscriber open = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher(Collections.singletonList("Berlin")).subscribe(cancelled);
+        hub.publisher(Collections.singletonList("London")).subscribe(open);
+
+        // Act
+        cancelled.subscription.cancel();
+        hub.poll();
+        hub.close();
+        RecordingSubscriber afterClose = new RecordingSubscriber(Long.MAX_VALUE);
+        hub.publisher(Collections.singletonList("London")).subscribe(afterClose);
+
+        // Assert
+        verify(mockApiClient, never()).getWeatherFromApi("Berlin");
+        assertTrue(cancelled.items.isEmpty());
+        assertFalse(cancelled.completed);
+        assertTrue(open.completed);
+        assertTrue(afterClose.completed);
+        assertEquals(0, hub.getSubscriptionCount());
+    }
+
+    @Test
+    public void testInvalidRequestsAreRejected() {
+        // Arrange
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        hub.publisher(Collections.singletonList("London")).subscribe(subscriber);
+
+        // Act
+        subscriber.subscription.request(0);
+
+        // Assert
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(0, hub.getSubscriptionCount());
+        assertThrows(IllegalArgumentException.class, () -> hub.publisher(Collections.singletonList("Lond@n")));
+        assertThrows(IllegalArgumentException.class, () -> hub.publisher(Collections.emptyList()));
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<WeatherData> {
+        private final long initialDemand;
+        private final List<WeatherData> items = new ArrayList<>();
+        private Flow.Subscription subscription;
+        private boolean completed;
+        private Throwable error;
+
+        private RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialDemand > 0) {
+                subscription.request(initialDemand);
+            }
+        }
+
+        @Override
+        public void onNext(WeatherData item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}